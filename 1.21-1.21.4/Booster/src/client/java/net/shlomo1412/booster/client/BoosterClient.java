@@ -2,18 +2,24 @@ package net.shlomo1412.booster.client;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.shlomo1412.booster.client.editor.ScreenEditorHandler;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
+import net.shlomo1412.booster.client.inventory.InventoryTracker;
 import net.shlomo1412.booster.client.module.ModuleManager;
 import net.shlomo1412.booster.client.module.modules.AutoArmorModule;
+import net.shlomo1412.booster.client.module.modules.BatchCraftModule;
 import net.shlomo1412.booster.client.module.modules.ClearFurnaceModule;
 import net.shlomo1412.booster.client.module.modules.ClearGridModule;
 import net.shlomo1412.booster.client.module.modules.ConnectToServerModule;
 import net.shlomo1412.booster.client.module.modules.CopyIPModule;
+import net.shlomo1412.booster.client.module.modules.CreativeTabIndex;
 import net.shlomo1412.booster.client.module.modules.DatapacksFolderModule;
 import net.shlomo1412.booster.client.module.modules.DeathCoordinatesModule;
 import net.shlomo1412.booster.client.module.modules.DeathInventoryModule;
 import net.shlomo1412.booster.client.module.modules.DropAllContainerModule;
 import net.shlomo1412.booster.client.module.modules.DropAllModule;
 import net.shlomo1412.booster.client.module.modules.EstimatedFuelTimeModule;
+import net.shlomo1412.booster.client.module.modules.FuelTable;
+import net.shlomo1412.booster.client.module.modules.FurnaceArrayModule;
 import net.shlomo1412.booster.client.module.modules.HighlightFuelModule;
 import net.shlomo1412.booster.client.module.modules.InfiniteCraftModule;
 import net.shlomo1412.booster.client.module.modules.LowAirAlertModule;
@@ -61,6 +67,18 @@ public class BoosterClient implements ClientModInitializer {
         // Initialize screen editor event handlers
         ScreenEditorHandler.init();
         
+        // Dispatch queued inventory clicks every tick
+        ClickScheduler.init();
+        
+        // Track inventory changes once per tick for the modules
+        InventoryTracker.init();
+        
+        // Rebuild the creative tab order when tags reload
+        CreativeTabIndex.init();
+        
+        // Rebuild the fuel table when tags reload
+        FuelTable.init();
+        
         LOGGER.info("Booster client initialized with {} modules", 
                 ModuleManager.getInstance().getModules().size());
     }
@@ -84,6 +102,7 @@ public class BoosterClient implements ClientModInitializer {
         // GUI Modules - Crafting Table Screen
         manager.register(new ClearGridModule());
         manager.register(new InfiniteCraftModule());
+        manager.register(new BatchCraftModule());
         
         // GUI Modules - Player Inventory Screen
         manager.register(new AutoArmorModule());
@@ -123,6 +142,7 @@ public class BoosterClient implements ClientModInitializer {
         manager.register(new SmartFuelModule());
         manager.register(new HighlightFuelModule());
         manager.register(new ClearFurnaceModule());
+        manager.register(new FurnaceArrayModule());
         
         // HUD Modules (non-GUI, keybind-based)
         manager.register(new ShowInventoryModule());
@@ -2,6 +2,7 @@ package net.shlomo1412.booster.client.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import net.fabricmc.loader.api.FabricLoader;
@@ -14,7 +15,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Handles saving and loading of Booster configuration.
@@ -36,6 +39,18 @@ public class BoosterConfig {
     // Last world tracking
     private String lastWorldName = null;
     private String lastWorldDisplayName = null;
+    
+    // Inventory click rate limit
+    public static final int DEFAULT_CLICK_PACKETS_PER_TICK = 8;
+    public static final int MAX_CLICK_PACKETS_PER_TICK = 64;
+    private int clickPacketsPerTick = DEFAULT_CLICK_PACKETS_PER_TICK;
+    public static final int DEFAULT_MAX_CLICKS_IN_FLIGHT = 32;
+    public static final int MAX_CLICKS_IN_FLIGHT = 256;
+    private int maxClicksInFlight = DEFAULT_MAX_CLICKS_IN_FLIGHT;
+    
+    // Drop All protection: bit i protects player inventory index i, plus blacklisted item IDs
+    private long dropProtectedSlots = 0L;
+    private final Set<String> dropBlacklist = new LinkedHashSet<>();
 
     public BoosterConfig() {
         this.configPath = FabricLoader.getInstance().getConfigDir().resolve(CONFIG_FILE_NAME);
@@ -92,6 +107,70 @@ public class BoosterConfig {
     public void setLastWorldDisplayName(String displayName) {
         this.lastWorldDisplayName = displayName;
     }
+    
+    // ==================== Click Rate Limit ====================
+    
+    /**
+     * @return The maximum number of inventory click packets sent per tick
+     */
+    public int getClickPacketsPerTick() {
+        return clickPacketsPerTick;
+    }
+    
+    public void setClickPacketsPerTick(int packets) {
+        this.clickPacketsPerTick = Math.max(1, Math.min(MAX_CLICK_PACKETS_PER_TICK, packets));
+    }
+    
+    /**
+     * @return The maximum number of clicks sent but not yet confirmed by the server
+     */
+    public int getMaxClicksInFlight() {
+        return maxClicksInFlight;
+    }
+    
+    public void setMaxClicksInFlight(int clicks) {
+        this.maxClicksInFlight = Math.max(1, Math.min(MAX_CLICKS_IN_FLIGHT, clicks));
+    }
+
+    // ==================== Drop Protection ====================
+    
+    /**
+     * @return Whether Drop All skips the player inventory index
+     */
+    public boolean isDropProtected(int inventoryIndex) {
+        return inventoryIndex >= 0 && inventoryIndex < Long.SIZE && (dropProtectedSlots & (1L << inventoryIndex)) != 0;
+    }
+    
+    /**
+     * Toggles whether Drop All skips the player inventory index.
+     *
+     * @return true if the index is protected now
+     */
+    public boolean toggleDropProtected(int inventoryIndex) {
+        if (inventoryIndex < 0 || inventoryIndex >= Long.SIZE) return false;
+        dropProtectedSlots ^= 1L << inventoryIndex;
+        return isDropProtected(inventoryIndex);
+    }
+    
+    /**
+     * @return Whether Drop All skips the item, by item ID (e.g. "minecraft:diamond")
+     */
+    public boolean isDropBlacklisted(String itemId) {
+        return dropBlacklist.contains(itemId);
+    }
+    
+    /**
+     * Toggles whether Drop All skips the item.
+     *
+     * @return true if the item is blacklisted now
+     */
+    public boolean toggleDropBlacklisted(String itemId) {
+        if (dropBlacklist.remove(itemId)) {
+            return false;
+        }
+        dropBlacklist.add(itemId);
+        return true;
+    }
 
     /**
      * Saves all module configurations to the config file.
@@ -113,6 +192,15 @@ public class BoosterConfig {
         if (lastWorldName != null) settings.addProperty("lastWorldName", lastWorldName);
         if (lastWorldDisplayName != null) settings.addProperty("lastWorldDisplayName", lastWorldDisplayName);
         
+        settings.addProperty("clickPacketsPerTick", clickPacketsPerTick);
+        settings.addProperty("maxClicksInFlight", maxClicksInFlight);
+        
+        // Save drop protection
+        settings.addProperty("dropProtectedSlots", dropProtectedSlots);
+        JsonArray blacklistArray = new JsonArray();
+        dropBlacklist.forEach(blacklistArray::add);
+        settings.add("dropBlacklist", blacklistArray);
+        
         root.add("settings", settings);
         
         JsonObject modulesObject = new JsonObject();
@@ -229,6 +317,23 @@ public class BoosterConfig {
                 if (settings.has("lastWorldDisplayName")) {
                     lastWorldDisplayName = settings.get("lastWorldDisplayName").getAsString();
                 }
+                
+                // Load click rate limit
+                if (settings.has("clickPacketsPerTick")) {
+                    setClickPacketsPerTick(settings.get("clickPacketsPerTick").getAsInt());
+                }
+                if (settings.has("maxClicksInFlight")) {
+                    setMaxClicksInFlight(settings.get("maxClicksInFlight").getAsInt());
+                }
+                
+                // Load drop protection
+                if (settings.has("dropProtectedSlots")) {
+                    dropProtectedSlots = settings.get("dropProtectedSlots").getAsLong();
+                }
+                if (settings.has("dropBlacklist")) {
+                    dropBlacklist.clear();
+                    settings.getAsJsonArray("dropBlacklist").forEach(id -> dropBlacklist.add(id.getAsString()));
+                }
             }
 
             if (!root.has("modules")) {
@@ -0,0 +1,103 @@
+package net.shlomo1412.booster.client.furnace;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.AbstractFurnaceScreenHandler;
+import net.minecraft.screen.BlastFurnaceScreenHandler;
+import net.minecraft.screen.PropertyDelegate;
+import net.minecraft.screen.SmokerScreenHandler;
+import net.shlomo1412.booster.client.module.modules.FuelTable;
+import net.shlomo1412.booster.mixin.client.AbstractFurnaceScreenHandlerAccessor;
+
+/**
+ * Cook and fuel times of an open furnace, blast furnace or smoker.
+ * <p>
+ * Everything is read from the furnace properties where possible and counted in the furnace's own
+ * ticks: blast furnaces and smokers cook in half the time and burn fuel twice as fast, so a fuel
+ * item lasts half its registry burn time in them.
+ */
+public final class FurnaceTimes {
+
+    // Property indices for AbstractFurnaceScreenHandler
+    private static final int BURN_TIME_LEFT = 0;
+    private static final int COOK_PROGRESS = 2;
+    private static final int COOK_TOTAL = 3;
+
+    private FurnaceTimes() {
+    }
+
+    /**
+     * @return Whether the furnace cooks and burns fuel twice as fast as a normal furnace
+     */
+    private static boolean isFast(AbstractFurnaceScreenHandler handler) {
+        return handler instanceof BlastFurnaceScreenHandler || handler instanceof SmokerScreenHandler;
+    }
+
+    private static PropertyDelegate getProperties(AbstractFurnaceScreenHandler handler) {
+        return ((AbstractFurnaceScreenHandlerAccessor) handler).booster$getPropertyDelegate();
+    }
+
+    /**
+     * Gets the burn time of a fuel item in the furnace.
+     *
+     * @return The burn time in ticks, or 0 if the item is not a fuel
+     */
+    public static int getBurnTime(AbstractFurnaceScreenHandler handler, Item item) {
+        int burnTime = FuelTable.getBurnTime(item);
+        return isFast(handler) ? burnTime / 2 : burnTime;
+    }
+
+    /**
+     * Gets the cook time of one item, as reported by the furnace.
+     * Falls back to the furnace type's default before the furnace sent its properties.
+     */
+    public static int getCookTimePerItem(AbstractFurnaceScreenHandler handler) {
+        int cookTotal = getProperties(handler).get(COOK_TOTAL);
+        if (cookTotal > 0) {
+            return cookTotal;
+        }
+        return isFast(handler) ? 100 : 200;
+    }
+
+    /**
+     * Gets the number of items the furnace will cook: the input slot, as far as the output slot has room.
+     */
+    public static int getItemsToCook(AbstractFurnaceScreenHandler handler) {
+        ItemStack input = handler.getSlot(0).getStack();
+        ItemStack output = handler.getSlot(2).getStack();
+        if (input.isEmpty()) return 0;
+        int outputRoom = output.isEmpty() ? 64 : output.getMaxCount() - output.getCount();
+        return Math.max(0, Math.min(input.getCount(), outputRoom));
+    }
+
+    /**
+     * Gets the ticks needed to cook a number of items, counting the progress on the current item.
+     */
+    public static int getCookTicks(AbstractFurnaceScreenHandler handler, int items) {
+        if (items <= 0) return 0;
+        int ticksPerItem = getCookTimePerItem(handler);
+        int cookSpent = getProperties(handler).get(COOK_PROGRESS);
+        return (ticksPerItem - cookSpent) + (items - 1) * ticksPerItem;
+    }
+
+    /**
+     * Gets the burn ticks left in the furnace: the burning item plus the fuel slot.
+     */
+    public static int getFuelTicks(AbstractFurnaceScreenHandler handler) {
+        int fuelTicks = getProperties(handler).get(BURN_TIME_LEFT);
+        ItemStack fuel = handler.getSlot(1).getStack();
+        if (!fuel.isEmpty()) {
+            fuelTicks += fuel.getCount() * getBurnTime(handler, fuel.getItem());
+        }
+        return fuelTicks;
+    }
+
+    /**
+     * Gets the burn ticks the furnace needs for its items beyond the fuel it already has.
+     *
+     * @return The missing burn ticks, or 0 or less if the fuel is enough
+     */
+    public static int getFuelNeeded(AbstractFurnaceScreenHandler handler) {
+        return getCookTicks(handler, getItemsToCook(handler)) - getFuelTicks(handler);
+    }
+}
@@ -0,0 +1,382 @@
+package net.shlomo1412.booster.client.furnace;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.AbstractFurnaceScreenHandler;
+import net.minecraft.screen.PropertyDelegate;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.BlockPos;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.mixin.client.AbstractFurnaceScreenHandlerAccessor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tracks pinned furnaces across worlds, dimensions and sessions.
+ * <p>
+ * Each furnace is keyed by (world or server, dimension, position). When its screen is open, the
+ * raw furnace state (cook progress, burn time left, input, fuel and output room) is recorded along
+ * with the world time, and the furnace is simulated forward from there: it finishes when the input
+ * is cooked, or stops early when the fuel runs out. Furnaces of the current world are kept in a
+ * min-heap by predicted end time, so the next ones to finish are found without scanning the
+ * whole fleet. All furnaces are saved to a small binary file in the config directory.
+ */
+public final class FurnaceTracker {
+    private static FurnaceTracker instance;
+
+    private static final String FILE_NAME = "booster_furnaces.dat";
+    private static final int FILE_VERSION = 1;
+
+    public enum Status {
+        COOKING,        // Still cooking
+        FINISHED,       // All input cooked (or the output is full)
+        OUT_OF_FUEL     // Stopped before the input was cooked
+    }
+
+    /**
+     * Identifies a furnace.
+     *
+     * @param world     "sp:" plus the save folder, or "mp:" plus the server address
+     * @param dimension The dimension ID
+     * @param pos       The packed block position
+     */
+    public record Key(String world, String dimension, long pos) {
+    }
+
+    /**
+     * A tracked furnace: its last observed state and the prediction made from it.
+     */
+    public static final class Furnace {
+        private final Key key;
+        private final String name;
+        private long observedTick;
+        private int cookTotal;
+        private int cookSpent;
+        private int inputCount;
+        private int burnLeft;
+        private int fuelCount;
+        private int fuelBurnTime;
+        private int outputRoom;
+
+        // Prediction
+        private long endTick;
+        private boolean outOfFuel;
+
+        private Furnace(Key key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+
+        /**
+         * Simulates the furnace forward from the observed state.
+         */
+        private void predict() {
+            int items = Math.min(inputCount, outputRoom);
+            long cookTicks = items <= 0 ? 0 : (long) (cookTotal - cookSpent) + (long) (items - 1) * cookTotal;
+            long fuelTicks = burnLeft + (long) fuelCount * fuelBurnTime;
+            outOfFuel = cookTicks > fuelTicks;
+            endTick = observedTick + Math.min(cookTicks, fuelTicks);
+        }
+
+        public Key getKey() {
+            return key;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return World time at which the furnace finishes or runs out of fuel
+         */
+        public long getEndTick() {
+            return endTick;
+        }
+
+        public long getRemainingTicks(long now) {
+            return Math.max(0, endTick - now);
+        }
+
+        public Status getStatus(long now) {
+            if (now < endTick) return Status.COOKING;
+            return outOfFuel ? Status.OUT_OF_FUEL : Status.FINISHED;
+        }
+    }
+
+    private final Map<Key, Furnace> furnaces = new HashMap<>();
+    private final PriorityQueue<Furnace> queue = new PriorityQueue<>(Comparator.comparingLong(Furnace::getEndTick));
+    private String queuedWorld;
+    private int version = 0;
+    private boolean loaded = false;
+
+    private FurnaceTracker() {
+    }
+
+    /**
+     * @return The singleton instance of the furnace tracker
+     */
+    public static FurnaceTracker getInstance() {
+        if (instance == null) {
+            instance = new FurnaceTracker();
+        }
+        return instance;
+    }
+
+    // ==================== Tracking ====================
+
+    /**
+     * Records the state of an open furnace and predicts when it finishes.
+     * Starts tracking the furnace if it isn't tracked yet.
+     */
+    public void observe(BlockPos pos, String name, AbstractFurnaceScreenHandler handler) {
+        Key key = createKey(pos);
+        if (key == null) return;
+
+        Furnace furnace = furnaces.get(key);
+        if (furnace == null) {
+            furnace = new Furnace(key, name);
+            furnaces.put(key, furnace);
+        } else {
+            queue.remove(furnace);
+        }
+
+        PropertyDelegate properties = ((AbstractFurnaceScreenHandlerAccessor) handler).booster$getPropertyDelegate();
+        ItemStack fuel = handler.getSlot(1).getStack();
+        ItemStack output = handler.getSlot(2).getStack();
+
+        furnace.observedTick = getCurrentTick();
+        furnace.burnLeft = properties.get(0);
+        furnace.cookSpent = properties.get(2);
+        furnace.cookTotal = FurnaceTimes.getCookTimePerItem(handler);
+        furnace.inputCount = handler.getSlot(0).getStack().getCount();
+        furnace.fuelCount = fuel.getCount();
+        furnace.fuelBurnTime = fuel.isEmpty() ? 0 : FurnaceTimes.getBurnTime(handler, fuel.getItem());
+        furnace.outputRoom = output.isEmpty() ? 64 : output.getMaxCount() - output.getCount();
+        furnace.predict();
+
+        if (key.world().equals(queuedWorld)) {
+            queue.add(furnace);
+        }
+        changed();
+    }
+
+    /**
+     * @return Whether the furnace at the position in the current world and dimension is tracked
+     */
+    public boolean isTracked(BlockPos pos) {
+        load();
+        Key key = createKey(pos);
+        return key != null && furnaces.containsKey(key);
+    }
+
+    /**
+     * Stops tracking the furnace at the position in the current world and dimension.
+     */
+    public void untrack(BlockPos pos) {
+        load();
+        Key key = createKey(pos);
+        Furnace furnace = key != null ? furnaces.remove(key) : null;
+        if (furnace != null) {
+            queue.remove(furnace);
+            changed();
+        }
+    }
+
+    /**
+     * Stops tracking every furnace of every world.
+     */
+    public void clear() {
+        load();
+        furnaces.clear();
+        queue.clear();
+        changed();
+    }
+
+    /**
+     * @return Whether any furnace is tracked in the current world
+     */
+    public boolean hasTracked() {
+        syncQueue();
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Gets the furnaces of the current world that finish next, soonest first.
+     * Furnaces that finished more than {@code keepTicks} ago are dropped.
+     *
+     * @param limit     Maximum number of furnaces to return
+     * @param keepTicks How long finished furnaces are kept, in ticks
+     */
+    public List<Furnace> getUpcoming(int limit, long keepTicks) {
+        syncQueue();
+        List<Furnace> upcoming = new ArrayList<>(limit);
+        if (queuedWorld == null) return upcoming;
+
+        long now = getCurrentTick();
+        boolean removed = false;
+        while (!queue.isEmpty() && queue.peek().getEndTick() + keepTicks < now) {
+            furnaces.remove(queue.poll().getKey());
+            removed = true;
+        }
+
+        // Poll the head of the heap and put it back, instead of sorting the whole fleet
+        while (upcoming.size() < limit && !queue.isEmpty()) {
+            upcoming.add(queue.poll());
+        }
+        queue.addAll(upcoming);
+
+        if (removed) {
+            changed();
+        }
+        return upcoming;
+    }
+
+    /**
+     * @return A counter bumped whenever a furnace is added, updated or removed
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The current world time in ticks, or -1 when not in a world
+     */
+    public long getCurrentTick() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        return client.world != null ? client.world.getTime() : -1;
+    }
+
+    private void changed() {
+        version++;
+        save();
+    }
+
+    /**
+     * Refills the heap when the player moved to another world.
+     */
+    private void syncQueue() {
+        load();
+        String world = getWorldId();
+        if (world == null ? queuedWorld == null : world.equals(queuedWorld)) {
+            return;
+        }
+
+        queue.clear();
+        queuedWorld = world;
+        if (world != null) {
+            for (Furnace furnace : furnaces.values()) {
+                if (furnace.key.world().equals(world)) {
+                    queue.add(furnace);
+                }
+            }
+        }
+        version++;
+    }
+
+    private Key createKey(BlockPos pos) {
+        load();
+        MinecraftClient client = MinecraftClient.getInstance();
+        String world = getWorldId();
+        if (world == null || client.world == null) return null;
+        return new Key(world, client.world.getRegistryKey().getValue().toString(), pos.asLong());
+    }
+
+    /**
+     * @return An ID of the current singleplayer world or server, or null when not in a world
+     */
+    private static String getWorldId() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.world == null) return null;
+
+        if (client.isInSingleplayer() && client.getServer() != null) {
+            Path root = client.getServer().getSavePath(WorldSavePath.ROOT).normalize();
+            return "sp:" + root.getFileName();
+        }
+        ServerInfo serverInfo = client.getCurrentServerEntry();
+        return serverInfo != null ? "mp:" + serverInfo.address : null;
+    }
+
+    // ==================== Persistence ====================
+
+    private Path getFilePath() {
+        return FabricLoader.getInstance().getConfigDir().resolve(FILE_NAME);
+    }
+
+    /**
+     * Loads the saved furnaces the first time the tracker is used.
+     */
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+
+        Path path = getFilePath();
+        if (!Files.exists(path)) return;
+
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new GZIPInputStream(file))) {
+            if (in.readInt() != FILE_VERSION) return;
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Key key = new Key(in.readUTF(), in.readUTF(), in.readLong());
+                Furnace furnace = new Furnace(key, in.readUTF());
+                furnace.observedTick = in.readLong();
+                furnace.cookTotal = in.readInt();
+                furnace.cookSpent = in.readInt();
+                furnace.inputCount = in.readInt();
+                furnace.burnLeft = in.readInt();
+                furnace.fuelCount = in.readInt();
+                furnace.fuelBurnTime = in.readInt();
+                furnace.outputRoom = in.readInt();
+                furnace.predict();
+                furnaces.put(key, furnace);
+            }
+        } catch (IOException e) {
+            BoosterClient.LOGGER.error("Failed to load tracked furnaces", e);
+        }
+    }
+
+    private void save() {
+        Path path = getFilePath();
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream file = Files.newOutputStream(path);
+                 DataOutputStream out = new DataOutputStream(new GZIPOutputStream(file))) {
+                out.writeInt(FILE_VERSION);
+                out.writeInt(furnaces.size());
+                for (Furnace furnace : furnaces.values()) {
+                    out.writeUTF(furnace.key.world());
+                    out.writeUTF(furnace.key.dimension());
+                    out.writeLong(furnace.key.pos());
+                    out.writeUTF(furnace.name);
+                    out.writeLong(furnace.observedTick);
+                    out.writeInt(furnace.cookTotal);
+                    out.writeInt(furnace.cookSpent);
+                    out.writeInt(furnace.inputCount);
+                    out.writeInt(furnace.burnLeft);
+                    out.writeInt(furnace.fuelCount);
+                    out.writeInt(furnace.fuelBurnTime);
+                    out.writeInt(furnace.outputRoom);
+                }
+            }
+        } catch (IOException e) {
+            BoosterClient.LOGGER.error("Failed to save tracked furnaces", e);
+        }
+    }
+}
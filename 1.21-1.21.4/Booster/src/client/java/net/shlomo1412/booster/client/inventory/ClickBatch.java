@@ -0,0 +1,340 @@
+package net.shlomo1412.booster.client.inventory;
+
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.SlotActionType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * An ordered group of slot clicks for one screen handler.
+ * Submitted to the {@link ClickScheduler}, which sends the clicks in order, spread across ticks,
+ * and never interleaves them with clicks of another batch.
+ */
+public class ClickBatch {
+
+    public enum State {
+        QUEUED,     // Waiting for earlier batches
+        RUNNING,    // Some clicks have been sent
+        DONE,       // All clicks were sent
+        CANCELLED   // Dropped before all clicks were sent
+    }
+
+    /**
+     * A single slot click.
+     *
+     * @param slotId         The handler slot ID
+     * @param button         The mouse button (or hotbar index for SWAP)
+     * @param action         The slot action
+     * @param onlyWithCursor Skip the click if the cursor is empty when it's due
+     */
+    public record Click(int slotId, int button, SlotActionType action, boolean onlyWithCursor) {
+    }
+
+    private final String name;
+    private final ScreenHandler handler;
+    private final int syncId;
+    private final List<Click> clicks = new ArrayList<>();
+    private int next = 0;
+    private State state = State.QUEUED;
+    private Consumer<ClickBatch> onProgress;
+    private Runnable onComplete;
+    private Supplier<ClickBatch> replanner;
+    private int replans = 0;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param name    Name used in logs
+     * @param handler The handler the clicks are meant for
+     */
+    public ClickBatch(String name, ScreenHandler handler) {
+        this.name = name;
+        this.handler = handler;
+        this.syncId = handler.syncId;
+    }
+
+    // ==================== Building ====================
+
+    public ClickBatch add(int slotId, int button, SlotActionType action) {
+        clicks.add(new Click(slotId, button, action, false));
+        return this;
+    }
+
+    /**
+     * Left-click: picks up, places, merges or swaps the whole stack.
+     */
+    public ClickBatch pickup(int slotId) {
+        return add(slotId, 0, SlotActionType.PICKUP);
+    }
+
+    /**
+     * Right-click: picks up half a stack or places a single item.
+     */
+    public ClickBatch pickupOne(int slotId) {
+        return add(slotId, 1, SlotActionType.PICKUP);
+    }
+
+    /**
+     * Left-click that is skipped when the cursor is empty, e.g. to put back leftovers.
+     */
+    public ClickBatch pickupIfHolding(int slotId) {
+        clicks.add(new Click(slotId, 0, SlotActionType.PICKUP, true));
+        return this;
+    }
+
+    /**
+     * Shift-click.
+     */
+    public ClickBatch quickMove(int slotId) {
+        return add(slotId, 0, SlotActionType.QUICK_MOVE);
+    }
+
+    /**
+     * Double-click with a held stack: gathers matching items from the other slots onto the cursor.
+     */
+    public ClickBatch pickupAll(int slotId) {
+        return add(slotId, 0, SlotActionType.PICKUP_ALL);
+    }
+
+    /**
+     * Moves part or all of a stack into another slot with few clicks. The whole stack is placed
+     * with two clicks; when only part is needed, half the stack is picked up with a right-click
+     * while that's not more than needed. When half is too much but a quarter isn't, the half is
+     * left-dragged across both slots, splitting it between them. Only the last few items are
+     * placed one at a time. The cursor must be empty.
+     *
+     * @param fromSlotId The slot holding the stack
+     * @param count      The number of items in the stack
+     * @param toSlotId   The slot to move the items into
+     * @param needed     The number of items to move
+     * @return The number of items moved
+     */
+    public int move(int fromSlotId, int count, int toSlotId, int needed) {
+        int moved = 0;
+        while (needed > 0 && count > 0) {
+            if (count <= needed) {
+                pickup(fromSlotId).pickup(toSlotId);
+                return moved + count;
+            }
+
+            int half = (count + 1) / 2;
+            if (half <= needed) {
+                // Right-click picks up half the stack
+                pickupOne(fromSlotId).pickup(toSlotId);
+                count -= half;
+                needed -= half;
+                moved += half;
+            } else if (half <= 2 * needed + 1) {
+                // Split the half between both slots; an odd item left on the cursor goes in too if needed
+                int share = half / 2;
+                pickupOne(fromSlotId).drag(List.of(toSlotId, fromSlotId), false);
+                count -= share;
+                needed -= share;
+                moved += share;
+                if (half % 2 == 1) {
+                    if (needed > 0) {
+                        pickup(toSlotId);
+                        count--;
+                        needed--;
+                        moved++;
+                    } else {
+                        pickup(fromSlotId);
+                    }
+                }
+            } else {
+                pickup(fromSlotId);
+                for (int placed = 0; placed < needed; placed++) {
+                    pickupOne(toSlotId);
+                }
+                pickupIfHolding(fromSlotId);
+                return moved + needed;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Drag with a held stack (QUICK_CRAFT) across slots, in one gesture.
+     * A left-drag splits the stack evenly across the slots, keeping the remainder on the cursor;
+     * a right-drag places one item in each slot. Dragging across a single slot acts as a plain
+     * left- or right-click on it.
+     *
+     * @param slotIds    The slots to drag across, at most as many as items on the cursor
+     * @param onePerSlot true for a right-drag, false for a left-drag
+     */
+    public ClickBatch drag(List<Integer> slotIds, boolean onePerSlot) {
+        int mode = onePerSlot ? 1 : 0;
+        add(ScreenHandler.EMPTY_SPACE_SLOT_INDEX, ScreenHandler.packQuickCraftData(0, mode), SlotActionType.QUICK_CRAFT);
+        for (int slotId : slotIds) {
+            add(slotId, ScreenHandler.packQuickCraftData(1, mode), SlotActionType.QUICK_CRAFT);
+        }
+        return add(ScreenHandler.EMPTY_SPACE_SLOT_INDEX, ScreenHandler.packQuickCraftData(2, mode), SlotActionType.QUICK_CRAFT);
+    }
+
+    /**
+     * CTRL+Q: throws the whole stack.
+     */
+    public ClickBatch throwStack(int slotId) {
+        return add(slotId, 1, SlotActionType.THROW);
+    }
+
+    /**
+     * Sets a listener called while the batch is in flight and once when it finishes.
+     */
+    public ClickBatch onProgress(Consumer<ClickBatch> listener) {
+        this.onProgress = listener;
+        return this;
+    }
+
+    /**
+     * Sets a callback run after the last click was sent. Not run if the batch is cancelled.
+     */
+    public ClickBatch onComplete(Runnable callback) {
+        this.onComplete = callback;
+        return this;
+    }
+
+    /**
+     * Sets how to re-plan the remaining work after the server state diverged from the prediction.
+     * The supplier runs with an empty cursor, on the authoritative slot contents, and may return
+     * null when nothing is left to do. Without it, a diverged batch is cancelled.
+     */
+    public ClickBatch onDesync(Supplier<ClickBatch> replanner) {
+        this.replanner = replanner;
+        return this;
+    }
+
+    // ==================== State ====================
+
+    public String getName() {
+        return name;
+    }
+
+    public ScreenHandler getHandler() {
+        return handler;
+    }
+
+    public int getSyncId() {
+        return syncId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isEmpty() {
+        return clicks.isEmpty();
+    }
+
+    /**
+     * @return Whether the batch is done or cancelled
+     */
+    public boolean isFinished() {
+        return state == State.DONE || state == State.CANCELLED;
+    }
+
+    /**
+     * @return Total number of clicks in the batch
+     */
+    public int size() {
+        return clicks.size();
+    }
+
+    /**
+     * @return Number of clicks not handled yet
+     */
+    public int getRemaining() {
+        return clicks.size() - next;
+    }
+
+    /**
+     * @return Fraction of clicks handled, from 0 to 1
+     */
+    public float getProgress() {
+        return clicks.isEmpty() ? 1.0f : (float) next / clicks.size();
+    }
+
+    /**
+     * Cancels the remaining clicks.
+     */
+    public void cancel() {
+        if (!isFinished()) {
+            finish(State.CANCELLED);
+        }
+    }
+
+    // ==================== Scheduler access ====================
+
+    Click peek() {
+        return clicks.get(next);
+    }
+
+    void advance() {
+        next++;
+        state = State.RUNNING;
+    }
+
+    boolean hasNext() {
+        return next < clicks.size();
+    }
+
+    void notifyProgress() {
+        if (onProgress != null) {
+            onProgress.accept(this);
+        }
+    }
+
+    /**
+     * Checks whether any of the remaining clicks targets one of the given slots.
+     */
+    boolean touchesRemaining(BitSet slotIds) {
+        for (int i = next; i < clicks.size(); i++) {
+            int slotId = clicks.get(i).slotId();
+            if (slotId >= 0 && slotIds.get(slotId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any click of this batch targets the slot.
+     */
+    boolean touches(int slotId) {
+        for (Click click : clicks) {
+            if (click.slotId() == slotId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Supplier<ClickBatch> getReplanner() {
+        return replanner;
+    }
+
+    int getReplans() {
+        return replans;
+    }
+
+    /**
+     * Takes over the listeners of a batch this one replaces after a desync.
+     */
+    void inheritFrom(ClickBatch previous) {
+        if (onProgress == null) onProgress = previous.onProgress;
+        if (onComplete == null) onComplete = previous.onComplete;
+        replans = previous.replans + 1;
+    }
+
+    void finish(State finalState) {
+        this.state = finalState;
+        notifyProgress();
+        if (finalState == State.DONE && onComplete != null) {
+            onComplete.run();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.shlomo1412.booster.client.inventory;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.network.PlayerListEntry;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.ScreenHandler;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+/**
+ * Tracks clicks that were sent but not confirmed yet, and the slot contents they should lead to.
+ * <p>
+ * The client applies every click locally before sending it, so the handler's contents right after
+ * a round of clicks are the predicted server state. The server only sends slot updates when its
+ * state differs from what the client reported, and every update bumps the handler's revision.
+ * A revision change therefore means the prediction has to be checked against the new contents.
+ * <p>
+ * The protocol has no per-click acknowledgement, so a click counts as in flight for one round
+ * trip (the player's latency plus a margin) after it was sent.
+ */
+final class ClickPipeline {
+
+    // Extra time before a click counts as confirmed, covering server tick and jitter
+    private static final long ACK_MARGIN_MS = 50;
+
+    private final Deque<Long> sentAt = new ArrayDeque<>();
+
+    private ScreenHandler predictedHandler;
+    private ItemStack[] predictedSlots;
+    private ItemStack predictedCursor = ItemStack.EMPTY;
+    private int predictedRevision;
+
+    /**
+     * Records a click that was just sent.
+     */
+    void onClickSent() {
+        sentAt.add(System.currentTimeMillis());
+    }
+
+    /**
+     * @return Number of clicks sent within the last round trip
+     */
+    int getInFlight() {
+        long confirmedBefore = System.currentTimeMillis() - getRoundTripMs();
+        while (!sentAt.isEmpty() && sentAt.peek() < confirmedBefore) {
+            sentAt.poll();
+        }
+        return sentAt.size();
+    }
+
+    /**
+     * Stores the handler's current contents as the expected result of the clicks sent so far.
+     */
+    void predict(ScreenHandler handler) {
+        int size = handler.slots.size();
+        if (predictedHandler != handler || predictedSlots == null || predictedSlots.length != size) {
+            predictedSlots = new ItemStack[size];
+        }
+        for (int i = 0; i < size; i++) {
+            predictedSlots[i] = handler.getSlot(i).getStack().copy();
+        }
+        predictedCursor = handler.getCursorStack().copy();
+        predictedHandler = handler;
+        predictedRevision = handler.getRevision();
+    }
+
+    /**
+     * Compares the handler with the prediction after the server sent updates.
+     *
+     * @return The slots whose contents differ from the prediction, or null if the server hasn't
+     *         sent anything since the prediction was made (or there is no prediction for this handler)
+     */
+    BitSet findDivergence(ScreenHandler handler) {
+        if (handler != predictedHandler || handler.getRevision() == predictedRevision) {
+            return null;
+        }
+
+        BitSet diverged = new BitSet(predictedSlots.length);
+        int size = Math.min(predictedSlots.length, handler.slots.size());
+        for (int i = 0; i < size; i++) {
+            if (!ItemStack.areEqual(predictedSlots[i], handler.getSlot(i).getStack())) {
+                diverged.set(i);
+            }
+        }
+        return diverged;
+    }
+
+    /**
+     * @return Whether the cursor differs from the prediction
+     */
+    boolean isCursorDiverged(ScreenHandler handler) {
+        return handler == predictedHandler && !ItemStack.areEqual(predictedCursor, handler.getCursorStack());
+    }
+
+    /**
+     * Forgets the prediction and the clicks in flight.
+     */
+    void reset() {
+        sentAt.clear();
+        predictedHandler = null;
+        predictedSlots = null;
+        predictedCursor = ItemStack.EMPTY;
+    }
+
+    private static long getRoundTripMs() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        ClientPlayNetworkHandler network = client.getNetworkHandler();
+        if (network == null || client.player == null) {
+            return ACK_MARGIN_MS;
+        }
+        PlayerListEntry entry = network.getPlayerListEntry(client.player.getUuid());
+        int latency = entry != null ? Math.max(0, entry.getLatency()) : 0;
+        return latency + ACK_MARGIN_MS;
+    }
+}
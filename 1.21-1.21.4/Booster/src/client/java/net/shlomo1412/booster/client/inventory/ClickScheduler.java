@@ -0,0 +1,342 @@
+package net.shlomo1412.booster.client.inventory;
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
+import net.minecraft.screen.slot.SlotActionType;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.client.module.ModuleManager;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * Central, rate-limited pipeline for inventory clicks.
+ * <p>
+ * Modules submit {@link ClickBatch}es instead of calling {@code clickSlot} in a loop. Batches run
+ * one after another, and at most {@code clickPacketsPerTick} clicks are sent per client tick, so
+ * long operations are spread across ticks instead of hitching a frame and flooding the server.
+ * A batch is cancelled as soon as its screen closes or the open handler's sync ID changes.
+ * <p>
+ * Clicks are pipelined: up to {@code maxClicksInFlight} clicks may be sent before the server could
+ * have answered. The {@link ClickPipeline} checks the server's slot updates against the predicted
+ * contents; when they diverge in a way that affects the running batch, sending pauses until the
+ * server's updates settle, the cursor is put down, and the batch is re-planned from the
+ * authoritative slots (or cancelled if it can't be).
+ */
+public final class ClickScheduler {
+    private static ClickScheduler instance;
+    private static boolean tickRegistered = false;
+
+    // Ticks without server slot updates before a diverged batch is re-planned
+    private static final int RESYNC_QUIET_TICKS = 2;
+    // Re-plans per operation before giving up, so a contested inventory can't loop forever
+    private static final int MAX_REPLANS = 3;
+
+    private final Deque<ClickBatch> queue = new ArrayDeque<>();
+    private final ClickPipeline pipeline = new ClickPipeline();
+    private int budgetLeft;
+
+    // Batch waiting for the server state to settle after a desync
+    private ClickBatch resyncing;
+    private int resyncRevision;
+    private int quietTicks;
+
+    private ClickScheduler() {
+        this.budgetLeft = getPacketsPerTick();
+    }
+
+    /**
+     * @return The singleton instance of the click scheduler
+     */
+    public static ClickScheduler getInstance() {
+        if (instance == null) {
+            instance = new ClickScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers the client tick handler that dispatches queued clicks.
+     * Only registers once.
+     */
+    public static void init() {
+        if (!tickRegistered) {
+            ClientTickEvents.END_CLIENT_TICK.register(client -> getInstance().tick(client));
+            tickRegistered = true;
+        }
+    }
+
+    /**
+     * Queues a batch. Clicks are sent right away while this tick's budget lasts.
+     *
+     * @param batch The batch to run
+     * @return The same batch, for chaining
+     */
+    public ClickBatch submit(ClickBatch batch) {
+        if (batch.isEmpty()) {
+            batch.finish(ClickBatch.State.DONE);
+            return batch;
+        }
+        if (isSettled()) {
+            // Nothing is in flight, so the slots already show the server's answer and the batch was
+            // planned from them; they must not count as a divergence on the first drain
+            pipeline.predict(batch.getHandler());
+        }
+        queue.add(batch);
+        drain(MinecraftClient.getInstance());
+        return batch;
+    }
+
+    /**
+     * Checks whether clicks are still queued for a handler.
+     * Plans based on the handler's slots shouldn't be made while it is busy.
+     */
+    public boolean isBusy(ScreenHandler handler) {
+        for (ClickBatch batch : queue) {
+            if (batch.getHandler() == handler && !batch.isFinished()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether every queued click was sent and the server had time to answer the last one.
+     * A batch being done only means its clicks were sent; slots that the client can't predict
+     * (e.g. what a shift-click on a crafting result made) are only right once this holds.
+     */
+    public boolean isSettled() {
+        for (ClickBatch batch : queue) {
+            if (!batch.isFinished()) {
+                return false;
+            }
+        }
+        return resyncing == null && pipeline.getInFlight() == 0;
+    }
+
+    /**
+     * @return Number of clicks waiting to be sent across all batches
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ClickBatch batch : queue) {
+            if (!batch.isFinished()) {
+                depth += batch.getRemaining();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * @return Number of batches waiting or in flight
+     */
+    public int getPendingBatchCount() {
+        return queue.size();
+    }
+
+    /**
+     * Cancels every queued batch.
+     */
+    public void cancelAll() {
+        while (!queue.isEmpty()) {
+            queue.poll().cancel();
+        }
+        resyncing = null;
+        pipeline.reset();
+    }
+
+    /**
+     * @return Whether sending is paused to recover from a desync
+     */
+    public boolean isResyncing() {
+        return resyncing != null;
+    }
+
+    private void tick(MinecraftClient client) {
+        budgetLeft = getPacketsPerTick();
+        if (resyncing != null) {
+            tickResync(client);
+        }
+        drain(client);
+    }
+
+    /**
+     * Sends queued clicks until the budget for this tick runs out.
+     */
+    private void drain(MinecraftClient client) {
+        ClickBatch touched = null;
+        ScreenHandler sentTo = null;
+        int window = getMaxClicksInFlight();
+
+        while (budgetLeft > 0 && !queue.isEmpty() && resyncing == null) {
+            ClickBatch batch = queue.peek();
+            if (batch.isFinished()) {
+                queue.poll();
+                continue;
+            }
+
+            ScreenHandler current = client.player != null ? client.player.currentScreenHandler : null;
+            if (client.interactionManager == null || current != batch.getHandler()
+                    || current.syncId != batch.getSyncId()) {
+                queue.poll();
+                BoosterClient.LOGGER.debug("Cancelled click batch '{}' with {} clicks left (screen changed)",
+                        batch.getName(), batch.getRemaining());
+                batch.cancel();
+                pipeline.reset();
+                continue;
+            }
+
+            // Server updates only arrive between ticks, so the prediction is checked once per drain
+            if (sentTo == null && hasDiverged(current, batch)) {
+                startResync(current, batch);
+                break;
+            }
+
+            if (pipeline.getInFlight() >= window) {
+                break;
+            }
+
+            ClickBatch.Click click = batch.peek();
+            if (!click.onlyWithCursor() || !current.getCursorStack().isEmpty()) {
+                client.interactionManager.clickSlot(
+                    batch.getSyncId(), click.slotId(), click.button(), click.action(), client.player
+                );
+                pipeline.onClickSent();
+                budgetLeft--;
+            }
+            sentTo = current;
+            batch.advance();
+            touched = batch;
+
+            if (!batch.hasNext()) {
+                queue.poll();
+                batch.finish(ClickBatch.State.DONE);
+                touched = null;
+            }
+        }
+
+        if (sentTo != null) {
+            // The client applied the clicks locally, so its contents are what the server should end up with
+            pipeline.predict(sentTo);
+        }
+        if (touched != null) {
+            touched.notifyProgress();
+        }
+    }
+
+    /**
+     * Checks the server's updates since the last prediction against the running batch.
+     * Changes to slots the batch won't click again (e.g. a furnace producing output) are accepted.
+     */
+    private boolean hasDiverged(ScreenHandler handler, ClickBatch batch) {
+        BitSet diverged = pipeline.findDivergence(handler);
+        if (diverged == null) {
+            return false;
+        }
+        if (pipeline.isCursorDiverged(handler) || batch.touchesRemaining(diverged)) {
+            return true;
+        }
+        pipeline.predict(handler);
+        return false;
+    }
+
+    private void startResync(ScreenHandler handler, ClickBatch batch) {
+        BoosterClient.LOGGER.info("Click batch '{}' diverged from the server with {} clicks left, resyncing",
+                batch.getName(), batch.getRemaining());
+        resyncing = batch;
+        resyncRevision = handler.getRevision();
+        quietTicks = 0;
+    }
+
+    /**
+     * Waits until the server stops correcting slots and no clicks are in flight,
+     * then replaces the diverged batch with a fresh plan.
+     */
+    private void tickResync(MinecraftClient client) {
+        ClickBatch batch = resyncing;
+        ScreenHandler current = client.player != null ? client.player.currentScreenHandler : null;
+        if (batch.isFinished() || client.interactionManager == null || current != batch.getHandler()
+                || current.syncId != batch.getSyncId()) {
+            // The drain cancels it if it's still queued
+            resyncing = null;
+            pipeline.reset();
+            return;
+        }
+
+        if (current.getRevision() != resyncRevision) {
+            resyncRevision = current.getRevision();
+            quietTicks = 0;
+            return;
+        }
+        if (++quietTicks < RESYNC_QUIET_TICKS || pipeline.getInFlight() > 0) {
+            return;
+        }
+
+        resyncing = null;
+        pipeline.reset();
+        queue.remove(batch);
+
+        Supplier<ClickBatch> replanner = batch.getReplanner();
+        if (replanner == null || batch.getReplans() >= MAX_REPLANS || !putDownCursor(client, current, batch)) {
+            BoosterClient.LOGGER.warn("Cancelled click batch '{}' after desync", batch.getName());
+            batch.cancel();
+            return;
+        }
+
+        batch.cancel();
+        ClickBatch replacement = replanner.get();
+        if (replacement == null || replacement.isEmpty()) {
+            BoosterClient.LOGGER.info("Click batch '{}' has nothing left to do after resync", batch.getName());
+            return;
+        }
+        replacement.inheritFrom(batch);
+        queue.addFirst(replacement);
+        BoosterClient.LOGGER.info("Re-planned click batch '{}' with {} clicks after resync",
+                replacement.getName(), replacement.size());
+    }
+
+    /**
+     * Puts the cursor stack into an empty slot, preferring slots the batch worked on.
+     *
+     * @return Whether the cursor is empty afterwards
+     */
+    private boolean putDownCursor(MinecraftClient client, ScreenHandler handler, ClickBatch batch) {
+        ItemStack cursor = handler.getCursorStack();
+        if (cursor.isEmpty()) {
+            return true;
+        }
+
+        int target = -1;
+        for (Slot slot : handler.slots) {
+            if (slot.hasStack() || !slot.canInsert(cursor)) continue;
+            if (batch.touches(slot.id)) {
+                target = slot.id;
+                break;
+            }
+            if (target < 0) {
+                target = slot.id;
+            }
+        }
+        if (target < 0) {
+            return false;
+        }
+
+        client.interactionManager.clickSlot(handler.syncId, target, 0, SlotActionType.PICKUP, client.player);
+        pipeline.onClickSent();
+        budgetLeft--;
+        return handler.getCursorStack().isEmpty();
+    }
+
+    private static int getPacketsPerTick() {
+        return ModuleManager.getInstance().getConfig().getClickPacketsPerTick();
+    }
+
+    private static int getMaxClicksInFlight() {
+        return ModuleManager.getInstance().getConfig().getMaxClicksInFlight();
+    }
+}
@@ -0,0 +1,145 @@
+package net.shlomo1412.booster.client.inventory;
+
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fill statistics of the container slots (not the player inventory) of a screen handler.
+ * <p>
+ * Slot fill, item fill, remaining capacity and the per-item breakdown are computed together in
+ * one pass over the slots. Empty slots count as room for one stack of the usual maximum size (64),
+ * since a slot's own limit (99) is only reached by the few items that allow it. {@link #of} caches
+ * the result against the handler's revision (bumped by every slot update from the server) and the
+ * {@link InventoryTracker} version (which also sees local clicks), so the slots are only walked
+ * again after they changed.
+ */
+public final class ContainerFillStats {
+
+    public static final ContainerFillStats EMPTY = new ContainerFillStats(0, 0, 0, 0, 0, Map.of());
+
+    private static ScreenHandler cachedHandler;
+    private static int cachedRevision;
+    private static int cachedVersion;
+    private static ContainerFillStats cached = EMPTY;
+
+    private final int totalSlots;
+    private final int filledSlots;
+    private final int itemCount;
+    private final int itemCapacity;
+    private final float stackFill;
+    private final Map<Item, Integer> itemCounts;
+
+    private ContainerFillStats(int totalSlots, int filledSlots, int itemCount, int itemCapacity,
+                               float stackFill, Map<Item, Integer> itemCounts) {
+        this.totalSlots = totalSlots;
+        this.filledSlots = filledSlots;
+        this.itemCount = itemCount;
+        this.itemCapacity = itemCapacity;
+        this.stackFill = stackFill;
+        this.itemCounts = itemCounts;
+    }
+
+    /**
+     * Gets the statistics of a handler, recomputing them only if its slots changed.
+     */
+    public static ContainerFillStats of(ScreenHandler handler) {
+        InventoryTracker tracker = InventoryTracker.getInstance();
+        int version = tracker.getTrackedHandler() == handler ? tracker.getHandlerVersion() : -1;
+        if (handler != cachedHandler || handler.getRevision() != cachedRevision
+                || version != cachedVersion || version == -1) {
+            cached = compute(handler);
+            cachedHandler = handler;
+            cachedRevision = handler.getRevision();
+            cachedVersion = version;
+        }
+        return cached;
+    }
+
+    private static ContainerFillStats compute(ScreenHandler handler) {
+        int totalSlots = 0;
+        int filledSlots = 0;
+        int itemCount = 0;
+        int itemCapacity = 0;
+        float stackFill = 0;
+        Map<Item, Integer> itemCounts = new HashMap<>();
+
+        for (Slot slot : handler.slots) {
+            // Only count container slots, not player inventory
+            if (slot.inventory instanceof PlayerInventory) continue;
+
+            totalSlots++;
+            ItemStack stack = slot.getStack();
+            if (stack.isEmpty()) {
+                itemCapacity += Math.min(slot.getMaxItemCount(), Item.DEFAULT_MAX_COUNT);
+                continue;
+            }
+
+            int max = slot.getMaxItemCount(stack);
+            filledSlots++;
+            itemCount += stack.getCount();
+            itemCapacity += max;
+            stackFill += Math.min(1f, (float) stack.getCount() / max);
+            itemCounts.merge(stack.getItem(), stack.getCount(), Integer::sum);
+        }
+
+        return new ContainerFillStats(totalSlots, filledSlots, itemCount, itemCapacity,
+                totalSlots > 0 ? stackFill / totalSlots : 0f, Collections.unmodifiableMap(itemCounts));
+    }
+
+    public int getTotalSlots() {
+        return totalSlots;
+    }
+
+    public int getFilledSlots() {
+        return filledSlots;
+    }
+
+    /**
+     * @return Number of empty slots
+     */
+    public int getFreeSlots() {
+        return totalSlots - filledSlots;
+    }
+
+    /**
+     * @return Fraction of slots holding a stack, from 0 to 1
+     */
+    public float getSlotFill() {
+        return totalSlots > 0 ? (float) filledSlots / totalSlots : 0f;
+    }
+
+    /**
+     * @return Average of count divided by max stack size over all slots, from 0 to 1
+     */
+    public float getItemFill() {
+        return stackFill;
+    }
+
+    /**
+     * @return Total number of items
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * @return Number of items that still fit: the free room of partial stacks plus 64 per empty slot
+     */
+    public int getRemainingCapacity() {
+        return itemCapacity - itemCount;
+    }
+
+    /**
+     * @return Total item count per item type
+     */
+    public Map<Item, Integer> getItemCounts() {
+        return itemCounts;
+    }
+}
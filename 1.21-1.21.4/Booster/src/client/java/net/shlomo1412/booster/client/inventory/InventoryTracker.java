@@ -0,0 +1,225 @@
+package net.shlomo1412.booster.client.inventory;
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.ScreenHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Client-side tracker of the player inventory and the open screen handler.
+ * <p>
+ * Once per tick, before other modules tick, the live stacks are compared with a snapshot taken the
+ * previous tick. Every difference becomes a {@link SlotChange}, the snapshot is updated and the
+ * scope's version is bumped. Modules can subscribe to the changes, or remember a version and skip
+ * their work while it stays the same.
+ */
+public final class InventoryTracker {
+    private static InventoryTracker instance;
+    private static boolean tickRegistered = false;
+
+    public enum Scope {
+        PLAYER,     // Player inventory indices (0-8 hotbar, 9-35 main, 36-39 armor, 40 offhand)
+        HANDLER     // Slot IDs of the open screen handler
+    }
+
+    public enum ChangeType {
+        ADDED,          // An empty slot got a stack
+        REMOVED,        // A stack was removed
+        COUNT_CHANGED,  // Same item and components, different count
+        REPLACED        // Different item or components (e.g. damage)
+    }
+
+    /**
+     * A change of one slot since the previous tick.
+     *
+     * @param scope    Which inventory the slot belongs to
+     * @param slot     The inventory index or handler slot ID
+     * @param type     The kind of change
+     * @param previous Snapshot of the previous stack (empty if none)
+     * @param current  Snapshot of the new stack (empty if none)
+     */
+    public record SlotChange(Scope scope, int slot, ChangeType type, ItemStack previous, ItemStack current) {
+    }
+
+    /**
+     * Receives the changes of one scope, once per tick in which anything changed.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onChanges(Scope scope, List<SlotChange> changes);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private ItemStack[] playerSnapshot = new ItemStack[0];
+    private int selectedSlot = -1;
+    private int playerVersion = 0;
+
+    private ScreenHandler trackedHandler;
+    private ItemStack[] handlerSnapshot = new ItemStack[0];
+    private int handlerVersion = 0;
+
+    private InventoryTracker() {
+    }
+
+    /**
+     * @return The singleton instance of the inventory tracker
+     */
+    public static InventoryTracker getInstance() {
+        if (instance == null) {
+            instance = new InventoryTracker();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers the tick handler that diffs the inventories.
+     * Runs at the start of the tick so modules ticking at the end see this tick's changes.
+     * Only registers once.
+     */
+    public static void init() {
+        if (!tickRegistered) {
+            ClientTickEvents.START_CLIENT_TICK.register(client -> getInstance().tick(client));
+            tickRegistered = true;
+        }
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return Version of the player inventory, bumped whenever a slot or the selected hotbar slot changes
+     */
+    public int getPlayerVersion() {
+        return playerVersion;
+    }
+
+    /**
+     * @return Version of the open handler's slots, bumped whenever a slot changes or another handler opens
+     */
+    public int getHandlerVersion() {
+        return handlerVersion;
+    }
+
+    /**
+     * @return The handler whose slots are tracked, or null
+     */
+    public ScreenHandler getTrackedHandler() {
+        return trackedHandler;
+    }
+
+    private void tick(MinecraftClient client) {
+        if (client.player == null) {
+            if (trackedHandler != null || playerSnapshot.length > 0) {
+                trackedHandler = null;
+                handlerSnapshot = new ItemStack[0];
+                playerSnapshot = new ItemStack[0];
+                selectedSlot = -1;
+                playerVersion++;
+                handlerVersion++;
+            }
+            return;
+        }
+
+        tickPlayer(client.player.getInventory());
+        tickHandler(client.player.currentScreenHandler);
+    }
+
+    private void tickPlayer(PlayerInventory inventory) {
+        int size = inventory.size();
+        if (playerSnapshot.length != size) {
+            playerSnapshot = newSnapshot(size);
+        }
+
+        List<SlotChange> changes = null;
+        for (int i = 0; i < size; i++) {
+            SlotChange change = diff(Scope.PLAYER, i, playerSnapshot, inventory.getStack(i));
+            if (change != null) {
+                if (changes == null) changes = new ArrayList<>();
+                changes.add(change);
+            }
+        }
+
+        boolean selectionChanged = inventory.selectedSlot != selectedSlot;
+        selectedSlot = inventory.selectedSlot;
+        if (changes != null || selectionChanged) {
+            playerVersion++;
+        }
+        if (changes != null) {
+            publish(Scope.PLAYER, changes);
+        }
+    }
+
+    private void tickHandler(ScreenHandler handler) {
+        int size = handler.slots.size();
+        if (handler != trackedHandler || handlerSnapshot.length != size) {
+            // A new screen: every occupied slot is reported as added
+            trackedHandler = handler;
+            handlerSnapshot = newSnapshot(size);
+            handlerVersion++;
+        }
+
+        List<SlotChange> changes = null;
+        for (int i = 0; i < size; i++) {
+            SlotChange change = diff(Scope.HANDLER, i, handlerSnapshot, handler.getSlot(i).getStack());
+            if (change != null) {
+                if (changes == null) changes = new ArrayList<>();
+                changes.add(change);
+            }
+        }
+
+        if (changes != null) {
+            handlerVersion++;
+            publish(Scope.HANDLER, changes);
+        }
+    }
+
+    /**
+     * Compares a live stack with its snapshot, updating the snapshot if it changed.
+     */
+    private static SlotChange diff(Scope scope, int slot, ItemStack[] snapshot, ItemStack live) {
+        ItemStack previous = snapshot[slot];
+        if (ItemStack.areEqual(previous, live)) {
+            return null;
+        }
+
+        ItemStack current = live.copy();
+        snapshot[slot] = current;
+
+        ChangeType type;
+        if (previous.isEmpty()) {
+            type = ChangeType.ADDED;
+        } else if (current.isEmpty()) {
+            type = ChangeType.REMOVED;
+        } else if (ItemStack.areItemsAndComponentsEqual(previous, current)) {
+            type = ChangeType.COUNT_CHANGED;
+        } else {
+            type = ChangeType.REPLACED;
+        }
+        return new SlotChange(scope, slot, type, previous, current);
+    }
+
+    private void publish(Scope scope, List<SlotChange> changes) {
+        List<SlotChange> view = List.copyOf(changes);
+        for (Listener listener : listeners) {
+            listener.onChanges(scope, view);
+        }
+    }
+
+    private static ItemStack[] newSnapshot(int size) {
+        ItemStack[] snapshot = new ItemStack[size];
+        Arrays.fill(snapshot, ItemStack.EMPTY);
+        return snapshot;
+    }
+}
@@ -0,0 +1,67 @@
+package net.shlomo1412.booster.client.inventory;
+
+import net.minecraft.item.ItemStack;
+
+/**
+ * Hash key identifying an item type together with its components, ignoring the count.
+ * Two stacks with equal keys can be merged into one another.
+ */
+public final class ItemKey {
+    private final ItemStack stack;
+    private final int hash;
+
+    private ItemKey(ItemStack stack) {
+        this.stack = stack;
+        this.hash = ItemStack.hashCode(stack);
+    }
+
+    /**
+     * Creates a key for the given stack.
+     * The stack is copied with a count of one, so later changes to it don't affect the key.
+     *
+     * @param stack The stack to create a key for
+     * @return The key, or null if the stack is empty
+     */
+    public static ItemKey of(ItemStack stack) {
+        if (stack == null || stack.isEmpty()) return null;
+        return new ItemKey(stack.copyWithCount(1));
+    }
+
+    /**
+     * @return A single-item stack representing this key
+     */
+    public ItemStack getStack() {
+        return stack;
+    }
+
+    /**
+     * @return The maximum stack size of this item type
+     */
+    public int getMaxCount() {
+        return stack.getMaxCount();
+    }
+
+    /**
+     * Checks whether a stack belongs to this key.
+     */
+    public boolean matches(ItemStack other) {
+        return ItemStack.areItemsAndComponentsEqual(stack, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemKey other)) return false;
+        return hash == other.hash && ItemStack.areItemsAndComponentsEqual(stack, other.stack);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return stack.getItem().toString();
+    }
+}
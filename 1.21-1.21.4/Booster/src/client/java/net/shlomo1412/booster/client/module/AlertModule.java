@@ -3,14 +3,25 @@ package net.shlomo1412.booster.client.module;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.entity.player.HungerManager;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Style;
 import net.minecraft.text.Text;
+import net.shlomo1412.booster.client.inventory.InventoryTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Base class for alert modules that notify the player of various conditions.
  * Provides common settings for message type, color, formatting, sound, and cooldown.
+ * <p>
+ * Alerts are checked from one client tick handler, through a flat array of the active alerts
+ * that is only rebuilt when an alert is toggled or its settings change. Each alert declares the
+ * player state it reads and how often to poll it; it is only checked when one of its inputs
+ * changed since its last check, or when its last alert was held back by the cooldown.
  */
 public abstract class AlertModule extends Module {
     
@@ -34,6 +45,14 @@ public abstract class AlertModule extends Module {
         }
     }
     
+    // Player state an alert can depend on
+    public enum AlertInput {
+        HEALTH,
+        HUNGER,
+        AIR,
+        HELD_ITEM
+    }
+    
     // Text formatting options
     public enum TextFormat {
         NONE("None"),
@@ -68,6 +87,24 @@ public abstract class AlertModule extends Module {
     protected long lastAlertTime = 0;
     private static boolean tickRegistered = false;
     
+    // Dispatch table: the alerts to poll, rebuilt when an alert is toggled or reconfigured
+    private static AlertModule[] activeAlerts = new AlertModule[0];
+    private static boolean dispatchDirty = true;
+    
+    // Input state of the last tick, and a version per input bumped whenever it changes
+    private static final long[] inputVersions = new long[AlertInput.values().length];
+    private static float lastHealth = -1;
+    private static int lastFood = -1;
+    private static float lastSaturation = -1;
+    private static int lastAir = -1;
+    private static int lastHeldVersion = -1;
+    
+    // Dispatch state of this alert
+    private int inputMask;
+    private int pollCountdown = 0;
+    private long checkedStamp = -1;
+    private boolean retryPending = false;
+    
     public AlertModule(String id, String name, String description, boolean defaultEnabled,
                        int defaultColor, MessageType defaultMessageType, int defaultCooldownSeconds) {
         super(id, name, description, defaultEnabled);
@@ -78,7 +115,13 @@ public abstract class AlertModule extends Module {
             "Alert Enabled",
             "Enable or disable this alert",
             true
-        );
+        ) {
+            @Override
+            public void setValue(Boolean value) {
+                super.setValue(value);
+                invalidateDispatch();
+            }
+        };
         registerSetting(enabledSetting);
         
         // Message type setting
@@ -137,6 +180,12 @@ public abstract class AlertModule extends Module {
         registerTickHandler();
     }
     
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        invalidateDispatch();
+    }
+    
     /**
      * Registers the client tick handler for all alert modules.
      * Only registers once, then each alert module checks conditions.
@@ -145,31 +194,139 @@ public abstract class AlertModule extends Module {
         if (!tickRegistered) {
             ClientTickEvents.END_CLIENT_TICK.register(client -> {
                 if (client.player != null && client.world != null) {
-                    ModuleManager.getInstance().getModules().stream()
-                        .filter(m -> m instanceof AlertModule)
-                        .map(m -> (AlertModule) m)
-                        .filter(Module::isEnabled)
-                        .filter(a -> a.enabledSetting.getValue())
-                        .forEach(a -> a.checkAndAlert(client));
+                    dispatch(client);
                 }
             });
             tickRegistered = true;
         }
     }
     
+    /**
+     * Marks the dispatch table for a rebuild, so every alert is checked again on the next tick.
+     */
+    public static void invalidateDispatch() {
+        dispatchDirty = true;
+    }
+    
+    /**
+     * Checks the active alerts whose poll interval elapsed and whose inputs changed.
+     */
+    private static void dispatch(MinecraftClient client) {
+        if (dispatchDirty) {
+            rebuildDispatch();
+        }
+        if (activeAlerts.length == 0) return;
+        
+        updateInputs(client.player);
+        for (AlertModule alert : activeAlerts) {
+            if (--alert.pollCountdown > 0) continue;
+            alert.pollCountdown = alert.getPollInterval();
+            
+            long stamp = alert.getInputStamp();
+            if (stamp == alert.checkedStamp && !alert.retryPending) continue;
+            alert.checkedStamp = stamp;
+            alert.retryPending = false;
+            alert.checkAndAlert(client);
+        }
+    }
+    
+    /**
+     * Collects the enabled alerts that poll at least one input into a flat array.
+     */
+    private static void rebuildDispatch() {
+        List<AlertModule> alerts = new ArrayList<>();
+        for (Module module : ModuleManager.getInstance().getModules()) {
+            if (module instanceof AlertModule alert && alert.isEnabled() && alert.enabledSetting.getValue()) {
+                int mask = 0;
+                for (AlertInput input : alert.getInputs()) {
+                    mask |= 1 << input.ordinal();
+                }
+                if (mask == 0) continue;
+                
+                alert.inputMask = mask;
+                alert.pollCountdown = 0;
+                alert.checkedStamp = -1;
+                alert.retryPending = false;
+                alerts.add(alert);
+            }
+        }
+        activeAlerts = alerts.toArray(new AlertModule[0]);
+        dispatchDirty = false;
+    }
+    
+    /**
+     * Bumps the version of every input whose value changed since the last tick.
+     */
+    private static void updateInputs(ClientPlayerEntity player) {
+        float health = player.getHealth();
+        if (health != lastHealth) {
+            lastHealth = health;
+            inputVersions[AlertInput.HEALTH.ordinal()]++;
+        }
+        
+        HungerManager hunger = player.getHungerManager();
+        if (hunger.getFoodLevel() != lastFood || hunger.getSaturationLevel() != lastSaturation) {
+            lastFood = hunger.getFoodLevel();
+            lastSaturation = hunger.getSaturationLevel();
+            inputVersions[AlertInput.HUNGER.ordinal()]++;
+        }
+        
+        int air = player.getAir();
+        if (air != lastAir) {
+            lastAir = air;
+            inputVersions[AlertInput.AIR.ordinal()]++;
+        }
+        
+        // The player version also changes when the selected hotbar slot does
+        int heldVersion = InventoryTracker.getInstance().getPlayerVersion();
+        if (heldVersion != lastHeldVersion) {
+            lastHeldVersion = heldVersion;
+            inputVersions[AlertInput.HELD_ITEM.ordinal()]++;
+        }
+    }
+    
+    /**
+     * @return The sum of the versions of this alert's inputs, which changes whenever one of them does
+     */
+    private long getInputStamp() {
+        long stamp = 0;
+        for (int i = 0; i < inputVersions.length; i++) {
+            if ((inputMask & (1 << i)) != 0) stamp += inputVersions[i];
+        }
+        return stamp;
+    }
+    
     /**
      * Override this to check conditions and trigger alerts.
-     * Called every tick when the module is enabled.
+     * Called from the tick handler when one of the alert's inputs changed.
      */
     protected abstract void checkAndAlert(MinecraftClient client);
     
+    /**
+     * Gets the player state this alert reads in {@link #checkAndAlert}.
+     * Alerts without inputs (e.g. triggered by events) are never polled.
+     */
+    protected abstract Set<AlertInput> getInputs();
+    
+    /**
+     * Gets how often the alert is polled, in ticks.
+     */
+    protected int getPollInterval() {
+        return 1;
+    }
+    
     /**
      * Checks if enough time has passed since the last alert.
      */
     protected boolean canAlert() {
         long now = System.currentTimeMillis();
         long cooldownMs = cooldownSetting.getValue() * 1000L;
-        return now - lastAlertTime >= cooldownMs;
+        boolean ready = now - lastAlertTime >= cooldownMs;
+        if (!ready) {
+            // Check again on the next poll even if the inputs stay the same
+            retryPending = true;
+        }
+        return ready;
     }
     
     /**
@@ -335,6 +492,7 @@ public abstract class AlertModule extends Module {
         ModuleSetting<T> setting = (ModuleSetting<T>) alertSettings.get(id);
         if (setting != null) {
             setting.setValue(value);
+            invalidateDispatch();
             ModuleManager.getInstance().saveConfig();
         }
     }
@@ -346,6 +504,7 @@ public abstract class AlertModule extends Module {
         for (ModuleSetting<?> setting : alertSettings.values()) {
             setting.reset();
         }
+        invalidateDispatch();
         ModuleManager.getInstance().saveConfig();
     }
 }
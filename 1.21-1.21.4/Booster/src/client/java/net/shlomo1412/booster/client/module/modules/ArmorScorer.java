@@ -0,0 +1,173 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.component.ComponentChanges;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.AttributeModifiersComponent;
+import net.minecraft.component.type.EquippableComponent;
+import net.minecraft.component.type.ItemEnchantmentsComponent;
+import net.minecraft.enchantment.Enchantment;
+import net.minecraft.enchantment.Enchantments;
+import net.minecraft.entity.EquipmentSlot;
+import net.minecraft.entity.attribute.EntityAttributes;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Scores armor pieces for {@link AutoArmorModule}.
+ * <p>
+ * A score depends only on the item and its components (attribute modifiers, enchantments and
+ * damage), so scores are memoized per item and component changes. Two stacks of the same armor
+ * with the same enchantments and damage share one entry. The cache is dropped when the weights
+ * change.
+ */
+final class ArmorScorer {
+
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * Score weights. Each armor point counts 1.
+     *
+     * @param toughness          Per point of armor toughness
+     * @param protection         Per level of Protection
+     * @param specialProtection  Per level of Fire, Blast and Projectile Protection
+     * @param mending            Per level of Mending
+     * @param unbreaking         Per level of Unbreaking
+     */
+    record Weights(int toughness, int protection, int specialProtection, int mending, int unbreaking) {
+    }
+
+    private record Key(Item item, ComponentChanges changes) {
+    }
+
+    private final Map<Key, Double> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private Weights weights;
+
+    ArmorScorer(Weights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Sets the weights, dropping the memoized scores if they changed.
+     *
+     * @return Whether the weights changed
+     */
+    boolean setWeights(Weights weights) {
+        if (weights.equals(this.weights)) {
+            return false;
+        }
+        this.weights = weights;
+        cache.clear();
+        return true;
+    }
+
+    /**
+     * Gets the armor slot an item stack is worn in, using the EQUIPPABLE component.
+     *
+     * @return The slot, or null if the stack isn't armor
+     */
+    static EquipmentSlot getArmorSlot(ItemStack stack) {
+        EquippableComponent equippable = stack.get(DataComponentTypes.EQUIPPABLE);
+        if (equippable == null || equippable.slot().getType() != EquipmentSlot.Type.HUMANOID_ARMOR) {
+            return null;
+        }
+        return equippable.slot();
+    }
+
+    /**
+     * Gets the score of an armor piece in the slot it is worn in.
+     *
+     * @return The score, or 0 for an empty stack or a stack that isn't armor
+     */
+    double getScore(ItemStack stack) {
+        if (stack.isEmpty()) {
+            return 0;
+        }
+        Key key = new Key(stack.getItem(), stack.getComponentChanges());
+        Double score = cache.get(key);
+        if (score == null) {
+            score = computeScore(stack);
+            cache.put(key, score);
+        }
+        return score;
+    }
+
+    private double computeScore(ItemStack stack) {
+        EquipmentSlot slot = getArmorSlot(stack);
+        if (slot == null) {
+            return 0;
+        }
+
+        double score = 0;
+
+        // Get protection value from the item's attribute modifiers
+        AttributeModifiersComponent modifiers = stack.get(DataComponentTypes.ATTRIBUTE_MODIFIERS);
+        if (modifiers != null) {
+            for (var entry : modifiers.modifiers()) {
+                if (entry.attribute().equals(EntityAttributes.ARMOR)) {
+                    score += entry.modifier().value();
+                } else if (entry.attribute().equals(EntityAttributes.ARMOR_TOUGHNESS)) {
+                    score += entry.modifier().value() * weights.toughness();
+                }
+            }
+        }
+
+        // Add enchantment bonuses, in one pass over the enchantments
+        ItemEnchantmentsComponent enchantments = stack.get(DataComponentTypes.ENCHANTMENTS);
+        if (enchantments != null) {
+            for (var entry : enchantments.getEnchantmentEntries()) {
+                score += getEnchantmentWeight(entry.getKey(), slot) * entry.getIntValue();
+            }
+        }
+
+        // Penalize low durability
+        if (stack.isDamageable()) {
+            double durabilityPercent = (double) (stack.getMaxDamage() - stack.getDamage()) / stack.getMaxDamage();
+            if (durabilityPercent < 0.1) {
+                score *= 0.5; // Heavily penalize nearly broken armor
+            } else if (durabilityPercent < 0.25) {
+                score *= 0.8; // Moderate penalty for low durability
+            }
+        }
+
+        return score;
+    }
+
+    /**
+     * Gets the score per level of an enchantment on armor worn in the given slot.
+     */
+    private double getEnchantmentWeight(RegistryEntry<Enchantment> enchantment, EquipmentSlot slot) {
+        RegistryKey<Enchantment> key = enchantment.getKey().orElse(null);
+        if (key == null) return 0;
+
+        if (key.equals(Enchantments.PROTECTION)) return weights.protection();
+        if (key.equals(Enchantments.FIRE_PROTECTION)
+            || key.equals(Enchantments.BLAST_PROTECTION)
+            || key.equals(Enchantments.PROJECTILE_PROTECTION)) return weights.specialProtection();
+        if (key.equals(Enchantments.MENDING)) return weights.mending();
+        if (key.equals(Enchantments.UNBREAKING)) return weights.unbreaking();
+        if (key.equals(Enchantments.THORNS)) return 1;
+
+        // Special helmet enchantments
+        if (slot == EquipmentSlot.HEAD) {
+            if (key.equals(Enchantments.RESPIRATION) || key.equals(Enchantments.AQUA_AFFINITY)) return 2;
+        }
+
+        // Special boots enchantments
+        if (slot == EquipmentSlot.FEET) {
+            if (key.equals(Enchantments.FEATHER_FALLING)) return 3;
+            if (key.equals(Enchantments.DEPTH_STRIDER)) return 2;
+            if (key.equals(Enchantments.FROST_WALKER) || key.equals(Enchantments.SOUL_SPEED)) return 1;
+        }
+        return 0;
+    }
+}
@@ -3,33 +3,30 @@ package net.shlomo1412.booster.client.module.modules;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
-import net.minecraft.component.DataComponentTypes;
-import net.minecraft.component.type.AttributeModifiersComponent;
-import net.minecraft.component.type.EquippableComponent;
-import net.minecraft.component.type.ItemEnchantmentsComponent;
-import net.minecraft.enchantment.Enchantment;
-import net.minecraft.enchantment.Enchantments;
 import net.minecraft.entity.EquipmentSlot;
-import net.minecraft.entity.attribute.EntityAttributes;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.ItemStack;
-import net.minecraft.registry.RegistryKey;
 import net.minecraft.screen.PlayerScreenHandler;
-import net.minecraft.screen.slot.SlotActionType;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
+import net.shlomo1412.booster.client.inventory.InventoryTracker;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleManager;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterButton;
 
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 /**
  * Module that adds an "Auto Armor" toggle button to the inventory screen.
  * When toggled ON, continuously monitors inventory and automatically equips the best armor.
  * Works even when the inventory screen is closed - monitors via client tick events.
- * Takes into account armor value and enchantments (especially Protection).
+ * Takes into account armor value and enchantments (especially Protection), with configurable weights.
+ * Scores are memoized by {@link ArmorScorer}, and the best candidates are only searched again when
+ * the player inventory changes, so the tick costs next to nothing otherwise.
  */
 public class AutoArmorModule extends GUIModule {
     
@@ -38,10 +35,29 @@ public class AutoArmorModule extends GUIModule {
     // Persistent toggle state (saved to config)
     private final ModuleSetting.BooleanSetting autoArmorToggle;
     
+    // Score weights
+    private final ModuleSetting.NumberSetting toughnessWeight;
+    private final ModuleSetting.NumberSetting protectionWeight;
+    private final ModuleSetting.NumberSetting specialProtectionWeight;
+    private final ModuleSetting.NumberSetting mendingWeight;
+    private final ModuleSetting.NumberSetting unbreakingWeight;
+    
+    private final ArmorScorer scorer;
+    
     private BoosterButton autoArmorButton;
     private int equipCooldown = 0;
+    private int checkedVersion = -1;  // Player inventory version without better armor to equip
+    
+    // Best inventory slot per armor slot (-1 for none), for the player inventory version it was found in
+    private final int[] bestCandidates = new int[4];
+    private int candidatesVersion = -1;
+    private ArmorScorer.Weights lastWeights;
     private static boolean tickRegistered = false;
     
+    private static final EquipmentSlot[] ARMOR_SLOTS = {
+        EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+    };
+    
     public AutoArmorModule() {
         super(
             "auto_armor",
@@ -62,6 +78,73 @@ public class AutoArmorModule extends GUIModule {
             false  // Default off
         );
         registerSetting(autoArmorToggle);
+        
+        this.toughnessWeight = new ModuleSetting.NumberSetting(
+            "toughness_weight",
+            "Toughness Weight",
+            "Score per point of armor toughness (each armor point scores 1)",
+            2, 0, 10
+        );
+        registerSetting(toughnessWeight);
+        
+        this.protectionWeight = new ModuleSetting.NumberSetting(
+            "protection_weight",
+            "Protection Weight",
+            "Score per level of Protection",
+            3, 0, 10
+        );
+        registerSetting(protectionWeight);
+        
+        this.specialProtectionWeight = new ModuleSetting.NumberSetting(
+            "special_protection_weight",
+            "Special Protection Weight",
+            "Score per level of Fire, Blast and Projectile Protection",
+            2, 0, 10
+        );
+        registerSetting(specialProtectionWeight);
+        
+        this.mendingWeight = new ModuleSetting.NumberSetting(
+            "mending_weight",
+            "Mending Weight",
+            "Score for Mending",
+            5, 0, 20
+        );
+        registerSetting(mendingWeight);
+        
+        this.unbreakingWeight = new ModuleSetting.NumberSetting(
+            "unbreaking_weight",
+            "Unbreaking Weight",
+            "Score per level of Unbreaking",
+            1, 0, 10
+        );
+        registerSetting(unbreakingWeight);
+        
+        this.lastWeights = getWeights();
+        this.scorer = new ArmorScorer(lastWeights);
+    }
+    
+    /**
+     * Gets the score weights from the settings.
+     */
+    private ArmorScorer.Weights getWeights() {
+        return new ArmorScorer.Weights(
+            toughnessWeight.getValue(),
+            protectionWeight.getValue(),
+            specialProtectionWeight.getValue(),
+            mendingWeight.getValue(),
+            unbreakingWeight.getValue()
+        );
+    }
+    
+    /**
+     * Checks whether any weight setting differs from the weights the scorer uses.
+     */
+    private boolean weightsChanged(ArmorScorer.Weights weights) {
+        return weights.toughness() != toughnessWeight.getValue()
+            || weights.protection() != protectionWeight.getValue()
+            || weights.specialProtection() != specialProtectionWeight.getValue()
+            || weights.mending() != mendingWeight.getValue()
+            || weights.unbreaking() != unbreakingWeight.getValue();
     }
     
     @Override
@@ -98,6 +181,7 @@ public class AutoArmorModule extends GUIModule {
      */
     public void setAutoArmorActive(boolean active) {
         autoArmorToggle.setValue(active);
+        checkedVersion = -1;
         ModuleManager.getInstance().saveConfig();
         updateButtonAppearance();
     }
@@ -167,15 +251,34 @@ public class AutoArmorModule extends GUIModule {
             return;
         }
         
+        // Changed weights rescore everything
+        if (weightsChanged(lastWeights)) {
+            lastWeights = getWeights();
+            scorer.setWeights(lastWeights);
+            checkedVersion = -1;
+            candidatesVersion = -1;
+        }
+        
+        // Nothing to do until the inventory changes
+        int version = InventoryTracker.getInstance().getPlayerVersion();
+        if (version == checkedVersion) {
+            return;
+        }
+        
+        // Find the best piece for every armor slot in one pass over the inventory
+        if (version != candidatesVersion) {
+            findBestCandidates(client.player.getInventory());
+            candidatesVersion = version;
+        }
+        
         // Check and equip best armor for each slot
-        for (EquipmentSlot slot : new EquipmentSlot[]{
-                EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET}) {
-            
+        for (EquipmentSlot slot : ARMOR_SLOTS) {
             if (tryEquipBestArmorGlobally(client, slot)) {
                 equipCooldown = 5; // Small cooldown between equips
-                return; // Only equip one piece per tick
+                return; // Only equip one piece per tick, check again after the cooldown
             }
         }
+        checkedVersion = version;
     }
     
     /**
@@ -187,15 +290,28 @@ public class AutoArmorModule extends GUIModule {
     }
     
     /**
-     * Gets the equipment slot for an item stack using the EQUIPPABLE component.
-     * Returns null if the item is not equippable.
+     * Finds the highest scoring armor piece in the main inventory and hotbar for every armor slot.
+     * Scores are memoized per item and components, so unchanged stacks cost a map lookup.
      */
-    private EquipmentSlot getEquipmentSlot(ItemStack stack) {
-        EquippableComponent equippable = stack.get(DataComponentTypes.EQUIPPABLE);
-        if (equippable != null) {
-            return equippable.slot();
+    private void findBestCandidates(PlayerInventory inventory) {
+        double[] bestScores = new double[ARMOR_SLOTS.length];
+        Arrays.fill(bestCandidates, -1);
+        
+        // Check main inventory (slots 9-35) and hotbar (0-8)
+        for (int i = 0; i < 36; i++) {
+            ItemStack stack = inventory.getStack(i);
+            if (stack.isEmpty()) continue;
+            
+            EquipmentSlot armorSlot = ArmorScorer.getArmorSlot(stack);
+            if (armorSlot == null) continue;
+            
+            int index = armorSlot.getEntitySlotId();
+            double score = scorer.getScore(stack);
+            if (bestCandidates[index] == -1 || score > bestScores[index]) {
+                bestScores[index] = score;
+                bestCandidates[index] = i;
+            }
         }
-        return null;
     }
     
     /**
@@ -206,37 +322,24 @@ public class AutoArmorModule extends GUIModule {
     private boolean tryEquipBestArmorGlobally(MinecraftClient client, EquipmentSlot slot) {
         PlayerInventory inventory = client.player.getInventory();
         
-        // Get currently equipped armor
-        ItemStack currentArmor = inventory.getArmorStack(slot.getEntitySlotId());
-        double currentScore = getArmorScore(currentArmor, slot);
-        
-        // Find best armor in inventory
-        int bestSlotIndex = -1;
-        double bestScore = currentScore;
-        
-        // Check main inventory (slots 9-35) and hotbar (0-8)
-        for (int i = 0; i < 36; i++) {
-            ItemStack stack = inventory.getStack(i);
-            if (stack.isEmpty()) continue;
-            
-            // Check if this item is equippable in the target slot
-            EquipmentSlot armorSlot = getEquipmentSlot(stack);
-            if (armorSlot == slot) {
-                double score = getArmorScore(stack, slot);
-                if (score > bestScore) {
-                    bestScore = score;
-                    bestSlotIndex = i;
-                }
-            }
-        }
-        
+        // Compare the best candidate with the currently equipped armor
+        int bestSlotIndex = bestCandidates[slot.getEntitySlotId()];
         if (bestSlotIndex == -1) {
+            return false; // No armor for this slot
+        }
+        double currentScore = scorer.getScore(inventory.getArmorStack(slot.getEntitySlotId()));
+        if (scorer.getScore(inventory.getStack(bestSlotIndex)) <= currentScore) {
             return false; // No better armor found
         }
         
         // We need to equip armor - use the player's screen handler
         // This works even when no screen is open because the player always has a PlayerScreenHandler
         if (client.player.currentScreenHandler instanceof PlayerScreenHandler handler) {
+            // Don't interleave with clicks another module queued for the inventory, try again later
+            if (ClickScheduler.getInstance().isBusy(handler)) {
+                return true;
+            }
+            
             // Convert inventory slot to screen handler slot
             // PlayerScreenHandler slots:
             // 0 = crafting output, 1-4 = crafting grid, 5-8 = armor slots, 9 = offhand
@@ -252,12 +355,8 @@ public class AutoArmorModule extends GUIModule {
             }
             
             // Shift-click to equip (will swap if something is already equipped)
-            client.interactionManager.clickSlot(
-                handler.syncId,
-                handlerSlot,
-                0,
-                SlotActionType.QUICK_MOVE,
-                client.player
+            ClickScheduler.getInstance().submit(
+                new ClickBatch("auto_armor", handler).quickMove(handlerSlot)
             );
             
             return true;
@@ -266,100 +365,6 @@ public class AutoArmorModule extends GUIModule {
         return false;
     }
     
-    /**
-     * Calculates a score for an armor piece based on armor value and enchantments.
-     */
-    private double getArmorScore(ItemStack stack, EquipmentSlot slot) {
-        if (stack.isEmpty()) {
-            return 0;
-        }
-        
-        // Check if this item is equippable in the target slot
-        EquipmentSlot itemSlot = getEquipmentSlot(stack);
-        if (itemSlot != slot) {
-            return 0;
-        }
-        
-        // Get armor value from attributes
-        double score = 0;
-        
-        // Get protection value from the item's attribute modifiers
-        AttributeModifiersComponent modifiers = stack.get(DataComponentTypes.ATTRIBUTE_MODIFIERS);
-        if (modifiers != null) {
-            for (var entry : modifiers.modifiers()) {
-                if (entry.attribute().equals(EntityAttributes.ARMOR)) {
-                    score += entry.modifier().value();
-                } else if (entry.attribute().equals(EntityAttributes.ARMOR_TOUGHNESS)) {
-                    score += entry.modifier().value() * 2;
-                }
-            }
-        }
-        
-        // Add enchantment bonuses
-        ItemEnchantmentsComponent enchantments = stack.get(DataComponentTypes.ENCHANTMENTS);
-        if (enchantments != null) {
-            MinecraftClient client = MinecraftClient.getInstance();
-            if (client.world != null) {
-                // Protection enchantments add significant value
-                score += getEnchantmentLevel(enchantments, Enchantments.PROTECTION) * 3;
-                score += getEnchantmentLevel(enchantments, Enchantments.FIRE_PROTECTION) * 2;
-                score += getEnchantmentLevel(enchantments, Enchantments.BLAST_PROTECTION) * 2;
-                score += getEnchantmentLevel(enchantments, Enchantments.PROJECTILE_PROTECTION) * 2;
-                
-                // Unbreaking adds longevity value
-                score += getEnchantmentLevel(enchantments, Enchantments.UNBREAKING) * 1;
-                
-                // Mending is very valuable
-                score += getEnchantmentLevel(enchantments, Enchantments.MENDING) * 5;
-                
-                // Thorns can be considered valuable
-                score += getEnchantmentLevel(enchantments, Enchantments.THORNS) * 1;
-                
-                // Special helmet enchantments
-                if (slot == EquipmentSlot.HEAD) {
-                    score += getEnchantmentLevel(enchantments, Enchantments.RESPIRATION) * 2;
-                    score += getEnchantmentLevel(enchantments, Enchantments.AQUA_AFFINITY) * 2;
-                }
-                
-                // Special boots enchantments
-                if (slot == EquipmentSlot.FEET) {
-                    score += getEnchantmentLevel(enchantments, Enchantments.FEATHER_FALLING) * 3;
-                    score += getEnchantmentLevel(enchantments, Enchantments.DEPTH_STRIDER) * 2;
-                    score += getEnchantmentLevel(enchantments, Enchantments.FROST_WALKER) * 1;
-                    score += getEnchantmentLevel(enchantments, Enchantments.SOUL_SPEED) * 1;
-                }
-            }
-        }
-        
-        // Penalize low durability
-        if (stack.isDamageable()) {
-            double durabilityPercent = (double) (stack.getMaxDamage() - stack.getDamage()) / stack.getMaxDamage();
-            if (durabilityPercent < 0.1) {
-                score *= 0.5; // Heavily penalize nearly broken armor
-            } else if (durabilityPercent < 0.25) {
-                score *= 0.8; // Moderate penalty for low durability
-            }
-        }
-        
-        return score;
-    }
-    
-    /**
-     * Gets the level of a specific enchantment on an item.
-     * Iterates through the enchantments to find a match by key.
-     */
-    private int getEnchantmentLevel(ItemEnchantmentsComponent enchantments, 
-                                     RegistryKey<Enchantment> enchantmentKey) {
-        // Iterate through enchantments and check for matching key
-        for (var entry : enchantments.getEnchantments()) {
-            if (entry.matchesKey(enchantmentKey)) {
-                return enchantments.getLevel(entry);
-            }
-        }
-        
-        return 0;
-    }
-    
     /**
      * Gets the button.
      */
@@ -0,0 +1,204 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.screen.CraftingScreenHandler;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.client.module.GUIModule;
+import net.shlomo1412.booster.client.module.ModuleManager;
+import net.shlomo1412.booster.client.module.WidgetSettings;
+import net.shlomo1412.booster.client.widget.BoosterSearchField;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Module that crafts a number of items on the crafting table, including their intermediates.
+ * <p>
+ * The target is typed as e.g. "64 piston" or "piston x64" and crafted with Enter. The recipe
+ * tree is resolved from the recipe book by {@link CraftingPlanner} against the inventory (logs
+ * become planks, cobblestone and iron are used as they are), and the steps are crafted in order by
+ * {@link InfiniteCraftModule}, which must be enabled; its button stops the batch.
+ */
+public class BatchCraftModule extends GUIModule {
+
+    public static final String TARGET_WIDGET_ID = "batch_craft_target";
+
+    // "64 piston", "piston 64", "piston x64" or just "piston"
+    private static final Pattern COUNT_FIRST = Pattern.compile("^(\\d+)\\s*x?\\s+(.+)$");
+    private static final Pattern COUNT_LAST = Pattern.compile("^(.+?)\\s+x?(\\d+)$");
+    private static final int MAX_QUANTITY = 64 * 36;
+
+    private BoosterSearchField targetField;
+
+    public BatchCraftModule() {
+        super(
+            "batch_craft",
+            "Batch Craft",
+            "Adds a field to craft a number of items, e.g. \"64 piston\".\n" +
+            "Press Enter to craft them, along with the\n" +
+            "intermediates they need (e.g. planks from logs).",
+            true,
+            90,  // Default field width
+            16   // Default field height
+        );
+    }
+
+    /**
+     * Creates the target field for the crafting screen.
+     *
+     * @param screen The screen to add the field to
+     * @param anchorX The anchor X position (right edge of crafting GUI)
+     * @param anchorY The anchor Y position (top of crafting GUI)
+     * @param addDrawableChild Callback to add the field
+     */
+    public void createTargetField(HandledScreen<?> screen, int anchorX, int anchorY,
+                                  Consumer<BoosterSearchField> addDrawableChild) {
+        // Below the Infinite Craft button
+        WidgetSettings settings = getWidgetSettings(TARGET_WIDGET_ID, 4, 44);
+
+        targetField = new BoosterSearchField(
+            anchorX + settings.getOffsetX(), anchorY + settings.getOffsetY(),
+            settings.getWidth(), settings.getHeight(),
+            Text.literal("Batch Craft")
+        ) {
+            @Override
+            public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+                if (isFocused() && (keyCode == GLFW.GLFW_KEY_ENTER || keyCode == GLFW.GLFW_KEY_KP_ENTER)) {
+                    startBatch(screen);
+                    return true;
+                }
+                return super.keyPressed(keyCode, scanCode, modifiers);
+            }
+        };
+        targetField.setPlaceholder(Text.literal("64 piston").styled(s -> s.withColor(0x666666)));
+        targetField.setMaxLength(50);
+        targetField.setEditorInfo(this, TARGET_WIDGET_ID, "Batch Craft", anchorX, anchorY);
+        addDrawableChild.accept(targetField);
+    }
+
+    /**
+     * Plans the typed target and hands the steps to Infinite Craft.
+     */
+    private void startBatch(HandledScreen<?> screen) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.player == null || !(screen.getScreenHandler() instanceof CraftingScreenHandler handler)) {
+            return;
+        }
+
+        InfiniteCraftModule infiniteCraft = ModuleManager.getInstance().getModule(InfiniteCraftModule.class);
+        if (infiniteCraft == null || !infiniteCraft.isEnabled()) {
+            notify(client, Text.literal("Batch Craft needs Infinite Craft to be enabled").formatted(Formatting.RED));
+            return;
+        }
+        if (infiniteCraft.isCrafting()) {
+            notify(client, Text.literal("Already crafting").formatted(Formatting.RED));
+            return;
+        }
+
+        String query = targetField != null ? targetField.getText().trim().toLowerCase(Locale.ROOT) : "";
+        int quantity = 1;
+        Matcher matcher;
+        if ((matcher = COUNT_FIRST.matcher(query)).matches()) {
+            quantity = parseQuantity(matcher.group(1));
+            query = matcher.group(2);
+        } else if ((matcher = COUNT_LAST.matcher(query)).matches()) {
+            quantity = parseQuantity(matcher.group(2));
+            query = matcher.group(1);
+        }
+
+        Item target = findTarget(query);
+        if (target == null) {
+            notify(client, Text.literal("No known recipe for \"" + query + "\"").formatted(Formatting.RED));
+            return;
+        }
+
+        CraftingPlanner.Plan plan = CraftingPlanner.plan(target, quantity, countItems(client.player.getInventory(), handler));
+        if (!plan.isComplete()) {
+            StringJoiner missing = new StringJoiner(", ");
+            plan.missing().forEach((item, count) -> missing.add(count + " " + item.getName().getString()));
+            notify(client, Text.literal("Missing: " + missing).formatted(Formatting.RED));
+            return;
+        }
+
+        BoosterClient.LOGGER.debug("Batch crafting {} {} in {} steps", quantity, target, plan.steps().size());
+        infiniteCraft.runPlan(plan.steps());
+    }
+
+    private static int parseQuantity(String text) {
+        try {
+            return Math.max(1, Math.min(MAX_QUANTITY, Integer.parseInt(text)));
+        } catch (NumberFormatException e) {
+            return MAX_QUANTITY;
+        }
+    }
+
+    /**
+     * Finds the craftable item a query names: by ID or display name, exact matches first.
+     */
+    private static Item findTarget(String query) {
+        if (query.isEmpty()) return null;
+        String path = query.replace(' ', '_');
+
+        Item partial = null;
+        for (Item item : RecipeIndex.getCraftableItems()) {
+            String id = Registries.ITEM.getId(item).toString();
+            String name = item.getName().getString().toLowerCase(Locale.ROOT);
+            if (id.equals(query) || id.endsWith(":" + path) || name.equals(query)) {
+                return item;
+            }
+            if (partial == null && (id.contains(path) || name.contains(query))) {
+                partial = item;
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Counts the items in the player inventory and the crafting grid, which is cleared into it.
+     */
+    private static Map<Item, Integer> countItems(PlayerInventory inventory, CraftingScreenHandler handler) {
+        Map<Item, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 36; i++) {
+            ItemStack stack = inventory.getStack(i);
+            if (!stack.isEmpty()) counts.merge(stack.getItem(), stack.getCount(), Integer::sum);
+        }
+        for (int slotId = 1; slotId <= 9; slotId++) {
+            ItemStack stack = handler.getSlot(slotId).getStack();
+            if (!stack.isEmpty()) counts.merge(stack.getItem(), stack.getCount(), Integer::sum);
+        }
+        return counts;
+    }
+
+    private static void notify(MinecraftClient client, Text message) {
+        if (client.player != null) {
+            client.player.sendMessage(message, true);
+        }
+    }
+
+    /**
+     * Gets the target field.
+     */
+    public BoosterSearchField getTargetField() {
+        return targetField;
+    }
+
+    /**
+     * Clears the field reference when the screen closes.
+     */
+    public void clearButton() {
+        targetField = null;
+    }
+}
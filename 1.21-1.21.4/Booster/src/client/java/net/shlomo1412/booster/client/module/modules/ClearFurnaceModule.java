@@ -5,9 +5,10 @@ import net.minecraft.client.gui.screen.ingame.AbstractFurnaceScreen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.item.ItemStack;
 import net.minecraft.screen.AbstractFurnaceScreenHandler;
-import net.minecraft.screen.slot.SlotActionType;
 import net.shlomo1412.booster.client.BoosterClient;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
@@ -116,7 +117,9 @@ public class ClearFurnaceModule extends GUIModule {
             return;
         }
         
-        int syncId = handler.syncId;
+        if (ClickScheduler.getInstance().isBusy(handler)) return;
+        
+        ClickBatch batch = new ClickBatch("clear_furnace", handler);
         int itemsMoved = 0;
         
         // Furnace slots:
@@ -129,7 +132,7 @@ public class ClearFurnaceModule extends GUIModule {
             ItemStack outputStack = handler.getSlot(2).getStack();
             if (!outputStack.isEmpty()) {
                 // Shift-click to move to inventory
-                client.interactionManager.clickSlot(syncId, 2, 0, SlotActionType.QUICK_MOVE, client.player);
+                batch.quickMove(2);
                 itemsMoved++;
             }
         }
@@ -138,7 +141,7 @@ public class ClearFurnaceModule extends GUIModule {
         if (clearInputSetting.getValue()) {
             ItemStack inputStack = handler.getSlot(0).getStack();
             if (!inputStack.isEmpty()) {
-                client.interactionManager.clickSlot(syncId, 0, 0, SlotActionType.QUICK_MOVE, client.player);
+                batch.quickMove(0);
                 itemsMoved++;
             }
         }
@@ -147,11 +150,16 @@ public class ClearFurnaceModule extends GUIModule {
         if (clearFuelSetting.getValue()) {
             ItemStack fuelStack = handler.getSlot(1).getStack();
             if (!fuelStack.isEmpty()) {
-                client.interactionManager.clickSlot(syncId, 1, 0, SlotActionType.QUICK_MOVE, client.player);
+                batch.quickMove(1);
                 itemsMoved++;
             }
         }
         
+        if (clearButton != null) {
+            batch.onProgress(clearButton::updateProgress);
+        }
+        ClickScheduler.getInstance().submit(batch);
+        
         if (itemsMoved > 0) {
             BoosterClient.LOGGER.info("Cleared {} item stacks from furnace", itemsMoved);
         } else {
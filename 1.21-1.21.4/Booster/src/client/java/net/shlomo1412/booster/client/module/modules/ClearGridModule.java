@@ -4,8 +4,9 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.screen.CraftingScreenHandler;
 import net.minecraft.screen.slot.Slot;
-import net.minecraft.screen.slot.SlotActionType;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterButton;
@@ -80,21 +81,23 @@ public class ClearGridModule extends GUIModule {
             return;
         }
         
+        if (ClickScheduler.getInstance().isBusy(craftingHandler)) return;
+        
         // Crafting grid slots are 1-9 (slot 0 is output)
         // Shift-click each to move to inventory
+        ClickBatch batch = new ClickBatch("clear_grid", craftingHandler);
         for (int i = 1; i <= 9; i++) {
             Slot slot = craftingHandler.getSlot(i);
             if (slot.hasStack()) {
                 // Shift-click to move to inventory
-                client.interactionManager.clickSlot(
-                    craftingHandler.syncId,
-                    i,
-                    0,
-                    SlotActionType.QUICK_MOVE,
-                    client.player
-                );
+                batch.quickMove(i);
             }
         }
+        
+        if (clearButton != null) {
+            batch.onProgress(clearButton::updateProgress);
+        }
+        ClickScheduler.getInstance().submit(batch);
     }
     
     /**
@@ -0,0 +1,212 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.shlomo1412.booster.client.BoosterClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Throughput counters for {@link InfiniteCraftModule}.
+ * <p>
+ * Each craft cycle (one shift-click on the output and the refill after it) is recorded in a
+ * fixed-size ring buffer with its time, crafts and clicks, so the live rates only look at the
+ * last minute and recording costs a few array writes. Crafts are only recorded once the server
+ * has answered the shift-click, since the client predicts no more than one craft of it. Time spent in each state and the causes of
+ * stalls are plain counters for the whole session, which is logged as a summary when it ends.
+ *
+ * @param <S> The crafting states
+ */
+final class CraftMetrics<S extends Enum<S>> {
+
+    private static final int CAPACITY = 128;
+    private static final long WINDOW_MS = 60_000;
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    /**
+     * Why crafting stopped.
+     */
+    enum Stall {
+        MISSING_ITEMS("missing items"),
+        INVENTORY_FULL("inventory full"),
+        NO_RECIPE("no recipe"),
+        CANCELLED("clicks cancelled");
+
+        final String label;
+
+        Stall(String label) {
+            this.label = label;
+        }
+    }
+
+    private final S[] states;
+
+    // Ring buffer of the last cycles
+    private final long[] cycleTimes = new long[CAPACITY];
+    private final int[] cycleCrafts = new int[CAPACITY];
+    private final int[] cycleClicks = new int[CAPACITY];
+    private int head = 0;
+    private int size = 0;
+    private int pendingClicks = 0;
+
+    // Session counters
+    private final long[] stateNanos;
+    private final int[] stalls = new int[Stall.values().length];
+    private boolean active = false;
+    private long sessionStart;
+    private long sessionEnd;
+    private long totalCrafts;
+    private long totalClicks;
+    private int totalCycles;
+    private int delay;
+    private S lastState;
+    private long lastStateTime;
+
+    CraftMetrics(Class<S> stateType) {
+        this.states = stateType.getEnumConstants();
+        this.stateNanos = new long[states.length];
+    }
+
+    /**
+     * Starts a session, dropping the counters of the previous one.
+     *
+     * @param delay The configured delay between crafts, for the summary
+     */
+    void start(int delay) {
+        head = 0;
+        size = 0;
+        pendingClicks = 0;
+        Arrays.fill(stateNanos, 0);
+        Arrays.fill(stalls, 0);
+        totalCrafts = 0;
+        totalClicks = 0;
+        totalCycles = 0;
+        lastState = null;
+        this.delay = delay;
+        sessionStart = System.currentTimeMillis();
+        active = true;
+    }
+
+    /**
+     * Charges the time since the last call to the state the crafter was in, and notes the current one.
+     */
+    void trackState(S state) {
+        long now = System.nanoTime();
+        if (lastState != null) {
+            stateNanos[lastState.ordinal()] += now - lastStateTime;
+        }
+        lastState = state;
+        lastStateTime = now;
+    }
+
+    /**
+     * Counts clicks submitted for the current cycle.
+     */
+    void addClicks(int clicks) {
+        pendingClicks += clicks;
+        totalClicks += clicks;
+    }
+
+    /**
+     * Records a finished craft cycle with the clicks submitted since the last one.
+     *
+     * @param crafts The crafts of the cycle, as confirmed by the server
+     */
+    void recordCycle(int crafts) {
+        cycleTimes[head] = System.currentTimeMillis();
+        cycleCrafts[head] = crafts;
+        cycleClicks[head] = pendingClicks;
+        head = (head + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+        pendingClicks = 0;
+        totalCrafts += crafts;
+        totalCycles++;
+    }
+
+    void recordStall(Stall stall) {
+        stalls[stall.ordinal()]++;
+    }
+
+    /**
+     * Ends the session and logs its summary.
+     */
+    void finish() {
+        if (!active) return;
+        trackState(null);
+        active = false;
+        sessionEnd = System.currentTimeMillis();
+        if (totalCycles == 0 && totalClicks == 0) return;
+
+        double minutes = Math.max(sessionEnd - sessionStart, 1) / 60_000.0;
+        BoosterClient.LOGGER.info("Infinite Craft session: {} crafts in {} cycles over {}s ({} crafts/min), "
+                + "{} clicks ({} clicks/craft), delay {} ticks; time per state: {}; stalls: {}",
+            totalCrafts, totalCycles, String.format(Locale.ROOT, "%.1f", minutes * 60),
+            String.format(Locale.ROOT, "%.1f", totalCrafts / minutes),
+            totalClicks, formatRatio(totalClicks, totalCrafts), delay,
+            String.join(", ", formatStateTicks()), String.join(", ", formatStalls()));
+    }
+
+    /**
+     * @return Whether a session is running or has recorded anything
+     */
+    boolean hasData() {
+        return active || size > 0;
+    }
+
+    /**
+     * @return Crafts per minute over the last minute of the session
+     */
+    double getCraftsPerMinute() {
+        long now = active ? System.currentTimeMillis() : sessionEnd;
+        long from = Math.max(now - WINDOW_MS, sessionStart);
+        int crafts = 0;
+        for (int i = 0; i < size; i++) {
+            int index = Math.floorMod(head - 1 - i, CAPACITY);
+            if (cycleTimes[index] < from) break;
+            crafts += cycleCrafts[index];
+        }
+        return crafts * 60_000.0 / Math.max(now - from, 1000);
+    }
+
+    /**
+     * @return Clicks per craft over the cycles in the buffer
+     */
+    String getClicksPerCraft() {
+        long crafts = 0;
+        long clicks = 0;
+        for (int i = 0; i < size; i++) {
+            crafts += cycleCrafts[i];
+            clicks += cycleClicks[i];
+        }
+        return formatRatio(clicks, crafts);
+    }
+
+    /**
+     * @return The ticks spent in each state that was entered, e.g. "WAITING 40t"
+     */
+    List<String> formatStateTicks() {
+        List<String> parts = new ArrayList<>();
+        for (S state : states) {
+            long ticks = stateNanos[state.ordinal()] / NANOS_PER_TICK;
+            if (ticks > 0) parts.add(state.name() + " " + ticks + "t");
+        }
+        return parts;
+    }
+
+    /**
+     * @return The count of each stall cause that happened, e.g. "2 missing items"
+     */
+    List<String> formatStalls() {
+        List<String> parts = new ArrayList<>();
+        for (Stall stall : Stall.values()) {
+            if (stalls[stall.ordinal()] > 0) parts.add(stalls[stall.ordinal()] + " " + stall.label);
+        }
+        if (parts.isEmpty()) parts.add("none");
+        return parts;
+    }
+
+    private static String formatRatio(long numerator, long denominator) {
+        return denominator > 0 ? String.format(Locale.ROOT, "%.2f", (double) numerator / denominator) : "-";
+    }
+}
@@ -0,0 +1,198 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.item.Item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plans the crafting tree for a number of items against the player's inventory.
+ * <p>
+ * Each ingredient is taken from the inventory first; whatever is short is crafted from its own
+ * recipe, recursively. Recipes are tried in recipe book order, each on a copy of the inventory,
+ * and the first one whose whole subtree can be satisfied wins. For cells accepting several items
+ * (e.g. any planks), the item the player has most of is used, or else one that can be crafted.
+ * Leftovers of a craft (e.g. 4 planks from a log when 2 were needed) go back into the pool for
+ * later steps. Steps come out in dependency order, so intermediates are crafted first.
+ */
+final class CraftingPlanner {
+
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * One recipe to craft a number of times.
+     *
+     * @param recipe  The recipe
+     * @param pattern The item in each grid cell, row-major, null for empty cells
+     * @param crafts  How many times to craft it
+     */
+    record Step(RecipeIndex.CraftRecipe recipe, Item[] pattern, int crafts) {
+    }
+
+    /**
+     * A planned crafting tree.
+     *
+     * @param steps   The steps, in the order to craft them
+     * @param missing Base items that are missing from the inventory, with the missing amounts
+     */
+    record Plan(List<Step> steps, Map<Item, Integer> missing) {
+        boolean isComplete() {
+            return missing.isEmpty() && !steps.isEmpty();
+        }
+    }
+
+    private CraftingPlanner() {
+    }
+
+    /**
+     * Plans crafting a number of items. Items of the target already in the inventory don't count.
+     *
+     * @param target    The item to craft
+     * @param quantity  How many to craft
+     * @param inventory Item counts of the player's inventory
+     */
+    static Plan plan(Item target, int quantity, Map<Item, Integer> inventory) {
+        Map<Item, Integer> firstMissing = null;
+        for (RecipeIndex.CraftRecipe recipe : RecipeIndex.getRecipes(target)) {
+            Map<Item, Integer> pool = new HashMap<>(inventory);
+            List<Step> steps = new ArrayList<>();
+            Map<Item, Integer> missing = new LinkedHashMap<>();
+            Set<Item> path = new HashSet<>();
+            path.add(target);
+
+            if (craft(recipe, quantity, pool, steps, missing, path, 0)) {
+                return new Plan(steps, Map.of());
+            }
+            if (firstMissing == null) {
+                firstMissing = missing;
+            }
+        }
+        return new Plan(List.of(), firstMissing != null ? firstMissing : Map.of(target, quantity));
+    }
+
+    /**
+     * Takes an item from the pool, crafting whatever is short.
+     *
+     * @return Whether the full amount could be provided
+     */
+    private static boolean provide(Item item, int amount, Map<Item, Integer> pool, List<Step> steps,
+                                   Map<Item, Integer> missing, Set<Item> path, int depth) {
+        int have = pool.getOrDefault(item, 0);
+        int used = Math.min(have, amount);
+        if (used > 0) {
+            pool.put(item, have - used);
+            amount -= used;
+        }
+        if (amount == 0) {
+            return true;
+        }
+
+        // Craft the rest, without going in circles (e.g. iron ingots from iron blocks and back)
+        if (depth >= MAX_DEPTH || path.contains(item)) {
+            missing.merge(item, amount, Integer::sum);
+            return false;
+        }
+
+        Map<Item, Integer> firstMissing = null;
+        path.add(item);
+        try {
+            for (RecipeIndex.CraftRecipe recipe : RecipeIndex.getRecipes(item)) {
+                Map<Item, Integer> trialPool = new HashMap<>(pool);
+                List<Step> trialSteps = new ArrayList<>();
+                Map<Item, Integer> trialMissing = new LinkedHashMap<>();
+
+                if (craft(recipe, amount, trialPool, trialSteps, trialMissing, path, depth + 1)) {
+                    pool.clear();
+                    pool.putAll(trialPool);
+                    steps.addAll(trialSteps);
+                    return true;
+                }
+                if (firstMissing == null) {
+                    firstMissing = trialMissing;
+                }
+            }
+        } finally {
+            path.remove(item);
+        }
+
+        if (firstMissing == null) {
+            // Not craftable: a base item
+            missing.merge(item, amount, Integer::sum);
+        } else {
+            firstMissing.forEach((missingItem, count) -> missing.merge(missingItem, count, Integer::sum));
+        }
+        return false;
+    }
+
+    /**
+     * Crafts at least the amount with one recipe, providing its ingredients first.
+     */
+    private static boolean craft(RecipeIndex.CraftRecipe recipe, int amount, Map<Item, Integer> pool,
+                                 List<Step> steps, Map<Item, Integer> missing, Set<Item> path, int depth) {
+        int crafts = (amount + recipe.outputCount() - 1) / recipe.outputCount();
+
+        // Cells accepting the same items get the same item, provided in one go
+        Map<List<Item>, Integer> cellsPerOptions = new LinkedHashMap<>();
+        for (List<Item> options : recipe.cells()) {
+            if (!options.isEmpty()) cellsPerOptions.merge(options, 1, Integer::sum);
+        }
+
+        Map<List<Item>, Item> choices = new HashMap<>();
+        boolean provided = true;
+        for (Map.Entry<List<Item>, Integer> entry : cellsPerOptions.entrySet()) {
+            int needed = crafts * entry.getValue();
+            Item choice = choose(entry.getKey(), needed, pool, path);
+            choices.put(entry.getKey(), choice);
+            provided &= provide(choice, needed, pool, steps, missing, path, depth);
+        }
+        if (!provided) {
+            return false;
+        }
+
+        Item[] pattern = new Item[9];
+        for (int cell = 0; cell < 9; cell++) {
+            pattern[cell] = choices.get(recipe.cells().get(cell));
+        }
+        steps.add(new Step(recipe, pattern, crafts));
+        int leftover = crafts * recipe.outputCount() - amount;
+        if (leftover > 0) {
+            pool.merge(recipe.output(), leftover, Integer::sum);
+        }
+        return true;
+    }
+
+    /**
+     * Chooses the item for a group of cells: the one the pool has most of if that is enough or can
+     * be crafted, else one that can be crafted, else the one the pool has most of.
+     */
+    private static Item choose(List<Item> options, int needed, Map<Item, Integer> pool, Set<Item> path) {
+        Item best = null;
+        int bestCount = 0;
+        for (Item option : options) {
+            int count = pool.getOrDefault(option, 0);
+            if (count > bestCount) {
+                best = option;
+                bestCount = count;
+            }
+        }
+        if (best != null && (bestCount >= needed || isCraftable(best, path))) {
+            return best;
+        }
+
+        for (Item option : options) {
+            if (isCraftable(option, path)) {
+                return option;
+            }
+        }
+        return best != null ? best : options.get(0);
+    }
+
+    private static boolean isCraftable(Item item, Set<Item> path) {
+        return !path.contains(item) && !RecipeIndex.getRecipes(item).isEmpty();
+    }
+}
@@ -0,0 +1,119 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.ItemGroup;
+import net.minecraft.item.ItemGroups;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.resource.featuretoggle.FeatureSet;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps every item to its position in the creative inventory.
+ * <p>
+ * The index is a flat int array indexed by raw item ID, holding the creative tab index in the
+ * upper bits and the position within the tab in the lower 16 bits. It is built from the
+ * {@link ItemGroups} display contexts and rebuilt lazily when the enabled features, the
+ * registries or the loaded tags change. A sort fetches the index once with {@link #getIndex()}
+ * and then reads each item's order straight from the array.
+ */
+public final class CreativeTabIndex {
+
+    /**
+     * Order of items that don't appear in any creative tab.
+     */
+    static final int NOT_IN_TAB = Integer.MAX_VALUE;
+
+    private static int[] orderByRawId;
+    private static FeatureSet indexedFeatures;
+    private static RegistryWrapper.WrapperLookup indexedRegistries;
+    private static boolean indexedOperatorTab;
+    private static boolean dirty = true;
+    private static boolean eventsRegistered = false;
+
+    private CreativeTabIndex() {
+    }
+
+    /**
+     * Marks the index stale whenever tags are reloaded (joining a world or running /reload).
+     * Only registers once.
+     */
+    public static void init() {
+        if (!eventsRegistered) {
+            CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> dirty = true);
+            eventsRegistered = true;
+        }
+    }
+
+    /**
+     * Gets the creative inventory order of an item from an index returned by {@link #getIndex()}.
+     *
+     * @param index The index, possibly null if none could be built
+     * @param rawId The raw ID of the item
+     * @return The packed (tab index, position in tab) order, or {@link #NOT_IN_TAB}
+     */
+    static int getOrder(int[] index, int rawId) {
+        if (index == null || rawId < 0 || rawId >= index.length) {
+            return NOT_IN_TAB;
+        }
+        return index[rawId];
+    }
+
+    /**
+     * Returns the current index, rebuilding it if the display context changed.
+     * Call once per sort; the array must not be modified.
+     *
+     * @return The order of each raw item ID, or null outside a world before any index was built
+     */
+    static int[] getIndex() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.world == null || client.player == null) {
+            return orderByRawId;
+        }
+
+        FeatureSet features = client.world.getEnabledFeatures();
+        RegistryWrapper.WrapperLookup registries = client.world.getRegistryManager();
+        boolean operatorTab = client.player.isCreativeLevelTwoOp()
+                && client.options.getOperatorItemsTab().getValue();
+
+        boolean contextChanged = ItemGroups.updateDisplayContext(features, operatorTab, registries);
+        if (orderByRawId == null || dirty || contextChanged
+                || !features.equals(indexedFeatures)
+                || registries != indexedRegistries
+                || operatorTab != indexedOperatorTab) {
+            orderByRawId = build();
+            indexedFeatures = features;
+            indexedRegistries = registries;
+            indexedOperatorTab = operatorTab;
+            dirty = false;
+        }
+        return orderByRawId;
+    }
+
+    private static int[] build() {
+        int[] index = new int[Registries.ITEM.size()];
+        Arrays.fill(index, NOT_IN_TAB);
+
+        List<ItemGroup> groups = ItemGroups.getGroupsToDisplay();
+        int groupIndex = 0;
+        for (ItemGroup group : groups) {
+            if (group.getType() != ItemGroup.Type.CATEGORY) continue;
+
+            int position = 0;
+            for (ItemStack stack : group.getDisplayStacks()) {
+                int rawId = Registries.ITEM.getRawId(stack.getItem());
+                // Items listed in several tabs keep their first position
+                if (rawId >= 0 && rawId < index.length && index[rawId] == NOT_IN_TAB) {
+                    index[rawId] = (groupIndex << 16) | Math.min(position, 0xFFFF);
+                }
+                position++;
+            }
+            groupIndex++;
+        }
+        return index;
+    }
+}
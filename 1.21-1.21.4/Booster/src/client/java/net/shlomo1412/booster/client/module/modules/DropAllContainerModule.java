@@ -4,7 +4,8 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.screen.slot.Slot;
-import net.minecraft.screen.slot.SlotActionType;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
@@ -116,22 +117,23 @@ public class DropAllContainerModule extends GUIModule {
         }
         
         var handler = screen.getScreenHandler();
+        if (ClickScheduler.getInstance().isBusy(handler)) return;
         
+        ClickBatch batch = new ClickBatch("drop_all_container", handler);
         for (Slot slot : handler.slots) {
             // Skip player inventory slots - we only want container slots
             if (slot.inventory instanceof PlayerInventory) continue;
             
             if (slot.hasStack()) {
                 // CTRL+Q to drop entire stack
-                client.interactionManager.clickSlot(
-                    handler.syncId,
-                    slot.id,
-                    1,  // Button 1 with CTRL = drop stack
-                    SlotActionType.THROW,
-                    client.player
-                );
+                batch.throwStack(slot.id);
             }
         }
+        
+        if (dropContainerButton != null) {
+            batch.onProgress(dropContainerButton::updateProgress);
+        }
+        ClickScheduler.getInstance().submit(batch);
     }
     
     @Override
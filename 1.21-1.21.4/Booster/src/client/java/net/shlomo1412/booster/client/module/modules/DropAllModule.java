@@ -1,13 +1,22 @@
 package net.shlomo1412.booster.client.module.modules;
 
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.screen.ScreenHandler;
 import net.minecraft.screen.slot.Slot;
-import net.minecraft.screen.slot.SlotActionType;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.client.config.BoosterConfig;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 import net.shlomo1412.booster.client.module.GUIModule;
+import net.shlomo1412.booster.client.module.ModuleManager;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
+import net.shlomo1412.booster.client.render.SlotOverlayRenderer;
 import net.shlomo1412.booster.client.widget.BoosterButton;
 
 import java.util.ArrayList;
@@ -19,6 +28,7 @@ import java.util.function.Consumer;
 /**
  * Module that adds a Drop All button to inventory and container screens.
  * Drops all items from the player's inventory (main slots, optionally hotbar).
+ * Protected slots and blacklisted items are kept; both are toggled with ALT+click and saved in the config.
  * Has separate positions for inventory screen vs container screen.
  */
 public class DropAllModule extends GUIModule {
@@ -31,8 +41,13 @@ public class DropAllModule extends GUIModule {
     private final ModuleSetting.BooleanSetting includeHotbarSetting;
     private final ModuleSetting.BooleanSetting confirmDropSetting;
     
+    // Overlay colors
+    private static final int PROTECTED_COLOR = 0xFFFFAA00;    // Orange
+    private static final int BLACKLISTED_COLOR = 0xFFFF4444;  // Red
+    
     // Runtime state
     private BoosterButton dropAllButton;
+    private final SlotOverlayRenderer.Layer overlayLayer = SlotOverlayRenderer.getInstance().createLayer();
     private boolean onContainerScreen = false;
     
     public DropAllModule() {
@@ -41,7 +56,8 @@ public class DropAllModule extends GUIModule {
             "Drop All",
             "Adds a button to drop all items from your inventory.\n" +
             "Works on both inventory and container screens.\n" +
-            "Hold SHIFT to bypass confirmation.",
+            "Hold SHIFT to bypass confirmation.\n" +
+            "ALT+click a slot to protect it, ALT+right-click an item to never drop it.",
             true,
             20,  // Default button width
             20   // Default button height
@@ -99,8 +115,8 @@ public class DropAllModule extends GUIModule {
         int buttonY = anchorY + inventorySectionOffset + settings.getOffsetY();
         
         String tooltip = confirmDropSetting.getValue() 
-            ? "Drop all items from your inventory.\nHold SHIFT and click to drop."
-            : "Drop all items from your inventory.";
+            ? "Drop all items from your inventory.\nHold SHIFT and click to drop.\nALT+click slots to protect them."
+            : "Drop all items from your inventory.\nALT+click slots to protect them.";
         
         dropAllButton = new BoosterButton(
             buttonX, buttonY,
@@ -131,21 +147,42 @@ public class DropAllModule extends GUIModule {
     }
     
     /**
-     * Drops all items from the player's inventory.
+     * Drops all items from the player's inventory, except protected slots and blacklisted items.
      */
     private void dropAllItems(HandledScreen<?> screen) {
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.player == null || client.interactionManager == null) return;
         
         // Check if SHIFT is required and held
-        if (confirmDropSetting.getValue() && !net.minecraft.client.gui.screen.Screen.hasShiftDown()) {
+        if (confirmDropSetting.getValue() && !Screen.hasShiftDown()) {
             // Don't drop - SHIFT not held
             return;
         }
         
         var handler = screen.getScreenHandler();
+        if (ClickScheduler.getInstance().isBusy(handler)) return;
+        
+        ClickBatch batch = planDrop(handler);
+        if (batch == null) return;
+        
+        if (dropAllButton != null) {
+            batch.onProgress(dropAllButton::updateProgress);
+        }
+        ClickScheduler.getInstance().submit(batch);
+    }
+    
+    /**
+     * Plans the drop on the current slot contents: one whole-stack throw per droppable stack.
+     * If the server state diverges while the clicks are sent, the drop is planned again.
+     *
+     * @return The batch, or null if there is nothing to drop
+     */
+    private ClickBatch planDrop(ScreenHandler handler) {
+        BoosterConfig config = ModuleManager.getInstance().getConfig();
         boolean includeHotbar = includeHotbarSetting.getValue();
         
+        ClickBatch batch = new ClickBatch("drop_all", handler);
+        int skipped = 0;
         for (Slot slot : handler.slots) {
             // Only process player inventory slots
             if (!(slot.inventory instanceof PlayerInventory)) continue;
@@ -163,17 +200,86 @@ public class DropAllModule extends GUIModule {
             // Skip hotbar if not included
             if (!includeHotbar && inventoryIndex < 9) continue;
             
-            if (slot.hasStack()) {
-                // CTRL+Q to drop entire stack
-                client.interactionManager.clickSlot(
-                    handler.syncId,
-                    slot.id,
-                    1,  // Button 1 with CTRL = drop stack
-                    SlotActionType.THROW,
-                    client.player
-                );
+            ItemStack stack = slot.getStack();
+            if (stack.isEmpty()) continue;
+            
+            if (config.isDropProtected(inventoryIndex) || config.isDropBlacklisted(getItemId(stack))) {
+                skipped++;
+                continue;
             }
+            
+            // CTRL+Q to drop entire stack
+            batch.throwStack(slot.id);
         }
+        
+        if (skipped > 0) {
+            BoosterClient.LOGGER.info("Drop All kept {} protected or blacklisted stacks", skipped);
+        }
+        if (batch.isEmpty()) return null;
+        
+        batch.onDesync(() -> planDrop(handler));
+        return batch;
+    }
+    
+    /**
+     * Handles ALT+clicks on player inventory slots:
+     * left-click toggles protection of the slot, right-click toggles the blacklist for its item.
+     *
+     * @param slot   The hovered slot, or null
+     * @param button The mouse button
+     * @return true if the click was handled
+     */
+    public boolean handleSlotClick(Slot slot, int button) {
+        if (!Screen.hasAltDown() || slot == null || !(slot.inventory instanceof PlayerInventory)) {
+            return false;
+        }
+        
+        BoosterConfig config = ModuleManager.getInstance().getConfig();
+        if (button == 0) {
+            boolean isProtected = config.toggleDropProtected(slot.getIndex());
+            BoosterClient.LOGGER.info("Drop All protection {} for inventory slot {}",
+                    isProtected ? "enabled" : "disabled", slot.getIndex());
+        } else if (button == 1 && slot.hasStack()) {
+            String itemId = getItemId(slot.getStack());
+            boolean blacklisted = config.toggleDropBlacklisted(itemId);
+            BoosterClient.LOGGER.info("Drop All {} {}", blacklisted ? "blacklisted" : "unblacklisted", itemId);
+        } else {
+            return false;
+        }
+        ModuleManager.getInstance().saveConfig();
+        return true;
+    }
+    
+    /**
+     * Adds outlines around protected slots, and while ALT is held, around blacklisted items,
+     * to the batched slot overlay renderer.
+     */
+    public void renderProtectedSlots(ScreenHandler handler, int containerX, int containerY) {
+        BoosterConfig config = ModuleManager.getInstance().getConfig();
+        boolean showBlacklist = Screen.hasAltDown();
+        
+        overlayLayer.begin();
+        for (Slot slot : handler.slots) {
+            if (!(slot.inventory instanceof PlayerInventory)) continue;
+            
+            int color;
+            if (config.isDropProtected(slot.getIndex())) {
+                color = PROTECTED_COLOR;
+            } else if (showBlacklist && slot.hasStack() && config.isDropBlacklisted(getItemId(slot.getStack()))) {
+                color = BLACKLISTED_COLOR;
+            } else {
+                continue;
+            }
+            
+            int slotX = containerX + slot.x;
+            int slotY = containerY + slot.y;
+            overlayLayer.outline(slotX, slotY, slotX + 16, slotY + 16, color);
+        }
+        overlayLayer.end();
+    }
+    
+    private static String getItemId(ItemStack stack) {
+        return Registries.ITEM.getId(stack.getItem()).toString();
     }
     
     @Override
@@ -1,17 +1,20 @@
 package net.shlomo1412.booster.client.module.modules;
 
 import net.minecraft.client.MinecraftClient;
-import net.minecraft.client.font.TextRenderer;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.ingame.AbstractFurnaceScreen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.screen.AbstractFurnaceScreenHandler;
 import net.minecraft.screen.PropertyDelegate;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.furnace.FurnaceTimes;
+import net.shlomo1412.booster.client.inventory.InventoryTracker;
 import net.shlomo1412.booster.client.module.GUIModule;
+import net.shlomo1412.booster.client.module.ModuleManager;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterButton;
+import net.shlomo1412.booster.mixin.client.AbstractFurnaceScreenHandlerAccessor;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -31,17 +34,18 @@ public class EstimatedFuelTimeModule extends GUIModule {
     
     private BoosterButton timeDisplay;
     
-    // Current furnace state for rendering
-    private int currentCookTime = 0;
-    private int totalCookTime = 0;
-    private int remainingItemsToCook = 0;
+    // Furnace state the estimate was made from; the estimate is only redone when it changes
+    private final int[] lastProperties = new int[4];
+    private AbstractFurnaceScreenHandler lastHandler;
+    private int lastRevision = -1;
+    private int lastPlayerVersion = -1;
+    private int lastHandlerVersion = -1;
     
-    // Time tracking for smooth countdown
-    private long lastCalculationTime = 0;
-    private int lastInputCount = -1;
-    private int lastFuelCount = -1;
-    private float cachedTotalSeconds = 0;
-    private boolean wasProcessing = false;
+    // Cached estimate and display text
+    private String timeText = "";
+    private String displayText = "";
+    private int displayWidth = 0;
+    private boolean displayedWithIcon = false;
     
     public EstimatedFuelTimeModule() {
         super(
@@ -122,167 +126,121 @@ public class EstimatedFuelTimeModule extends GUIModule {
         addDrawableChild.accept(timeDisplay);
     }
     
-    /**
-     * Updates the furnace state for time calculation.
-     */
-    public void updateFurnaceState(AbstractFurnaceScreenHandler handler) {
-        // Get progress from the handler
-        // Property indices for AbstractFurnaceScreenHandler:
-        // 0 = fuel burn time remaining
-        // 1 = total fuel burn time
-        // 2 = current cook progress
-        // 3 = total cook time
-        
-        this.currentCookTime = (int) handler.getCookProgress();
-        this.totalCookTime = 200; // Default cook time in ticks (10 seconds for normal furnace)
-        
-        // Count items in input slot that need cooking
-        if (!handler.getSlot(0).getStack().isEmpty()) {
-            this.remainingItemsToCook = handler.getSlot(0).getStack().getCount();
-        } else {
-            this.remainingItemsToCook = 0;
-        }
-    }
-    
     /**
      * Renders the estimated time text.
      * This should be called from the mixin's render method.
+     * The estimate and its text are only rebuilt when the furnace or the inventory changed.
      */
     public void renderTime(DrawContext context, AbstractFurnaceScreenHandler handler, int screenX, int screenY) {
         if (timeDisplay == null || !isEnabled()) {
             return;
         }
         
-        updateFurnaceState(handler);
-        
-        MinecraftClient client = MinecraftClient.getInstance();
-        TextRenderer textRenderer = client.textRenderer;
-        
-        // Calculate remaining time
-        String timeText = calculateTimeText(handler);
-        
-        // Build display text (icon is already shown by the button, so only add it if we're drawing separately)
-        StringBuilder displayText = new StringBuilder();
-        if (showIconSetting.getValue()) {
-            displayText.append("⏱ ");
+        boolean showIcon = showIconSetting.getValue();
+        if (!updateEstimate(handler) && showIcon == displayedWithIcon) {
+            return;
         }
-        displayText.append(timeText);
         
-        // Update button message to show the full text
-        timeDisplay.setMessage(net.minecraft.text.Text.literal(displayText.toString()));
+        // Icon is already shown by the button, so only add it if we're drawing separately
+        String text = showIcon ? "⏱ " + timeText : timeText;
+        if (!text.equals(displayText)) {
+            displayText = text;
+            displayWidth = MinecraftClient.getInstance().textRenderer.getWidth(text);
+            timeDisplay.setMessage(net.minecraft.text.Text.literal(text));
+        }
+        displayedWithIcon = showIcon;
         
-        // Calculate the minimum width needed and update if necessary
-        int neededWidth = textRenderer.getWidth(displayText.toString()) + 8; // 4px padding on each side
+        // Grow the widget to fit the text
+        int neededWidth = displayWidth + 8; // 4px padding on each side
         if (timeDisplay.getWidth() < neededWidth) {
             timeDisplay.setWidth(neededWidth);
         }
     }
     
     /**
-     * Calculates the time text based on furnace state.
-     * Uses time-based interpolation for smooth countdown even when game is paused.
+     * Estimates the time again if the furnace properties, the furnace slots or the player's
+     * inventory changed since the last estimate.
+     *
+     * @return Whether the time text was recalculated
+     */
+    private boolean updateEstimate(AbstractFurnaceScreenHandler handler) {
+        PropertyDelegate properties = ((AbstractFurnaceScreenHandlerAccessor) handler).booster$getPropertyDelegate();
+        InventoryTracker tracker = InventoryTracker.getInstance();
+        
+        boolean changed = handler != lastHandler
+            || handler.getRevision() != lastRevision
+            || tracker.getPlayerVersion() != lastPlayerVersion
+            || tracker.getHandlerVersion() != lastHandlerVersion;
+        for (int i = 0; i < lastProperties.length; i++) {
+            int value = properties.get(i);
+            if (value != lastProperties[i]) {
+                lastProperties[i] = value;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return false;
+        }
+        
+        lastHandler = handler;
+        lastRevision = handler.getRevision();
+        lastPlayerVersion = tracker.getPlayerVersion();
+        lastHandlerVersion = tracker.getHandlerVersion();
+        timeText = calculateTimeText(handler);
+        return true;
+    }
+    
+    /**
+     * Calculates the time text from the raw furnace properties.
+     * <p>
+     * Covers every item in the input slot (as far as the output slot has room). When the fuel in
+     * the furnace runs out first, the fuel that the next Smart Fuel click would load from the
+     * player's inventory is counted too, and the text says that more fuel is needed.
      */
     private String calculateTimeText(AbstractFurnaceScreenHandler handler) {
         // Check if there are items to smelt
-        if (handler.getSlot(0).getStack().isEmpty()) {
-            resetTimeTracking();
+        int items = FurnaceTimes.getItemsToCook(handler);
+        if (items <= 0) {
             return "No items";
         }
         
-        // Check if burning (has fuel)
-        boolean isBurning = handler.isBurning();
-        if (!isBurning) {
-            resetTimeTracking();
-            return "No fuel";
+        int cookTicks = FurnaceTimes.getCookTicks(handler, items);
+        int fuelTicks = FurnaceTimes.getFuelTicks(handler);
+        if (fuelTicks >= cookTicks) {
+            return formatTicks(cookTicks);
         }
         
-        // Get current slot counts
-        int currentInputCount = handler.getSlot(0).getStack().getCount();
-        int currentFuelCount = handler.getSlot(1).getStack().getCount();
-        
-        long currentTime = System.currentTimeMillis();
-        
-        // Check if we need to recalculate the base time
-        // Recalculate when: first time, items changed, or wasn't processing before
-        boolean needsRecalculation = !wasProcessing ||
-            currentInputCount != lastInputCount ||
-            currentFuelCount != lastFuelCount ||
-            lastCalculationTime == 0;
-        
-        if (needsRecalculation) {
-            // Calculate the actual remaining time from furnace state
-            float cookProgressScaled = handler.getCookProgress();
-            int ticksPerItem = getTotalCookTime(handler);
-            
-            int maxProgress = 24;
-            int currentProgress = (int) cookProgressScaled;
-            int remainingProgressForCurrent = maxProgress - currentProgress;
-            
-            float progressRatio = (float) remainingProgressForCurrent / maxProgress;
-            int ticksForCurrentItem = (int) (ticksPerItem * progressRatio);
-            
-            int ticksForRemainingItems = (currentInputCount > 1 ? (currentInputCount - 1) : 0) * ticksPerItem;
-            
-            int totalTicks = ticksForCurrentItem + ticksForRemainingItems;
-            cachedTotalSeconds = totalTicks / 20.0f;
-            
-            lastCalculationTime = currentTime;
-            lastInputCount = currentInputCount;
-            lastFuelCount = currentFuelCount;
-            wasProcessing = true;
+        // Not enough fuel in the furnace; count what Smart Fuel would add
+        int loadableTicks = 0;
+        SmartFuelModule smartFuel = ModuleManager.getInstance().getModule(SmartFuelModule.class);
+        if (smartFuel != null && smartFuel.isEnabled()) {
+            loadableTicks = smartFuel.getLoadableFuelTicks(handler);
         }
-        
-        // Calculate elapsed time since last calculation and subtract from cached time
-        float elapsedSeconds = (currentTime - lastCalculationTime) / 1000.0f;
-        float remainingSeconds = cachedTotalSeconds - elapsedSeconds;
-        
-        // Clamp to 0
-        if (remainingSeconds < 0) {
-            remainingSeconds = 0;
+        if (fuelTicks + loadableTicks >= cookTicks) {
+            return formatTicks(cookTicks) + " (add fuel)";
         }
-        
-        // Format the time
-        if (remainingSeconds < 1) {
-            return String.format("%.1fs", remainingSeconds);
-        } else if (remainingSeconds < 60) {
-            return String.format("%.1fs", remainingSeconds);
-        } else {
-            int mins = (int) (remainingSeconds / 60);
-            float secs = remainingSeconds % 60;
-            return String.format("%dm %.0fs", mins, secs);
+        if (fuelTicks + loadableTicks <= 0) {
+            return "No fuel";
         }
+        return formatTicks(fuelTicks + loadableTicks) + " (low fuel)";
     }
     
-    /**
-     * Resets the time tracking state.
-     */
-    private void resetTimeTracking() {
-        lastCalculationTime = 0;
-        lastInputCount = -1;
-        lastFuelCount = -1;
-        cachedTotalSeconds = 0;
-        wasProcessing = false;
-    }
-    
-    /**
-     * Gets the total cook time based on furnace type.
-     */
-    private int getTotalCookTime(AbstractFurnaceScreenHandler handler) {
-        // Normal furnace: 200 ticks (10 seconds)
-        // Blast furnace and smoker: 100 ticks (5 seconds)
-        // We can check the class name to determine type
-        String className = handler.getClass().getSimpleName();
-        if (className.contains("Blast") || className.contains("Smoker")) {
-            return 100; // 5 seconds
+    private static String formatTicks(int ticks) {
+        float seconds = ticks / 20.0f;
+        if (seconds < 60) {
+            return String.format("%.1fs", seconds);
         }
-        return 200; // 10 seconds
+        int mins = (int) (seconds / 60);
+        float secs = seconds % 60;
+        return String.format("%dm %.0fs", mins, secs);
     }
     
     /**
      * Gets the current time text for the pinned overlay.
      */
     public String getCurrentTimeText(AbstractFurnaceScreenHandler handler) {
-        return calculateTimeText(handler);
+        updateEstimate(handler);
+        return timeText;
     }
     
     /**
@@ -0,0 +1,184 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.item.Item;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the combination of fuel items that covers a number of burn ticks with the least waste.
+ * <p>
+ * This is a bounded knapsack over the burn-time lattice: burn times and the target are divided by
+ * their greatest common divisor, and for every reachable total the cheapest way to reach it is kept.
+ * Totals above the target plus the longest burn time are never needed, since one item could be
+ * left out of such a combination. The best total at or above the target wins; ties are broken by
+ * the number of items.
+ * <p>
+ * Solutions are memoized per target and fuel multiset, so clicking again with the same inventory
+ * doesn't solve again.
+ */
+final class FuelSolver {
+
+    private static final int CACHE_SIZE = 64;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * A fuel type available for the solve.
+     *
+     * @param item      The fuel item
+     * @param burnTime  Burn ticks per item
+     * @param available Number of items available
+     */
+    record Fuel(Item item, int burnTime, int available) {
+    }
+
+    /**
+     * The fuel to use.
+     *
+     * @param counts     Items per fuel, ordered by the burn ticks they contribute, largest first
+     * @param totalTicks Burn ticks of all the items together
+     * @param waste      Burn ticks beyond the target; negative if the fuel is not enough
+     */
+    record Solution(Map<Item, Integer> counts, int totalTicks, int waste) {
+        boolean isEmpty() {
+            return counts.isEmpty();
+        }
+    }
+
+    private record Key(int ticksNeeded, List<Fuel> fuels) {
+    }
+
+    private static final Map<Key, Solution> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Solution> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private FuelSolver() {
+    }
+
+    /**
+     * Solves for the given target, or returns the memoized solution.
+     *
+     * @param ticksNeeded Burn ticks to cover
+     * @param fuels       Available fuels, one entry per item type, in a stable order
+     */
+    static Solution solve(int ticksNeeded, List<Fuel> fuels) {
+        // Counts beyond what could ever be useful don't change the solution, so they don't split the cache
+        Fuel[] capped = new Fuel[fuels.size()];
+        for (int i = 0; i < capped.length; i++) {
+            Fuel fuel = fuels.get(i);
+            int useful = ceilDiv(ticksNeeded, fuel.burnTime());
+            capped[i] = new Fuel(fuel.item(), fuel.burnTime(), Math.min(fuel.available(), useful));
+        }
+
+        Key key = new Key(ticksNeeded, List.of(capped));
+        Solution solution = CACHE.get(key);
+        if (solution == null) {
+            solution = compute(ticksNeeded, capped);
+            CACHE.put(key, solution);
+        }
+        return solution;
+    }
+
+    private static Solution compute(int ticksNeeded, Fuel[] fuels) {
+        if (ticksNeeded <= 0 || fuels.length == 0) {
+            return new Solution(Map.of(), 0, -Math.max(0, ticksNeeded));
+        }
+
+        int unit = 0;
+        int maxBurn = 0;
+        for (Fuel fuel : fuels) {
+            unit = gcd(unit, fuel.burnTime());
+            maxBurn = Math.max(maxBurn, fuel.burnTime());
+        }
+        int target = ceilDiv(ticksNeeded, unit);
+        int size = target + maxBurn / unit;
+
+        // cost[s]: fewest items to burn exactly s units; taken[t][s]: items of fuel t in that solution
+        int[] cost = new int[size];
+        Arrays.fill(cost, UNREACHABLE);
+        cost[0] = 0;
+        int[][] taken = new int[fuels.length][];
+        int[] next = new int[size];
+
+        for (int t = 0; t < fuels.length; t++) {
+            Fuel fuel = fuels[t];
+            int step = fuel.burnTime() / unit;
+            int[] take = new int[size];
+
+            System.arraycopy(cost, 0, next, 0, size);
+            for (int s = 0; s < size; s++) {
+                if (cost[s] == UNREACHABLE) continue;
+                for (int k = 1; k <= fuel.available(); k++) {
+                    int reached = s + k * step;
+                    if (reached >= size) break;
+                    int c = cost[s] + k;
+                    if (c < next[reached]) {
+                        next[reached] = c;
+                        take[reached] = k;
+                    }
+                }
+            }
+            System.arraycopy(next, 0, cost, 0, size);
+            taken[t] = take;
+        }
+
+        // The smallest reachable total at or above the target wastes the least; its cost is already
+        // the lowest for that total. Fall back to the largest total if the target can't be reached.
+        int best = -1;
+        for (int s = target; s < size; s++) {
+            if (cost[s] != UNREACHABLE) {
+                best = s;
+                break;
+            }
+        }
+        if (best < 0) {
+            for (int s = target - 1; s > 0; s--) {
+                if (cost[s] != UNREACHABLE) {
+                    best = s;
+                    break;
+                }
+            }
+        }
+        if (best <= 0) {
+            return new Solution(Map.of(), 0, -ticksNeeded);
+        }
+
+        // Walk the fuels backwards to recover the item counts
+        int[] counts = new int[fuels.length];
+        int s = best;
+        for (int t = fuels.length - 1; t >= 0; t--) {
+            counts[t] = taken[t][s];
+            s -= counts[t] * (fuels[t].burnTime() / unit);
+        }
+
+        Integer[] order = new Integer[fuels.length];
+        for (int t = 0; t < order.length; t++) order[t] = t;
+        Arrays.sort(order, (a, b) -> Long.compare(
+                (long) counts[b] * fuels[b].burnTime(), (long) counts[a] * fuels[a].burnTime()));
+
+        Map<Item, Integer> result = new LinkedHashMap<>();
+        for (int t : order) {
+            if (counts[t] > 0) result.put(fuels[t].item(), counts[t]);
+        }
+        int totalTicks = best * unit;
+        return new Solution(result, totalTicks, totalTicks - ticksNeeded);
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,83 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.FuelRegistry;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+
+/**
+ * Burn time of every item, taken from the world's fuel registry.
+ * <p>
+ * The table is a flat int array indexed by raw item ID, so a lookup is one array access. It is
+ * built from {@link FuelRegistry#getFuelItems()}, which includes fuels added by data packs and
+ * mods, and rebuilt lazily when another fuel registry is in use (joining a world) or the tags are
+ * reloaded (running /reload).
+ */
+public final class FuelTable {
+
+    private static final int[] EMPTY = new int[0];
+
+    private static int[] burnTimesByRawId = EMPTY;
+    private static FuelRegistry indexedRegistry;
+    private static boolean dirty = true;
+    private static boolean eventsRegistered = false;
+
+    private FuelTable() {
+    }
+
+    /**
+     * Marks the table stale whenever tags are reloaded, since fuels are partly defined by tags.
+     * Only registers once.
+     */
+    public static void init() {
+        if (!eventsRegistered) {
+            CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> dirty = true);
+            eventsRegistered = true;
+        }
+    }
+
+    /**
+     * Gets the burn time of one item.
+     *
+     * @return The burn time in ticks, or 0 if the item is not a fuel or no world is loaded
+     */
+    public static int getBurnTime(Item item) {
+        int[] table = getTable();
+        int rawId = Registries.ITEM.getRawId(item);
+        if (rawId < 0 || rawId >= table.length) {
+            return 0;
+        }
+        return table[rawId];
+    }
+
+    /**
+     * Returns the current table, rebuilding it if the fuel registry changed.
+     */
+    private static int[] getTable() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.world == null) {
+            return burnTimesByRawId;
+        }
+
+        FuelRegistry registry = client.world.getFuelRegistry();
+        if (dirty || registry != indexedRegistry) {
+            burnTimesByRawId = build(registry);
+            indexedRegistry = registry;
+            dirty = false;
+        }
+        return burnTimesByRawId;
+    }
+
+    private static int[] build(FuelRegistry registry) {
+        int[] table = new int[Registries.ITEM.size()];
+        for (Item item : registry.getFuelItems()) {
+            int rawId = Registries.ITEM.getRawId(item);
+            if (rawId >= 0 && rawId < table.length) {
+                table[rawId] = registry.getFuelTicks(new ItemStack(item));
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,321 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.screen.AbstractFurnaceScreenHandler;
+import net.minecraft.util.math.BlockPos;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.furnace.FurnaceTimes;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
+import net.shlomo1412.booster.client.module.GUIModule;
+import net.shlomo1412.booster.client.module.ModuleManager;
+import net.shlomo1412.booster.client.module.WidgetSettings;
+import net.shlomo1412.booster.client.widget.BoosterButton;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Module that splits an input stack across all furnaces opened in this session,
+ * so a whole furnace array finishes at the same time.
+ * <p>
+ * Every opened furnace is remembered with its cook time per item and the cook time left on its
+ * input. Clicking "Balance" gives each item of the chosen type in the inventory to the furnace
+ * that would finish earliest with it (water-filling over a min-heap of finish times), then fills
+ * the open furnace right away. The other furnaces are filled as they are opened in turn. Each
+ * furnace also gets exactly the fuel for its share, planned by {@link SmartFuelModule}.
+ */
+public class FurnaceArrayModule extends GUIModule {
+
+    public static final String BALANCE_WIDGET_ID = "furnace_array_balance";
+
+    private BoosterButton balanceButton;
+
+    // Furnaces opened in the current world, and the items still to load into each
+    private final Map<BlockPos, ArrayFurnace> furnaces = new HashMap<>();
+    private final Map<BlockPos, Integer> pendingItems = new LinkedHashMap<>();
+    private ClientWorld furnacesWorld;
+    private Item balancedItem;
+
+    public FurnaceArrayModule() {
+        super(
+            "furnace_array",
+            "Furnace Array",
+            "Splits your input stack and fuel evenly across the furnaces\n" +
+            "you opened this session, so they all finish at the same time.\n" +
+            "Each furnace is filled when you open it.",
+            true,
+            20,  // Default button width
+            20   // Default button height
+        );
+    }
+
+    /**
+     * Creates the balance button for the furnace screen.
+     */
+    public void createButton(HandledScreen<?> screen, int anchorX, int anchorY,
+                            Consumer<BoosterButton> addDrawableChild) {
+
+        if (!EstimatedFuelTimeModule.isFurnaceScreen(screen)) {
+            return;
+        }
+
+        WidgetSettings settings = getWidgetSettings(BALANCE_WIDGET_ID, 80, -20);
+
+        int buttonX = anchorX + settings.getOffsetX();
+        int buttonY = anchorY + settings.getOffsetY();
+
+        balanceButton = new BoosterButton(
+            buttonX, buttonY,
+            settings.getWidth(), settings.getHeight(),
+            "⚖",
+            "Balance",
+            "Split the input item across all furnaces opened this session.\n" +
+            "Open each furnace in turn to fill it.",
+            button -> balance(screen)
+        );
+
+        // Apply display mode
+        balanceButton.setDisplayMode(settings.getDisplayMode());
+
+        balanceButton.setEditorInfo(this, BALANCE_WIDGET_ID, "Balance", anchorX, anchorY);
+        EditorModeManager.getInstance().registerDraggableWidget(balanceButton);
+
+        addDrawableChild.accept(balanceButton);
+    }
+
+    /**
+     * Remembers the open furnace and fills it if it has a pending share.
+     * Should be called every frame while a furnace screen is open.
+     */
+    public void tick(BlockPos pos, AbstractFurnaceScreenHandler handler) {
+        // Wait for the furnace contents to arrive from the server
+        if (handler.getRevision() == 0) return;
+
+        observe(pos, handler);
+
+        Integer pending = pendingItems.get(pos);
+        if (pending != null && !ClickScheduler.getInstance().isBusy(handler)) {
+            pendingItems.remove(pos);
+            fill(handler, pos, pending);
+        }
+    }
+
+    /**
+     * Splits the input item across the known furnaces and fills the open one.
+     */
+    private void balance(HandledScreen<?> screen) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.player == null || client.interactionManager == null) return;
+
+        if (!(screen.getScreenHandler() instanceof AbstractFurnaceScreenHandler handler)) {
+            return;
+        }
+        if (ClickScheduler.getInstance().isBusy(handler)) return;
+        if (!(client.crosshairTarget instanceof net.minecraft.util.hit.BlockHitResult blockHit)) return;
+
+        BlockPos openPos = blockHit.getBlockPos();
+        observe(openPos, handler);
+
+        // Balance the item being smelted, or the held item
+        ItemStack input = handler.getSlot(0).getStack();
+        Item item = !input.isEmpty() ? input.getItem() : client.player.getMainHandStack().getItem();
+        if (new ItemStack(item).isEmpty()) {
+            BoosterClient.LOGGER.info("Nothing to balance: put an item in the furnace or hold it");
+            return;
+        }
+
+        int available = 0;
+        for (int i = 3; i < handler.slots.size(); i++) {
+            ItemStack stack = handler.getSlot(i).getStack();
+            if (stack.getItem() == item) {
+                available += stack.getCount();
+            }
+        }
+
+        Map<BlockPos, Integer> split = split(item, available, client.world.getTime());
+        pendingItems.clear();
+        pendingItems.putAll(split);
+        balancedItem = item;
+        BoosterClient.LOGGER.info("Split {} {} across {} furnaces: {}", available,
+            Registries.ITEM.getId(item), split.size(), split);
+
+        Integer share = pendingItems.remove(openPos);
+        if (share != null) {
+            fill(handler, openPos, share);
+        }
+    }
+
+    /**
+     * Gives each item to the furnace that would finish earliest with it, so all furnaces end up
+     * finishing at (nearly) the same time.
+     *
+     * @return Items per furnace, leaving out furnaces that get none
+     */
+    private Map<BlockPos, Integer> split(Item item, int available, long now) {
+        List<Share> shares = new ArrayList<>();
+        for (Map.Entry<BlockPos, ArrayFurnace> entry : furnaces.entrySet()) {
+            ArrayFurnace furnace = entry.getValue();
+            if (furnace.inputItem != null && furnace.inputItem != item) continue;
+            if (furnace.inputRoom <= 0) continue;
+            shares.add(new Share(entry.getKey(), furnace, furnace.getRemainingTicks(now)));
+        }
+        PriorityQueue<Share> queue = new PriorityQueue<>(shares);
+
+        for (int given = 0; given < available && !queue.isEmpty(); given++) {
+            Share share = queue.poll();
+            share.items++;
+            share.finishTicks += share.furnace.cookTimePerItem;
+            // A furnace with a full input slot leaves the heap
+            if (share.items < share.furnace.inputRoom) {
+                queue.add(share);
+            }
+        }
+
+        Map<BlockPos, Integer> split = new LinkedHashMap<>();
+        for (Share share : shares) {
+            if (share.items > 0) split.put(share.pos, share.items);
+        }
+        return split;
+    }
+
+    /**
+     * Loads a furnace's share of the input and exactly enough fuel to cook it.
+     * If the server state diverges while the clicks are sent, the fill is planned again
+     * towards the same input count.
+     */
+    private void fill(AbstractFurnaceScreenHandler handler, BlockPos pos, int items) {
+        int targetCount = handler.getSlot(0).getStack().getCount() + items;
+        ClickBatch batch = planFill(handler, targetCount);
+        if (batch == null) return;
+
+        if (balanceButton != null) {
+            batch.onProgress(balanceButton::updateProgress);
+        }
+        ClickScheduler.getInstance().submit(batch);
+    }
+
+    /**
+     * Plans the clicks that bring the input slot to the target count and add the fuel for it.
+     *
+     * @return The batch, or null if there is nothing to load
+     */
+    private ClickBatch planFill(AbstractFurnaceScreenHandler handler, int targetCount) {
+        ItemStack input = handler.getSlot(0).getStack();
+        if (!input.isEmpty() && input.getItem() != balancedItem) {
+            BoosterClient.LOGGER.info("Furnace is smelting something else, skipping it");
+            return null;
+        }
+
+        ClickBatch batch = new ClickBatch("furnace_array", handler);
+        int remaining = targetCount - input.getCount();
+        for (int i = 3; i < handler.slots.size() && remaining > 0; i++) {
+            ItemStack stack = handler.getSlot(i).getStack();
+            if (stack.getItem() != balancedItem) continue;
+            remaining -= batch.move(i, stack.getCount(), 0, remaining);
+        }
+
+        // Fuel for everything the furnace will cook, minus what it already has
+        SmartFuelModule smartFuel = ModuleManager.getInstance().getModule(SmartFuelModule.class);
+        if (smartFuel != null) {
+            int loaded = targetCount - remaining;
+            int fuelNeeded = FurnaceTimes.getCookTicks(handler, loaded)
+                - FurnaceTimes.getFuelTicks(handler);
+            smartFuel.addFuelClicks(batch, handler, fuelNeeded, balancedItem);
+        }
+
+        if (batch.isEmpty()) return null;
+        batch.onDesync(() -> planFill(handler, targetCount));
+        return batch;
+    }
+
+    /**
+     * Records the state of an open furnace.
+     */
+    private void observe(BlockPos pos, AbstractFurnaceScreenHandler handler) {
+        ClientWorld world = MinecraftClient.getInstance().world;
+        if (world == null) return;
+        if (world != furnacesWorld) {
+            // A new world or dimension starts a new array
+            furnaces.clear();
+            pendingItems.clear();
+            furnacesWorld = world;
+        }
+
+        ItemStack input = handler.getSlot(0).getStack();
+        ItemStack output = handler.getSlot(2).getStack();
+        int outputRoom = output.isEmpty() ? 64 : output.getMaxCount() - output.getCount();
+
+        ArrayFurnace furnace = furnaces.computeIfAbsent(pos.toImmutable(), p -> new ArrayFurnace());
+        furnace.cookTimePerItem = FurnaceTimes.getCookTimePerItem(handler);
+        furnace.queuedTicks = FurnaceTimes.getCookTicks(handler, input.getCount());
+        furnace.observedTick = world.getTime();
+        furnace.inputItem = input.isEmpty() ? null : input.getItem();
+        // Items the furnace can still take: limited by the input slot and by the output room
+        int inputRoom = input.isEmpty() ? 64 : input.getMaxCount() - input.getCount();
+        furnace.inputRoom = Math.min(inputRoom, outputRoom - input.getCount());
+    }
+
+    @Override
+    public Set<String> getWidgetIds() {
+        Set<String> ids = new HashSet<>();
+        ids.add(BALANCE_WIDGET_ID);
+        return ids;
+    }
+
+    @Override
+    protected void onDisable() {
+        balanceButton = null;
+        pendingItems.clear();
+    }
+
+    /**
+     * A furnace of the array, as last observed.
+     */
+    private static class ArrayFurnace {
+        int cookTimePerItem;
+        int queuedTicks;
+        long observedTick;
+        Item inputItem;
+        int inputRoom;
+
+        long getRemainingTicks(long now) {
+            return Math.max(0, queuedTicks - (now - observedTick));
+        }
+    }
+
+    /**
+     * A furnace's share while splitting, ordered by when the furnace would finish with it.
+     */
+    private static class Share implements Comparable<Share> {
+        final BlockPos pos;
+        final ArrayFurnace furnace;
+        long finishTicks;
+        int items;
+
+        Share(BlockPos pos, ArrayFurnace furnace, long finishTicks) {
+            this.pos = pos;
+            this.furnace = furnace;
+            this.finishTicks = finishTicks;
+        }
+
+        @Override
+        public int compareTo(Share other) {
+            // Give the next item to the furnace that finishes earliest after cooking it
+            return Long.compare(finishTicks + furnace.cookTimePerItem, other.finishTicks + other.furnace.cookTimePerItem);
+        }
+    }
+}
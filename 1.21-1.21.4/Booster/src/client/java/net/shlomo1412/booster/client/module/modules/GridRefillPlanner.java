@@ -0,0 +1,280 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.CraftingScreenHandler;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the clicks that refill a crafting grid to a saved pattern for {@link InfiniteCraftModule}.
+ * <p>
+ * Grid cells are grouped by the item they need. For each item, a source stack is picked up and
+ * placed whole into a cell that needs all of it, or spread in one drag gesture (QUICK_CRAFT)
+ * across the cells that can each take an even share. Source stacks come from one pass over the
+ * player inventory, indexed by item and taken largest first, so refilling N cells from full
+ * stacks costs about two clicks per cell, and splitting one stack across N cells about N + 2.
+ */
+final class GridRefillPlanner {
+
+    // CraftingScreenHandler slots: 0 = output, 1-9 = grid, 10-36 = main inventory, 37-45 = hotbar
+    private static final int GRID_START = 1;
+    private static final int INVENTORY_START = 10;
+    private static final int INVENTORY_END = 45;
+
+    /**
+     * A planned refill.
+     *
+     * @param batch    The clicks, possibly empty if the grid is already full
+     * @param complete Whether every cell of the pattern ends up with at least one item
+     */
+    record Refill(ClickBatch batch, boolean complete) {
+    }
+
+    private static final class Cell {
+        final int slotId;
+        final boolean full; // Filled to the stack limit, so a left-click can't overfill it
+        int count;
+        int need;
+
+        Cell(int slotId, int count, int need, boolean full) {
+            this.slotId = slotId;
+            this.full = full;
+            this.count = count;
+            this.need = need;
+        }
+    }
+
+    private record Source(int slotId, int count) {
+    }
+
+    private GridRefillPlanner() {
+    }
+
+    /**
+     * Plans the refill of the grid on the current slot contents.
+     *
+     * @param items  The item of each grid cell, null for empty cells
+     * @param counts The target count of each grid cell
+     */
+    static Refill plan(CraftingScreenHandler handler, Item[] items, int[] counts) {
+        ClickBatch batch = new ClickBatch("infinite_craft_refill", handler);
+
+        // Cells that are short, grouped by item
+        Map<Item, List<Cell>> cellsByItem = new LinkedHashMap<>();
+        List<Cell> allCells = new ArrayList<>();
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] == null || counts[i] == 0) continue;
+
+            ItemStack stack = handler.getSlot(GRID_START + i).getStack();
+            if (!stack.isEmpty() && stack.getItem() != items[i]) {
+                // Something else ended up in the grid, the pattern can't be restored
+                return new Refill(batch, false);
+            }
+            int limit = handler.getSlot(GRID_START + i).getMaxItemCount(new ItemStack(items[i]));
+            Cell cell = new Cell(GRID_START + i, stack.getCount(), counts[i] - stack.getCount(),
+                counts[i] >= limit);
+            allCells.add(cell);
+            if (cell.need > 0) {
+                cellsByItem.computeIfAbsent(items[i], item -> new ArrayList<>()).add(cell);
+            }
+        }
+
+        // Source stacks of the needed items, largest first
+        Map<Item, List<Source>> sourcesByItem = new HashMap<>();
+        for (int slotId = INVENTORY_START; slotId <= INVENTORY_END; slotId++) {
+            ItemStack stack = handler.getSlot(slotId).getStack();
+            if (!stack.isEmpty() && cellsByItem.containsKey(stack.getItem())) {
+                sourcesByItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>())
+                    .add(new Source(slotId, stack.getCount()));
+            }
+        }
+
+        for (Map.Entry<Item, List<Cell>> entry : cellsByItem.entrySet()) {
+            List<Source> sources = sourcesByItem.getOrDefault(entry.getKey(), List.of());
+            Deque<Source> queue = new ArrayDeque<>(sources.stream()
+                .sorted(Comparator.comparingInt(Source::count).reversed())
+                .toList());
+            int clicks = batch.size();
+            fillCells(batch, new ArrayList<>(entry.getValue()), queue);
+
+            // A pickup per stack, a placement per cell and a drag's start and end are expected;
+            // much more than that means the split logic fell back to placing single items
+            int stacks = sources.size() - queue.size();
+            int expected = stacks + entry.getValue().size() + 2;
+            if (batch.size() - clicks > expected) {
+                BoosterClient.LOGGER.debug("Refilling {} cells of {} took {} clicks, about {} expected",
+                    entry.getValue().size(), entry.getKey(), batch.size() - clicks, expected);
+            }
+        }
+
+        boolean complete = allCells.stream().allMatch(cell -> cell.count > 0);
+        return new Refill(batch, complete);
+    }
+
+    /**
+     * Adds the clicks filling the cells that need one item type.
+     * <p>
+     * With the open cells ordered by need, largest first, the cursor goes with a plain left-click
+     * into a cell that needs at least all of it, or into a cell filled to the stack limit, which
+     * takes exactly what it needs and leaves the rest on the cursor. Otherwise it is left-dragged over the most
+     * cells that can each take an even share, with the source slot taking a share back if that
+     * keeps the share within the needs. A lone cell is filled exactly by right-click halving on the
+     * source stack, and cells that need a single item get it with a right-drag.
+     */
+    private static void fillCells(ClickBatch batch, List<Cell> open, Deque<Source> sources) {
+        int cursor = 0;
+        int cursorSource = -1;
+        int sourceLeft = 0; // Items still in the cursor's source slot
+
+        while (!open.isEmpty()) {
+            open.sort(Comparator.comparingInt((Cell cell) -> cell.need).reversed());
+            Cell top = open.get(0);
+
+            if (cursor == 0) {
+                Source source = sourceLeft > 0 ? new Source(cursorSource, sourceLeft) : sources.poll();
+                if (source == null) break;
+                cursorSource = source.slotId();
+
+                if (open.size() == 1 && !top.full && top.need < source.count()) {
+                    // Move exactly what the last cell needs straight from the stack
+                    int moved = batch.move(cursorSource, source.count(), top.slotId, top.need);
+                    place(top, moved);
+                    sourceLeft = source.count() - moved;
+                    open.removeIf(cell -> cell.need <= 0);
+                    continue;
+                }
+
+                // Take only half the stack when that covers every open cell, so the share of a
+                // drag stays within the needs
+                int half = (source.count() + 1) / 2;
+                if (source.count() > 1 && half >= totalNeed(open)) {
+                    batch.pickupOne(cursorSource);
+                    cursor = half;
+                } else {
+                    batch.pickup(cursorSource);
+                    cursor = source.count();
+                }
+                sourceLeft = source.count() - cursor;
+            }
+
+            Cell clickTarget = top.need >= cursor ? top : getFullCell(open);
+            int spread;
+            if (clickTarget != null) {
+                // The whole cursor fits in one cell, or the stack limit stops the cell at its need
+                int placed = Math.min(cursor, clickTarget.need);
+                batch.pickup(clickTarget.slotId);
+                place(clickTarget, placed);
+                cursor -= placed;
+            } else if ((spread = getSpread(open, cursor, 0)) >= 2) {
+                // Split the cursor evenly across the cells, the remainder stays on the cursor
+                List<Cell> targets = open.subList(0, spread);
+                int each = cursor / spread;
+                batch.drag(slotIds(targets), false);
+                for (Cell cell : targets) {
+                    place(cell, each);
+                }
+                cursor -= each * spread;
+            } else if ((spread = getSpread(open, cursor, 1)) >= 2) {
+                // Same, with the source slot taking a share back
+                List<Cell> targets = open.subList(0, spread);
+                int each = cursor / (spread + 1);
+                List<Integer> slotIds = slotIds(targets);
+                slotIds.add(cursorSource);
+                batch.drag(slotIds, false);
+                for (Cell cell : targets) {
+                    place(cell, each);
+                }
+                sourceLeft += each;
+                cursor -= each * (spread + 1);
+            } else if ((sourceLeft + cursor + 1) / 2 < cursor) {
+                // Put the cursor back and pick up half the stack
+                int total = sourceLeft + cursor;
+                batch.pickup(cursorSource).pickupOne(cursorSource);
+                cursor = (total + 1) / 2;
+                sourceLeft = total - cursor;
+            } else if (open.size() == 1 || top.need > 1) {
+                // Put the cursor back and move exactly what the neediest cell needs
+                batch.pickup(cursorSource);
+                int moved = batch.move(cursorSource, sourceLeft + cursor, top.slotId, top.need);
+                place(top, moved);
+                sourceLeft += cursor - moved;
+                cursor = 0;
+            } else {
+                // Every cell needs one item: one into as many cells as the cursor allows
+                List<Cell> targets = open.subList(0, Math.min(open.size(), cursor));
+                batch.drag(slotIds(targets), true);
+                for (Cell cell : targets) {
+                    place(cell, 1);
+                }
+                cursor -= targets.size();
+            }
+
+            open.removeIf(cell -> cell.need <= 0);
+        }
+
+        // Put back whatever is still on the cursor
+        if (cursor > 0) {
+            batch.pickupIfHolding(cursorSource);
+        }
+    }
+
+    /**
+     * @return The cell filled to the stack limit with the largest need, or null if there is none
+     */
+    private static Cell getFullCell(List<Cell> open) {
+        for (Cell cell : open) {
+            if (cell.full) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the most cells, taken in order, that a left-drag of the cursor can split it across
+     * without overfilling any of them.
+     *
+     * @param open       The open cells, largest need first
+     * @param extraSlots Other slots in the drag that take a share too
+     * @return The number of cells, or 0 if the cursor can't be split over two of them
+     */
+    private static int getSpread(List<Cell> open, int cursor, int extraSlots) {
+        for (int cells = Math.min(open.size(), cursor - extraSlots); cells >= 2; cells--) {
+            if (open.get(cells - 1).need >= cursor / (cells + extraSlots)) {
+                return cells;
+            }
+        }
+        return 0;
+    }
+
+    private static int totalNeed(List<Cell> cells) {
+        int total = 0;
+        for (Cell cell : cells) {
+            total += cell.need;
+        }
+        return total;
+    }
+
+    private static void place(Cell cell, int count) {
+        cell.count += count;
+        cell.need -= count;
+    }
+
+    private static List<Integer> slotIds(List<Cell> cells) {
+        List<Integer> slotIds = new ArrayList<>(cells.size());
+        for (Cell cell : cells) {
+            slotIds.add(cell.slotId);
+        }
+        return slotIds;
+    }
+}
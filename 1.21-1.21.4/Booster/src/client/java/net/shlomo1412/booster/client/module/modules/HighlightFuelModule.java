@@ -1,13 +1,14 @@
 package net.shlomo1412.booster.client.module.modules;
 
-import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.ingame.AbstractFurnaceScreen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.item.ItemStack;
 import net.minecraft.screen.AbstractFurnaceScreenHandler;
 import net.minecraft.screen.slot.Slot;
+import net.shlomo1412.booster.client.inventory.InventoryTracker;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
+import net.shlomo1412.booster.client.render.SlotOverlayRenderer;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -26,6 +27,10 @@ public class HighlightFuelModule extends GUIModule {
     
     // Set of slot indices that contain fuel items (for rendering)
     private final Set<Integer> fuelSlots = new HashSet<>();
+    private AbstractFurnaceScreenHandler scannedHandler;
+    private int scannedVersion;
+    
+    private final SlotOverlayRenderer.Layer overlayLayer = SlotOverlayRenderer.getInstance().createLayer();
     
     public HighlightFuelModule() {
         super(
@@ -82,6 +87,15 @@ public class HighlightFuelModule extends GUIModule {
      * Should be called when the screen opens and when inventory changes.
      */
     public void updateFuelSlots(AbstractFurnaceScreenHandler handler) {
+        // Skip the scan until the inventory tracker sees the slots change
+        InventoryTracker tracker = InventoryTracker.getInstance();
+        if (handler == scannedHandler && tracker.getTrackedHandler() == handler
+                && tracker.getHandlerVersion() == scannedVersion) {
+            return;
+        }
+        scannedHandler = handler;
+        scannedVersion = tracker.getHandlerVersion();
+        
         fuelSlots.clear();
         
         // Player inventory starts at slot 3 in furnace screen
@@ -144,40 +158,40 @@ public class HighlightFuelModule extends GUIModule {
      */
     public void clearFuelSlots() {
         fuelSlots.clear();
+        scannedHandler = null;
     }
     
     /**
-     * Renders highlights on all fuel slots.
+     * Adds highlights for all fuel slots to the batched slot overlay renderer.
      * Should be called from the mixin's render method.
      */
-    public void renderHighlights(DrawContext context, AbstractFurnaceScreenHandler handler, int screenX, int screenY) {
+    public void renderHighlights(AbstractFurnaceScreenHandler handler, int screenX, int screenY) {
         if (!isEnabled() || fuelSlots.isEmpty()) {
             return;
         }
         
+        boolean showOverlay = shouldShowOverlay();
+        boolean showBorder = shouldShowBorder();
+        int overlayColor = getOverlayColor();
+        int borderColor = getHighlightColor();
+        
+        overlayLayer.begin();
         for (int slotIndex : fuelSlots) {
             Slot slot = handler.getSlot(slotIndex);
             int slotX = screenX + slot.x;
             int slotY = screenY + slot.y;
             
             // Render overlay if enabled
-            if (shouldShowOverlay()) {
-                context.fill(slotX, slotY, slotX + 16, slotY + 16, getOverlayColor());
+            if (showOverlay) {
+                overlayLayer.fill(slotX, slotY, slotX + 16, slotY + 16, overlayColor);
             }
             
-            // Render border if enabled
-            if (shouldShowBorder()) {
-                int borderColor = getHighlightColor();
-                // Top border
-                context.fill(slotX - 1, slotY - 1, slotX + 17, slotY, borderColor);
-                // Bottom border
-                context.fill(slotX - 1, slotY + 16, slotX + 17, slotY + 17, borderColor);
-                // Left border
-                context.fill(slotX - 1, slotY, slotX, slotY + 16, borderColor);
-                // Right border
-                context.fill(slotX + 16, slotY, slotX + 17, slotY + 16, borderColor);
+            // Render border around the slot if enabled
+            if (showBorder) {
+                overlayLayer.outline(slotX - 1, slotY - 1, slotX + 17, slotY + 17, borderColor);
             }
         }
+        overlayLayer.end();
     }
     
     @Override
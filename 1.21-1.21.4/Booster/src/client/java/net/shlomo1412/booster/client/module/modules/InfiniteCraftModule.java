@@ -1,19 +1,26 @@
 package net.shlomo1412.booster.client.module.modules;
 
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.screen.CraftingScreenHandler;
 import net.minecraft.screen.slot.Slot;
-import net.minecraft.screen.slot.SlotActionType;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterButton;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
 import java.util.function.Consumer;
 
 /**
@@ -22,9 +29,17 @@ import java.util.function.Consumer;
  * 
  * Process:
  * 1. Detect the current crafting grid pattern (items in slots 1-9)
- * 2. Craft the output (shift-click slot 0)
- * 3. Refill the grid with the same materials from player inventory
+ * 2. Craft the output (shift-click slot 0), and count the crafts once the server has answered
+ * 3. Refill the grid with the same materials from player inventory, spreading each picked up
+ *    stack across all cells that need it with one drag (see {@link GridRefillPlanner})
  * 4. Repeat until materials run out
+ * 
+ * It also runs the steps of a {@link CraftingPlanner} plan for {@link BatchCraftModule}: each
+ * step lays out its pattern with as many items per cell as one shift-click can use, and crafts
+ * until the step's count is reached before moving on to the next step.
+ * 
+ * Throughput is measured by {@link CraftMetrics}: crafts per minute, clicks per craft, time per
+ * state and stall causes can be shown next to the grid, and each session is summarized in the log.
  */
 public class InfiniteCraftModule extends GUIModule {
     
@@ -35,12 +50,15 @@ public class InfiniteCraftModule extends GUIModule {
         IDLE,           // Not crafting
         SAVING_PATTERN, // About to save the grid pattern
         CRAFTING,       // Performing the craft (shift-click output)
+        CONFIRMING,     // Waiting for the server to answer the craft
         REFILLING,      // Refilling the grid with materials
-        WAITING         // Waiting between operations
+        WAITING,        // Waiting between operations
+        NEXT_STEP       // Laying out the next step of a batch plan
     }
     
     // Settings
     private final ModuleSetting.NumberSetting delaySetting;
+    private final ModuleSetting.BooleanSetting showMetricsSetting;
     
     private BoosterButton infiniteButton;
     private CraftState craftState = CraftState.IDLE;
@@ -50,8 +68,17 @@ public class InfiniteCraftModule extends GUIModule {
     // Slots 1-9 in CraftingScreenHandler are the 3x3 grid
     private Item[] savedPatternItems = new Item[9];
     private int[] savedPatternCounts = new int[9];
-    private int currentRefillSlot = 0;  // Which grid slot we're currently refilling (0-8)
-    private int currentRefillCount = 0; // How many more items needed for current slot
+    private ClickBatch pendingBatch;    // Clicks of the current step, still being sent
+    
+    // Batch plan: the remaining steps, and the crafts left in the current one (-1 = no plan)
+    private final Deque<CraftingPlanner.Step> planSteps = new ArrayDeque<>();
+    private int craftsRemaining = -1;
+    private int cycleCrafts = 0;        // Crafts the grid held before the current cycle's craft
+    
+    // Throughput metrics, and their text lines refreshed a few times per second
+    private final CraftMetrics<CraftState> metrics = new CraftMetrics<>(CraftState.class);
+    private final List<String> metricLines = new ArrayList<>();
+    private long metricLinesTime = 0;
     
     public InfiniteCraftModule() {
         super(
@@ -75,7 +102,15 @@ public class InfiniteCraftModule extends GUIModule {
             20  // Max
         );
         
+        this.showMetricsSetting = new ModuleSetting.BooleanSetting(
+            "show_metrics",
+            "Show Metrics",
+            "Show crafts per minute, clicks per craft, time per state and stalls next to the grid",
+            false
+        );
+        
         registerSetting(delaySetting);
+        registerSetting(showMetricsSetting);
     }
     
     /**
@@ -124,6 +159,7 @@ public class InfiniteCraftModule extends GUIModule {
             // Start crafting - first save the pattern
             craftState = CraftState.SAVING_PATTERN;
             tickDelay = 0;
+            metrics.start(delaySetting.getValue());
         } else {
             // Stop crafting
             stopCrafting();
@@ -151,6 +187,7 @@ public class InfiniteCraftModule extends GUIModule {
         if (craftState == CraftState.IDLE || !isEnabled()) {
             return;
         }
+        metrics.trackState(craftState);
         
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.player == null || client.interactionManager == null) {
@@ -163,6 +200,18 @@ public class InfiniteCraftModule extends GUIModule {
             return;
         }
         
+        // Wait until the clicks of the previous step have been sent
+        if (pendingBatch != null) {
+            if (pendingBatch.getState() == ClickBatch.State.CANCELLED) {
+                stall(CraftMetrics.Stall.CANCELLED);
+                return;
+            }
+            if (!pendingBatch.isFinished()) {
+                return;
+            }
+            pendingBatch = null;
+        }
+        
         // Apply delay between operations
         if (tickDelay > 0) {
             tickDelay--;
@@ -174,7 +223,7 @@ public class InfiniteCraftModule extends GUIModule {
                 saveGridPattern(craftingHandler);
                 // Check if there's actually a recipe
                 if (!craftingHandler.getSlot(0).hasStack()) {
-                    stopCrafting();
+                    stall(CraftMetrics.Stall.NO_RECIPE);
                     return;
                 }
                 craftState = CraftState.CRAFTING;
@@ -186,58 +235,66 @@ public class InfiniteCraftModule extends GUIModule {
                 Slot outputSlot = craftingHandler.getSlot(0);
                 if (!outputSlot.hasStack()) {
                     // No recipe result - stop crafting
-                    stopCrafting();
+                    stall(CraftMetrics.Stall.NO_RECIPE);
                     return;
                 }
                 
                 // Check if player inventory has space
                 if (!hasInventorySpace(client, outputSlot.getStack())) {
-                    stopCrafting();
+                    stall(CraftMetrics.Stall.INVENTORY_FULL);
                     return;
                 }
                 
+                cycleCrafts = getGridCrafts(craftingHandler);
+                
                 // Perform the craft (shift-click output slot)
-                client.interactionManager.clickSlot(
-                    craftingHandler.syncId,
-                    0,  // Output slot
-                    0,
-                    SlotActionType.QUICK_MOVE,
-                    client.player
+                pendingBatch = submit(
+                    new ClickBatch("infinite_craft", craftingHandler).quickMove(0)  // Output slot
                 );
                 
-                // Now transition to refilling
+                // Now wait for the server before refilling
+                craftState = CraftState.CONFIRMING;
+            }
+            
+            case CONFIRMING -> {
+                // The client only predicts one craft of a shift-click on the output, so the grid
+                // shows what was crafted once the server has answered the click
+                if (!ClickScheduler.getInstance().isSettled()) {
+                    return;
+                }
+                int crafted = Math.max(cycleCrafts - getGridCrafts(craftingHandler), 0);
+                metrics.recordCycle(crafted);
+                cycleCrafts = 0;
+                if (craftsRemaining >= 0) {
+                    if (crafted == 0) {
+                        // Nothing was crafted, e.g. the inventory is full
+                        stall(CraftMetrics.Stall.INVENTORY_FULL);
+                        return;
+                    }
+                    craftsRemaining -= crafted;
+                }
                 craftState = CraftState.REFILLING;
-                currentRefillSlot = 0;
-                tickDelay = 1;
             }
             
             case REFILLING -> {
-                // Refill slots with the saved amounts
-                RefillResult result = refillNextSlot(client, craftingHandler);
+                if (craftsRemaining >= 0 && !preparePlanCycle()) {
+                    return;
+                }
                 
-                switch (result) {
-                    case DONE_WITH_SLOT -> {
-                        // Move to next slot
-                        currentRefillSlot++;
-                        currentRefillCount = 0;
-                        if (currentRefillSlot >= 9) {
-                            // All slots refilled - back to crafting
-                            craftState = CraftState.WAITING;
-                            tickDelay = delaySetting.getValue();
-                        } else {
-                            tickDelay = 1;
-                        }
-                    }
-                    case NEED_MORE -> {
-                        // Need more items for this slot, continue
-                        tickDelay = 1;
-                    }
-                    case FAILED -> {
-                        // Couldn't find more materials - stop crafting
-                        stopCrafting();
-                        return;
-                    }
+                // Refill all slots with the saved amounts in one batch
+                GridRefillPlanner.Refill refill = planRefill(craftingHandler);
+                if (!refill.complete()) {
+                    // Couldn't find more materials - stop crafting
+                    stall(CraftMetrics.Stall.MISSING_ITEMS);
+                    return;
+                }
+                if (!refill.batch().isEmpty()) {
+                    pendingBatch = submit(refill.batch());
                 }
+                
+                // Back to crafting after the delay
+                craftState = CraftState.WAITING;
+                tickDelay = delaySetting.getValue();
             }
             
             case WAITING -> {
@@ -245,14 +302,91 @@ public class InfiniteCraftModule extends GUIModule {
                 if (craftingHandler.getSlot(0).hasStack()) {
                     craftState = CraftState.CRAFTING;
                 } else {
-                    stopCrafting();
+                    stall(CraftMetrics.Stall.NO_RECIPE);
                 }
             }
             
+            case NEXT_STEP -> startNextStep(craftingHandler);
+            
             default -> stopCrafting();
         }
     }
     
+    /**
+     * Runs the steps of a batch crafting plan, replacing whatever is being crafted.
+     * Requires the module to be enabled, since its tick performs the steps.
+     */
+    void runPlan(List<CraftingPlanner.Step> steps) {
+        stopCrafting();
+        planSteps.addAll(steps);
+        craftState = CraftState.NEXT_STEP;
+        metrics.start(delaySetting.getValue());
+        updateButtonAppearance();
+    }
+    
+    /**
+     * Clears foreign items out of the grid and saves the pattern of the next plan step.
+     */
+    private void startNextStep(CraftingScreenHandler handler) {
+        CraftingPlanner.Step step = planSteps.poll();
+        if (step == null) {
+            stopCrafting();
+            return;
+        }
+        
+        ClickBatch batch = new ClickBatch("infinite_craft_clear", handler);
+        for (int i = 0; i < 9; i++) {
+            ItemStack stack = handler.getSlot(i + 1).getStack();
+            if (!stack.isEmpty() && stack.getItem() != step.pattern()[i]) {
+                batch.quickMove(i + 1);
+            }
+        }
+        if (!batch.isEmpty()) {
+            pendingBatch = submit(batch);
+        }
+        
+        savedPatternItems = step.pattern().clone();
+        craftsRemaining = step.crafts();
+        cycleCrafts = 0;
+        craftState = CraftState.REFILLING;
+    }
+    
+    /**
+     * Sizes the pattern for the next cycle of the current plan step.
+     *
+     * @return Whether the grid should be refilled for the current step
+     */
+    private boolean preparePlanCycle() {
+        if (craftsRemaining <= 0) {
+            craftState = CraftState.NEXT_STEP;
+            return false;
+        }
+        
+        // As many crafts as one shift-click can do, limited by the smallest stack size in the pattern
+        int crafts = craftsRemaining;
+        for (Item item : savedPatternItems) {
+            if (item != null) crafts = Math.min(crafts, item.getMaxCount());
+        }
+        for (int i = 0; i < 9; i++) {
+            savedPatternCounts[i] = savedPatternItems[i] != null ? crafts : 0;
+        }
+        return true;
+    }
+    
+    /**
+     * Gets how many crafts the grid holds for the saved pattern. Every craft takes one item from
+     * each cell, so this is the smallest count among the pattern's cells.
+     */
+    private int getGridCrafts(CraftingScreenHandler handler) {
+        int crafts = Integer.MAX_VALUE;
+        for (int i = 0; i < 9; i++) {
+            if (savedPatternItems[i] == null) continue;
+            ItemStack stack = handler.getSlot(i + 1).getStack();
+            crafts = Math.min(crafts, stack.getItem() == savedPatternItems[i] ? stack.getCount() : 0);
+        }
+        return crafts == Integer.MAX_VALUE ? 0 : crafts;
+    }
+    
     /**
      * Saves the current crafting grid pattern.
      * Stores which item type and count is in each slot (1-9).
@@ -270,109 +404,67 @@ public class InfiniteCraftModule extends GUIModule {
         }
     }
     
-    private enum RefillResult {
-        DONE_WITH_SLOT,  // Slot has reached target count (or was empty)
-        NEED_MORE,       // Need more items in this slot
-        FAILED           // Couldn't find more materials
+    /**
+     * Plans the refill of the grid to the saved pattern.
+     * If the server state diverges while the clicks are sent, the refill is planned again.
+     */
+    private GridRefillPlanner.Refill planRefill(CraftingScreenHandler handler) {
+        GridRefillPlanner.Refill refill = GridRefillPlanner.plan(handler, savedPatternItems, savedPatternCounts);
+        refill.batch().onDesync(() -> {
+            GridRefillPlanner.Refill replanned = planRefill(handler);
+            if (!replanned.complete() || replanned.batch().isEmpty()) {
+                return null;
+            }
+            metrics.addClicks(replanned.batch().size());
+            return replanned.batch();
+        });
+        return refill;
     }
     
     /**
-     * Attempts to refill the current slot to its target count.
-     * @return RefillResult indicating progress
+     * Submits clicks, counting them for the metrics.
      */
-    private RefillResult refillNextSlot(MinecraftClient client, CraftingScreenHandler handler) {
-        // Get the item and count that should be in this slot
-        Item neededItem = savedPatternItems[currentRefillSlot];
-        int targetCount = savedPatternCounts[currentRefillSlot];
-        
-        // If no item needed in this slot, skip it
-        if (neededItem == null || targetCount == 0) {
-            return RefillResult.DONE_WITH_SLOT;
-        }
-        
-        // Check current count in slot
-        Slot gridSlot = handler.getSlot(currentRefillSlot + 1);  // Slots 1-9
-        int currentCount = 0;
-        if (gridSlot.hasStack() && gridSlot.getStack().getItem() == neededItem) {
-            currentCount = gridSlot.getStack().getCount();
-        }
-        
-        // Check if we've reached the target count
-        if (currentCount >= targetCount) {
-            return RefillResult.DONE_WITH_SLOT;
+    private ClickBatch submit(ClickBatch batch) {
+        metrics.addClicks(batch.size());
+        return ClickScheduler.getInstance().submit(batch);
+    }
+    
+    /**
+     * Stops crafting, recording why.
+     */
+    private void stall(CraftMetrics.Stall cause) {
+        metrics.recordStall(cause);
+        stopCrafting();
+    }
+    
+    /**
+     * Renders the throughput metrics, if enabled.
+     * This should be called from the mixin's render method.
+     *
+     * @param anchorX The anchor X position (right edge of crafting GUI)
+     * @param anchorY The anchor Y position (top of crafting GUI)
+     */
+    public void renderMetrics(DrawContext context, int anchorX, int anchorY) {
+        if (!showMetricsSetting.getValue() || !metrics.hasData()) {
+            return;
         }
         
-        int neededCount = targetCount - currentCount;
-        
-        // Find the item in player inventory and move it to the crafting grid
-        // Player inventory slots in CraftingScreenHandler: 10-36 (main inventory) and 37-45 (hotbar)
-        for (int invSlot = 10; invSlot <= 45; invSlot++) {
-            Slot slot = handler.getSlot(invSlot);
-            if (slot.hasStack() && slot.getStack().getItem() == neededItem) {
-                int availableCount = slot.getStack().getCount();
-                int transferCount = Math.min(neededCount, availableCount);
-                
-                // Pick up the stack from inventory
-                client.interactionManager.clickSlot(
-                    handler.syncId,
-                    invSlot,
-                    0,
-                    SlotActionType.PICKUP,
-                    client.player
-                );
-                
-                // Place items in the grid slot
-                if (transferCount == availableCount) {
-                    // Place all (left-click)
-                    client.interactionManager.clickSlot(
-                        handler.syncId,
-                        currentRefillSlot + 1,
-                        0,
-                        SlotActionType.PICKUP,
-                        client.player
-                    );
-                } else {
-                    // Place one at a time using right-click
-                    for (int i = 0; i < transferCount; i++) {
-                        client.interactionManager.clickSlot(
-                            handler.syncId,
-                            currentRefillSlot + 1,
-                            1,  // Right-click to place one
-                            SlotActionType.PICKUP,
-                            client.player
-                        );
-                    }
-                    
-                    // Put remaining items back
-                    if (client.player.currentScreenHandler.getCursorStack() != null && 
-                        !client.player.currentScreenHandler.getCursorStack().isEmpty()) {
-                        client.interactionManager.clickSlot(
-                            handler.syncId,
-                            invSlot,
-                            0,
-                            SlotActionType.PICKUP,
-                            client.player
-                        );
-                    }
-                }
-                
-                // Check if we reached the target
-                currentCount += transferCount;
-                if (currentCount >= targetCount) {
-                    return RefillResult.DONE_WITH_SLOT;
-                } else {
-                    return RefillResult.NEED_MORE;
-                }
-            }
+        long now = System.currentTimeMillis();
+        if (now - metricLinesTime >= 500) {
+            metricLinesTime = now;
+            metricLines.clear();
+            metricLines.add(String.format(Locale.ROOT, "%.1f crafts/min", metrics.getCraftsPerMinute()));
+            metricLines.add(metrics.getClicksPerCraft() + " clicks/craft");
+            metricLines.addAll(metrics.formatStateTicks());
+            metricLines.add("Stalls: " + String.join(", ", metrics.formatStalls()));
         }
         
-        // Couldn't find any more of this item - but we might have partial fill
-        // If we have at least 1 item, consider it done (craft with what we have)
-        if (currentCount > 0) {
-            return RefillResult.DONE_WITH_SLOT;
+        MinecraftClient client = MinecraftClient.getInstance();
+        int lineY = anchorY + 66;  // Below the Batch Craft field
+        for (String line : metricLines) {
+            context.drawTextWithShadow(client.textRenderer, line, anchorX + 4, lineY, 0xAAAAAA);
+            lineY += client.textRenderer.fontHeight + 1;
         }
-        
-        return RefillResult.FAILED;
     }
     
     /**
@@ -406,12 +498,18 @@ public class InfiniteCraftModule extends GUIModule {
      * Stops the infinite crafting process.
      */
     public void stopCrafting() {
+        metrics.finish();
         craftState = CraftState.IDLE;
         tickDelay = 0;
-        currentRefillSlot = 0;
-        currentRefillCount = 0;
+        if (pendingBatch != null) {
+            pendingBatch.cancel();
+            pendingBatch = null;
+        }
         savedPatternItems = new Item[9];
         savedPatternCounts = new int[9];
+        planSteps.clear();
+        craftsRemaining = -1;
+        cycleCrafts = 0;
         updateButtonAppearance();
     }
     
@@ -2,13 +2,19 @@ package net.shlomo1412.booster.client.module.modules;
 
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
-import net.minecraft.entity.player.PlayerInventory;
-import net.minecraft.screen.slot.Slot;
+import net.minecraft.item.Item;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.shlomo1412.booster.client.inventory.ContainerFillStats;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterProgressBar;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Module that shows a progress bar indicating how full the container is.
  * Supports customizable fill direction, fill color, and background color.
@@ -17,6 +23,9 @@ public class InventoryProgressModule extends GUIModule {
     
     public static final String PROGRESS_WIDGET_ID = "progressbar";
     
+    // Item types listed in the tooltip
+    private static final int TOOLTIP_ITEMS = 5;
+    
     /**
      * Direction in which the progress bar fills.
      */
@@ -42,8 +51,32 @@ public class InventoryProgressModule extends GUIModule {
         }
     }
     
+    /**
+     * What the progress bar measures.
+     */
+    public enum FillMetric {
+        SLOTS("Slots"),   // Fraction of occupied slots
+        ITEMS("Items");   // Fraction of the item capacity, counting partial stacks
+        
+        private final String displayName;
+        
+        FillMetric(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
     // Module settings
     private final ModuleSetting.EnumSetting<FillDirection> fillDirection;
+    private final ModuleSetting.EnumSetting<FillMetric> fillMetric;
     private final ModuleSetting.ColorSetting fillColor;
     private final ModuleSetting.ColorSetting backgroundColor;
     
@@ -72,6 +105,14 @@ public class InventoryProgressModule extends GUIModule {
             FillDirection.class
         );
         
+        this.fillMetric = new ModuleSetting.EnumSetting<>(
+            "fill_metric",
+            "Fill Metric",
+            "Count occupied slots, or items relative to their max stack size",
+            FillMetric.SLOTS,
+            FillMetric.class
+        );
+        
         this.fillColor = new ModuleSetting.ColorSetting(
             "fill_color",
             "Fill Color",
@@ -88,6 +129,7 @@ public class InventoryProgressModule extends GUIModule {
         
         // Register settings
         registerSetting(fillDirection);
+        registerSetting(fillMetric);
         registerSetting(fillColor);
         registerSetting(backgroundColor);
     }
@@ -150,32 +192,26 @@ public class InventoryProgressModule extends GUIModule {
     }
     
     /**
-     * Calculates the fill percentage of the container (0.0 to 1.0).
+     * Calculates the fill percentage of the container (0.0 to 1.0), using the selected fill metric.
      */
     public float calculateFillPercentage() {
         if (currentScreen == null) {
             return 0f;
         }
         
-        var handler = currentScreen.getScreenHandler();
-        int totalSlots = 0;
-        int filledSlots = 0;
-        
-        for (Slot slot : handler.slots) {
-            // Only count container slots, not player inventory
-            if (!(slot.inventory instanceof PlayerInventory)) {
-                totalSlots++;
-                if (slot.hasStack()) {
-                    filledSlots++;
-                }
-            }
-        }
-        
-        if (totalSlots == 0) {
-            return 0f;
+        ContainerFillStats stats = getFillStats();
+        return fillMetric.getValue() == FillMetric.ITEMS ? stats.getItemFill() : stats.getSlotFill();
+    }
+    
+    /**
+     * Gets the fill statistics of the current container.
+     * They are cached and only recomputed after the container's slots changed.
+     */
+    public ContainerFillStats getFillStats() {
+        if (currentScreen == null) {
+            return ContainerFillStats.EMPTY;
         }
-        
-        return (float) filledSlots / totalSlots;
+        return ContainerFillStats.of(currentScreen.getScreenHandler());
     }
     
     /**
@@ -258,20 +294,28 @@ public class InventoryProgressModule extends GUIModule {
             return "N/A";
         }
         
-        var handler = currentScreen.getScreenHandler();
-        int totalSlots = 0;
-        int filledSlots = 0;
-        
-        for (Slot slot : handler.slots) {
-            if (!(slot.inventory instanceof PlayerInventory)) {
-                totalSlots++;
-                if (slot.hasStack()) {
-                    filledSlots++;
-                }
-            }
+        ContainerFillStats stats = getFillStats();
+        return stats.getFilledSlots() + "/" + stats.getTotalSlots() + " (" + (int)(calculateFillPercentage() * 100) + "%), "
+                + stats.getFreeSlots() + " slots and " + stats.getRemainingCapacity() + " items free";
+    }
+    
+    /**
+     * Gets the tooltip of the progress bar: the fullness info and the most common item types.
+     */
+    public List<Text> getTooltipLines() {
+        List<Text> lines = new ArrayList<>();
+        lines.add(Text.literal(getFullnessInfo()));
+        
+        List<Map.Entry<Item, Integer>> items = new ArrayList<>(getFillStats().getItemCounts().entrySet());
+        items.sort(Map.Entry.<Item, Integer>comparingByValue().reversed());
+        for (int i = 0; i < Math.min(TOOLTIP_ITEMS, items.size()); i++) {
+            Map.Entry<Item, Integer> entry = items.get(i);
+            lines.add(Text.literal(entry.getValue() + "x ").append(entry.getKey().getName()).formatted(Formatting.GRAY));
         }
-        
-        return filledSlots + "/" + totalSlots + " (" + (int)(calculateFillPercentage() * 100) + "%)";
+        if (items.size() > TOOLTIP_ITEMS) {
+            lines.add(Text.literal("+" + (items.size() - TOOLTIP_ITEMS) + " more types").formatted(Formatting.DARK_GRAY));
+        }
+        return lines;
     }
     
     // Getters for settings
@@ -279,6 +323,10 @@ public class InventoryProgressModule extends GUIModule {
         return fillDirection;
     }
     
+    public ModuleSetting.EnumSetting<FillMetric> getFillMetricSetting() {
+        return fillMetric;
+    }
+    
     public ModuleSetting.ColorSetting getFillColorSetting() {
         return fillColor;
     }
@@ -5,6 +5,9 @@ import net.minecraft.client.network.ClientPlayerEntity;
 import net.shlomo1412.booster.client.module.AlertModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Module that alerts the player when their air (oxygen) is low while underwater.
  * Fully customizable with threshold, message type, color, format, sound, and cooldown.
@@ -54,6 +57,16 @@ public class LowAirAlertModule extends AlertModule {
         registerSetting(showExactAirSetting);
     }
     
+    @Override
+    protected Set<AlertInput> getInputs() {
+        return EnumSet.of(AlertInput.AIR);
+    }
+    
+    @Override
+    protected int getPollInterval() {
+        return 2;
+    }
+    
     @Override
     protected void checkAndAlert(MinecraftClient client) {
         ClientPlayerEntity player = client.player;
@@ -4,9 +4,13 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.item.ItemStack;
+import net.shlomo1412.booster.client.inventory.InventoryTracker;
 import net.shlomo1412.booster.client.module.AlertModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Module that alerts the player when their held item's durability is low.
  * Fully customizable with threshold, message type, color, format, sound, and cooldown.
@@ -23,6 +27,10 @@ public class LowDurabilityAlertModule extends AlertModule {
     private int lastWarnedMainHandDurability = -1;
     private int lastWarnedOffHandDurability = -1;
     
+    // Inventory version of the last check, and whether an alert was held back by the cooldown
+    private int checkedVersion = -1;
+    private boolean alertPending = false;
+    
     public LowDurabilityAlertModule() {
         super(
             "low_durability_alert",
@@ -65,11 +73,27 @@ public class LowDurabilityAlertModule extends AlertModule {
         registerSetting(checkOffhandSetting);
     }
     
+    @Override
+    protected Set<AlertInput> getInputs() {
+        return EnumSet.of(AlertInput.HELD_ITEM);
+    }
+    
+    @Override
+    protected int getPollInterval() {
+        return 5;
+    }
+    
     @Override
     protected void checkAndAlert(MinecraftClient client) {
         ClientPlayerEntity player = client.player;
         if (player == null) return;
         
+        // Hands only need checking again after the inventory or selected slot changed
+        int version = InventoryTracker.getInstance().getPlayerVersion();
+        if (version == checkedVersion && !alertPending) return;
+        checkedVersion = version;
+        alertPending = false;
+        
         // Check main hand
         ItemStack mainHand = player.getMainHandStack();
         checkItemDurability(mainHand, "Main Hand", true);
@@ -120,7 +144,9 @@ public class LowDurabilityAlertModule extends AlertModule {
             boolean isNewWarning = !ItemStack.areItemsEqual(stack, lastWarned) || 
                                    currentDurability < lastDurability;
             
-            if (isNewWarning && canAlert()) {
+            if (isNewWarning && !canAlert()) {
+                alertPending = true;
+            } else if (isNewWarning) {
                 // Update tracking
                 if (isMainHand) {
                     lastWarnedMainHand = stack.copy();
@@ -157,5 +183,7 @@ public class LowDurabilityAlertModule extends AlertModule {
         lastWarnedOffHand = ItemStack.EMPTY;
         lastWarnedMainHandDurability = -1;
         lastWarnedOffHandDurability = -1;
+        checkedVersion = -1;
+        alertPending = false;
     }
 }
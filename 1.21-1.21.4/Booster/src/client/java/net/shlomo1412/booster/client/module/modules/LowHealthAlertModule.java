@@ -5,6 +5,9 @@ import net.minecraft.client.network.ClientPlayerEntity;
 import net.shlomo1412.booster.client.module.AlertModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Module that alerts the player when their health is low.
  * Fully customizable with threshold, message type, color, format, sound, and cooldown.
@@ -51,6 +54,16 @@ public class LowHealthAlertModule extends AlertModule {
         registerSetting(showExactHealthSetting);
     }
     
+    @Override
+    protected Set<AlertInput> getInputs() {
+        return EnumSet.of(AlertInput.HEALTH);
+    }
+    
+    @Override
+    protected int getPollInterval() {
+        return 1;
+    }
+    
     @Override
     protected void checkAndAlert(MinecraftClient client) {
         ClientPlayerEntity player = client.player;
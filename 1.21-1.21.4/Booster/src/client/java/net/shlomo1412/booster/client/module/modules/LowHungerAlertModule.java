@@ -6,6 +6,9 @@ import net.minecraft.entity.player.HungerManager;
 import net.shlomo1412.booster.client.module.AlertModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Module that alerts the player when their hunger is low.
  * Fully customizable with threshold, message type, color, format, sound, and cooldown.
@@ -62,6 +65,16 @@ public class LowHungerAlertModule extends AlertModule {
         registerSetting(alertOnSaturationSetting);
     }
     
+    @Override
+    protected Set<AlertInput> getInputs() {
+        return EnumSet.of(AlertInput.HUNGER);
+    }
+    
+    @Override
+    protected int getPollInterval() {
+        return 10;
+    }
+    
     @Override
     protected void checkAndAlert(MinecraftClient client) {
         ClientPlayerEntity player = client.player;
@@ -0,0 +1,163 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds whole-word mentions of any number of keywords in chat messages for
+ * {@link MentionedInChatAlertModule}.
+ * <p>
+ * The keywords are compiled once into an Aho-Corasick automaton: a trie of the keywords where
+ * each node also links to the longest proper suffix that is in the trie, so a message is scanned
+ * in a single pass whatever the number of keywords. Matches must stand as whole words: a keyword
+ * edge that is a word character may not touch another word character in the message.
+ */
+final class MentionMatcher {
+
+    private final boolean caseSensitive;
+
+    // Per trie node: children, fail link, keyword length ending here (0 if none) and the
+    // nearest node on the fail chain that ends a keyword (-1 if none)
+    private final List<Map<Character, Integer>> children = new ArrayList<>();
+    private final List<Integer> keywordLengths = new ArrayList<>();
+    private int[] fail;
+    private int[] outputLink;
+
+    /**
+     * A match in a message.
+     *
+     * @param start Index of the first character
+     * @param end   Index after the last character
+     */
+    record Match(int start, int end) {
+    }
+
+    /**
+     * Compiles the keywords. Blank keywords are ignored.
+     */
+    MentionMatcher(Collection<String> keywords, boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        addNode();
+        for (String keyword : keywords) {
+            if (!keyword.isBlank()) {
+                insert(keyword);
+            }
+        }
+        buildLinks();
+    }
+
+    private int addNode() {
+        children.add(new HashMap<>());
+        keywordLengths.add(0);
+        return children.size() - 1;
+    }
+
+    private void insert(String keyword) {
+        int node = 0;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = normalize(keyword.charAt(i));
+            Integer child = children.get(node).get(c);
+            if (child == null) {
+                child = addNode();
+                children.get(node).put(c, child);
+            }
+            node = child;
+        }
+        keywordLengths.set(node, keyword.length());
+    }
+
+    /**
+     * Sets the fail and output links breadth-first, so a node's links are set before its children's.
+     */
+    private void buildLinks() {
+        int size = children.size();
+        fail = new int[size];
+        outputLink = new int[size];
+        outputLink[0] = -1;
+
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            fail[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+                int child = entry.getValue();
+                int target = fail[node];
+                while (target != 0 && !children.get(target).containsKey(entry.getKey())) {
+                    target = fail[target];
+                }
+                Integer next = children.get(target).get(entry.getKey());
+                fail[child] = next != null && next != child ? next : 0;
+                outputLink[child] = keywordLengths.get(fail[child]) > 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @return Whether the matcher has any keywords
+     */
+    boolean isEmpty() {
+        return children.get(0).isEmpty();
+    }
+
+    /**
+     * Finds the whole-word matches in a message, merged where they overlap, in order.
+     */
+    List<Match> findAll(String text) {
+        List<Match> matches = new ArrayList<>();
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = normalize(text.charAt(i));
+            while (node != 0 && !children.get(node).containsKey(c)) {
+                node = fail[node];
+            }
+            node = children.get(node).getOrDefault(c, 0);
+
+            // Every keyword ending here: this node and its output chain
+            for (int out = keywordLengths.get(node) > 0 ? node : outputLink[node]; out != -1; out = outputLink[out]) {
+                int start = i + 1 - keywordLengths.get(out);
+                if (isWholeWord(text, start, i + 1)) {
+                    addMerged(matches, start, i + 1);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Adds a match, merging it with the previous ones it overlaps. Matches are found by end
+     * position, so only the tail of the list can overlap.
+     */
+    private static void addMerged(List<Match> matches, int start, int end) {
+        while (!matches.isEmpty() && matches.get(matches.size() - 1).end() > start) {
+            Match last = matches.remove(matches.size() - 1);
+            start = Math.min(start, last.start());
+            end = Math.max(end, last.end());
+        }
+        matches.add(new Match(start, end));
+    }
+
+    private static boolean isWholeWord(String text, int start, int end) {
+        boolean startOk = start == 0 || !isWordChar(text.charAt(start)) || !isWordChar(text.charAt(start - 1));
+        boolean endOk = end == text.length() || !isWordChar(text.charAt(end - 1)) || !isWordChar(text.charAt(end));
+        return startOk && endOk;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private char normalize(char c) {
+        return caseSensitive ? c : Character.toLowerCase(c);
+    }
+}
@@ -1,23 +1,37 @@
 package net.shlomo1412.booster.client.module.modules;
 
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Style;
 import net.minecraft.text.Text;
 import net.shlomo1412.booster.client.module.AlertModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Module that alerts the player when their name is mentioned in chat.
  * Fully customizable with message type, color, format, sound, and cooldown.
  * This module is triggered by a mixin that intercepts chat messages.
+ * <p>
+ * The player name and keywords are compiled into a {@link MentionMatcher} once, and compiled
+ * again only when the name, the keywords or the case sensitivity change, so each message costs
+ * one scan whatever the number of keywords. The same matches highlight the message in chat.
  */
 public class MentionedInChatAlertModule extends AlertModule {
     
     private final ModuleSetting.BooleanSetting caseSensitiveSetting;
     private final ModuleSetting.BooleanSetting highlightMessageSetting;
     private final ModuleSetting.BooleanSetting customKeywordsSetting;
-    private Pattern mentionPattern = null;
+    
+    // Compiled matcher and the inputs it was compiled from
+    private MentionMatcher matcher = null;
+    private String matcherName;
+    private boolean matcherCaseSensitive;
+    private boolean matcherUsesKeywords;
     
     // Custom keywords to also trigger mention alerts (comma-separated in config)
     private String additionalKeywords = "";
@@ -63,6 +77,12 @@ public class MentionedInChatAlertModule extends AlertModule {
         registerSetting(customKeywordsSetting);
     }
     
+    @Override
+    protected Set<AlertInput> getInputs() {
+        // Triggered by the chat mixin, never polled
+        return Set.of();
+    }
+    
     @Override
     protected void checkAndAlert(MinecraftClient client) {
         // This module doesn't check on tick - it's triggered by the chat mixin
@@ -71,56 +91,95 @@ public class MentionedInChatAlertModule extends AlertModule {
     
     /**
      * Called by the chat mixin when a message is received.
-     * Returns true if the message contains a mention.
+     * Alerts if the message mentions the player, and highlights the mentions if enabled.
+     *
+     * @return The message to show in chat
      */
-    public boolean checkForMention(Text message, String playerName) {
-        if (!isEnabled() || !enabledSetting.getValue()) return false;
+    public Text onChatMessage(Text message, String playerName) {
+        if (!isEnabled() || !enabledSetting.getValue()) return message;
         
         String messageText = message.getString();
+        List<MentionMatcher.Match> mentions = getMatcher(playerName).findAll(messageText);
+        if (mentions.isEmpty()) return message;
         
-        // Build mention pattern
-        Pattern pattern = getMentionPattern(playerName);
+        // Extract the sender if possible (usually before the colon)
+        String sender = extractSender(messageText);
+        if ((sender != null && sender.equals(playerName))
+            || (sender == null && messageText.startsWith("<" + playerName + ">"))) {
+            return message; // Don't alert for our own messages
+        }
         
-        if (pattern.matcher(messageText).find()) {
-            if (canAlert()) {
-                // Extract the sender if possible (usually before the colon)
-                String sender = extractSender(messageText);
-                
-                if (sender != null && !sender.equals(playerName)) {
-                    sendAlert("📢 Mentioned!", sender + " mentioned you in chat");
-                } else if (!messageText.startsWith("<" + playerName + ">")) {
-                    // Only alert if it's not our own message
-                    sendAlert("📢 You were mentioned in chat!");
-                } else {
-                    return false; // Don't alert for our own messages
-                }
-                return true;
+        if (canAlert()) {
+            if (sender != null) {
+                sendAlert("📢 Mentioned!", sender + " mentioned you in chat");
+            } else {
+                sendAlert("📢 You were mentioned in chat!");
             }
         }
         
-        return false;
+        return highlightMessageSetting.getValue() ? highlight(message, mentions) : message;
     }
     
     /**
-     * Gets or builds the mention pattern for the player name.
+     * Gets the mention matcher for the player name, compiling it again if the name, the keywords
+     * or the case sensitivity changed.
      */
-    private Pattern getMentionPattern(String playerName) {
-        // Rebuild pattern if needed
-        StringBuilder patternBuilder = new StringBuilder();
-        patternBuilder.append("\\b").append(Pattern.quote(playerName)).append("\\b");
-        
-        if (customKeywordsSetting.getValue() && !additionalKeywords.isEmpty()) {
-            String[] keywords = additionalKeywords.split(",");
-            for (String keyword : keywords) {
-                keyword = keyword.trim();
-                if (!keyword.isEmpty()) {
-                    patternBuilder.append("|\\b").append(Pattern.quote(keyword)).append("\\b");
+    private MentionMatcher getMatcher(String playerName) {
+        boolean caseSensitive = caseSensitiveSetting.getValue();
+        boolean usesKeywords = customKeywordsSetting.getValue();
+        if (matcher == null || !playerName.equals(matcherName)
+            || caseSensitive != matcherCaseSensitive || usesKeywords != matcherUsesKeywords) {
+            List<String> keywords = new ArrayList<>();
+            keywords.add(playerName);
+            if (usesKeywords) {
+                for (String keyword : additionalKeywords.split(",")) {
+                    keywords.add(keyword.trim());
                 }
             }
+            matcher = new MentionMatcher(keywords, caseSensitive);
+            matcherName = playerName;
+            matcherCaseSensitive = caseSensitive;
+            matcherUsesKeywords = usesKeywords;
         }
+        return matcher;
+    }
+    
+    /**
+     * Rebuilds a message with the mentioned ranges in the alert color, keeping the rest of each
+     * part's style (click and hover events included).
+     */
+    private Text highlight(Text message, List<MentionMatcher.Match> mentions) {
+        MutableText result = Text.empty();
+        int[] offset = {0};
+        int[] next = {0};  // Index of the first mention not fully emitted
+        
+        message.visit((style, part) -> {
+            int partStart = offset[0];
+            int partEnd = partStart + part.length();
+            int position = partStart;
+            
+            while (next[0] < mentions.size() && mentions.get(next[0]).start() < partEnd) {
+                MentionMatcher.Match mention = mentions.get(next[0]);
+                int from = Math.max(mention.start(), position);
+                int to = Math.min(mention.end(), partEnd);
+                if (from > position) {
+                    result.append(Text.literal(part.substring(position - partStart, from - partStart)).setStyle(style));
+                }
+                result.append(Text.literal(part.substring(from - partStart, to - partStart))
+                    .setStyle(style.withColor(colorSetting.getValue()).withBold(true)));
+                position = to;
+                if (mention.end() > partEnd) break;  // Continues in the next part
+                next[0]++;
+            }
+            if (position < partEnd) {
+                result.append(Text.literal(part.substring(position - partStart)).setStyle(style));
+            }
+            
+            offset[0] = partEnd;
+            return Optional.empty();
+        }, Style.EMPTY);
         
-        int flags = caseSensitiveSetting.getValue() ? 0 : Pattern.CASE_INSENSITIVE;
-        return Pattern.compile(patternBuilder.toString(), flags);
+        return result;
     }
     
     /**
@@ -167,7 +226,7 @@ public class MentionedInChatAlertModule extends AlertModule {
      */
     public void setAdditionalKeywords(String keywords) {
         this.additionalKeywords = keywords != null ? keywords : "";
-        this.mentionPattern = null; // Force rebuild
+        this.matcher = null; // Force rebuild
     }
     
     /**
@@ -179,6 +238,6 @@ public class MentionedInChatAlertModule extends AlertModule {
     
     @Override
     protected void onDisable() {
-        mentionPattern = null;
+        matcher = null;
     }
 }
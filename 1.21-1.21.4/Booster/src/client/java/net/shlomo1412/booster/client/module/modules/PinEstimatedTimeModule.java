@@ -8,15 +8,15 @@ import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.screen.AbstractFurnaceScreenHandler;
 import net.minecraft.util.math.BlockPos;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.furnace.FurnaceTracker;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterButton;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -24,6 +24,8 @@ import java.util.function.Consumer;
  * Module that pins the estimated smelting time as an overlay on screen.
  * Shows even after exiting the furnace screen.
  * Displays "FINISHED!" in green when complete, then disappears.
+ * Pinned furnaces are kept by the {@link FurnaceTracker}, per world and dimension and across sessions;
+ * only the ones finishing next are shown.
  */
 public class PinEstimatedTimeModule extends GUIModule {
     
@@ -36,10 +38,19 @@ public class PinEstimatedTimeModule extends GUIModule {
     private final ModuleSetting.NumberSetting overlayXSetting;
     private final ModuleSetting.NumberSetting overlayYSetting;
     
+    private final ModuleSetting.NumberSetting maxShownSetting;
+    
     private BoosterButton pinButton;
     
-    // Tracked furnaces with their estimated completion time
-    private static final Map<BlockPos, TrackedFurnace> trackedFurnaces = new HashMap<>();
+    // Last furnace state observed from its open screen
+    private BlockPos observedPos;
+    private int observedInputCount = -1;
+    private int observedFuelCount = -1;
+    
+    // Overlay lines, refreshed once per second or when the tracked furnaces change
+    private final List<OverlayLine> overlayLines = new ArrayList<>();
+    private long linesRefreshedAt = 0;
+    private int linesVersion = -1;
     
     public PinEstimatedTimeModule() {
         super(
@@ -112,6 +123,17 @@ public class PinEstimatedTimeModule extends GUIModule {
             1000
         );
         registerSetting(overlayYSetting);
+        
+        // Maximum number of furnaces shown
+        this.maxShownSetting = new ModuleSetting.NumberSetting(
+            "max_shown",
+            "Max Shown",
+            "How many of the furnaces finishing next are shown",
+            5,
+            1,
+            20
+        );
+        registerSetting(maxShownSetting);
     }
     
     /**
@@ -160,7 +182,7 @@ public class PinEstimatedTimeModule extends GUIModule {
     private boolean isCurrentFurnacePinned() {
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.crosshairTarget instanceof net.minecraft.util.hit.BlockHitResult blockHit) {
-            return trackedFurnaces.containsKey(blockHit.getBlockPos());
+            return FurnaceTracker.getInstance().isTracked(blockHit.getBlockPos());
         }
         return false;
     }
@@ -183,9 +205,10 @@ public class PinEstimatedTimeModule extends GUIModule {
         BlockPos furnacePos = getCurrentFurnacePos();
         if (furnacePos == null) return;
         
-        if (trackedFurnaces.containsKey(furnacePos)) {
+        FurnaceTracker tracker = FurnaceTracker.getInstance();
+        if (tracker.isTracked(furnacePos)) {
             // Already pinned - unpin it
-            trackedFurnaces.remove(furnacePos);
+            tracker.untrack(furnacePos);
             updateButtonState(false);
         } else {
             // Not pinned - pin it
@@ -211,27 +234,7 @@ public class PinEstimatedTimeModule extends GUIModule {
         if (client.player == null) return;
         
         if (screen.getScreenHandler() instanceof AbstractFurnaceScreenHandler handler) {
-            // Calculate estimated completion time
-            long currentTime = System.currentTimeMillis();
-            int remainingTicks = calculateRemainingTicks(handler);
-            long estimatedCompletionTime = currentTime + (remainingTicks * 50L); // 50ms per tick
-            
-            String furnaceName = getFurnaceName(handler);
-            
-            // Get current slot counts (only input and fuel - not output)
-            int inputCount = handler.getSlot(0).getStack().getCount();
-            int fuelCount = handler.getSlot(1).getStack().getCount();
-            
-            TrackedFurnace tracked = new TrackedFurnace(
-                furnacePos,
-                furnaceName,
-                estimatedCompletionTime,
-                remainingTicks > 0,
-                inputCount,
-                fuelCount
-            );
-            
-            trackedFurnaces.put(furnacePos, tracked);
+            FurnaceTracker.getInstance().observe(furnacePos, getFurnaceName(handler), handler);
         }
     }
     
@@ -244,35 +247,6 @@ public class PinEstimatedTimeModule extends GUIModule {
         togglePinCurrentFurnace(screen);
     }
     
-    /**
-     * Calculates remaining ticks for current smelting operation.
-     */
-    private int calculateRemainingTicks(AbstractFurnaceScreenHandler handler) {
-        int cookProgress = (int) handler.getCookProgress();
-        int maxProgress = 24;
-        int remainingProgressForCurrent = maxProgress - cookProgress;
-        
-        int ticksPerItem = getTotalCookTime(handler);
-        float progressRatio = (float) remainingProgressForCurrent / maxProgress;
-        int ticksForCurrentItem = (int) (ticksPerItem * progressRatio);
-        
-        int inputCount = handler.getSlot(0).getStack().getCount();
-        int ticksForRemainingItems = (inputCount > 0 ? (inputCount - 1) : 0) * ticksPerItem;
-        
-        return ticksForCurrentItem + ticksForRemainingItems;
-    }
-    
-    /**
-     * Gets the total cook time based on furnace type.
-     */
-    private int getTotalCookTime(AbstractFurnaceScreenHandler handler) {
-        String className = handler.getClass().getSimpleName();
-        if (className.contains("Blast") || className.contains("Smoker")) {
-            return 100;
-        }
-        return 200;
-    }
-    
     /**
      * Gets a display name for the furnace type.
      */
@@ -287,11 +261,22 @@ public class PinEstimatedTimeModule extends GUIModule {
     }
     
     /**
-     * Renders all pinned furnace overlays.
+     * Renders the pinned furnaces finishing next.
      * Should be called from the HUD render callback.
      */
     public void renderOverlays(DrawContext context) {
-        if (!isEnabled() || trackedFurnaces.isEmpty()) {
+        if (!isEnabled()) {
+            return;
+        }
+        
+        FurnaceTracker tracker = FurnaceTracker.getInstance();
+        long now = System.currentTimeMillis();
+        if (now - linesRefreshedAt >= 1000 || tracker.getVersion() != linesVersion) {
+            refreshLines(tracker);
+            linesRefreshedAt = now;
+            linesVersion = tracker.getVersion();
+        }
+        if (overlayLines.isEmpty()) {
             return;
         }
         
@@ -301,99 +286,92 @@ public class PinEstimatedTimeModule extends GUIModule {
         int x = overlayXSetting.getValue().intValue();
         int y = overlayYSetting.getValue().intValue();
         
-        long currentTime = System.currentTimeMillis();
-        int finishedDisplayMs = finishedDisplayTimeSetting.getValue().intValue() * 1000;
-        
-        // Clean up expired entries and render
-        Iterator<Map.Entry<BlockPos, TrackedFurnace>> iterator = trackedFurnaces.entrySet().iterator();
         int yOffset = 0;
+        for (OverlayLine line : overlayLines) {
+            renderOverlayText(context, textRenderer, line, x, y + yOffset);
+            yOffset += 12;
+        }
+    }
+    
+    /**
+     * Rebuilds the overlay lines from the furnaces finishing next.
+     */
+    private void refreshLines(FurnaceTracker tracker) {
+        overlayLines.clear();
+        long now = tracker.getCurrentTick();
+        if (now < 0) {
+            return;
+        }
         
-        while (iterator.hasNext()) {
-            Map.Entry<BlockPos, TrackedFurnace> entry = iterator.next();
-            TrackedFurnace furnace = entry.getValue();
-            
-            long timeRemaining = furnace.estimatedCompletionTime - currentTime;
-            boolean isFinished = timeRemaining <= 0;
+        long keepTicks = finishedDisplayTimeSetting.getValue().intValue() * 20L;
+        MinecraftClient client = MinecraftClient.getInstance();
+        TextRenderer textRenderer = client.textRenderer;
+        String dimension = client.world != null ? client.world.getRegistryKey().getValue().toString() : "";
+        for (FurnaceTracker.Furnace furnace : tracker.getUpcoming(maxShownSetting.getValue().intValue(), keepTicks)) {
+            String name = furnace.getName();
+            if (!furnace.getKey().dimension().equals(dimension)) {
+                // Furnaces in other dimensions are labeled with the dimension path (e.g. "the_nether")
+                String otherDimension = furnace.getKey().dimension();
+                name += " (" + otherDimension.substring(otherDimension.indexOf(':') + 1) + ")";
+            }
             
-            if (isFinished) {
-                // Check if we should remove it
-                long timeSinceFinished = -timeRemaining;
-                if (timeSinceFinished > finishedDisplayMs) {
-                    iterator.remove();
-                    continue;
+            String text;
+            int color;
+            switch (furnace.getStatus(now)) {
+                case FINISHED -> {
+                    text = name + ": FINISHED!";
+                    color = finishedColorSetting.getValue();
                 }
-                
-                // Show FINISHED! text
-                String text = furnace.furnaceName + ": FINISHED!";
-                renderOverlayText(context, textRenderer, text, x, y + yOffset, finishedColorSetting.getValue());
-            } else {
-                // Show remaining time
-                float seconds = timeRemaining / 1000.0f;
-                String timeText;
-                if (seconds < 60) {
-                    timeText = String.format("%.1fs", seconds);
-                } else {
-                    int mins = (int) (seconds / 60);
-                    float secs = seconds % 60;
-                    timeText = String.format("%dm %.0fs", mins, secs);
+                case OUT_OF_FUEL -> {
+                    text = name + ": OUT OF FUEL";
+                    color = textColorSetting.getValue();
+                }
+                default -> {
+                    text = name + ": " + formatTime(furnace.getRemainingTicks(now) / 20);
+                    color = textColorSetting.getValue();
                 }
-                
-                String text = furnace.furnaceName + ": " + timeText;
-                renderOverlayText(context, textRenderer, text, x, y + yOffset, textColorSetting.getValue());
             }
-            
-            yOffset += 12;
+            overlayLines.add(new OverlayLine(text, textRenderer.getWidth(text), color));
         }
     }
     
+    private static String formatTime(long seconds) {
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        return (seconds / 60) + "m " + (seconds % 60) + "s";
+    }
+    
     /**
      * Renders a single overlay text line.
      */
-    private void renderOverlayText(DrawContext context, TextRenderer textRenderer, String text, int x, int y, int color) {
-        int textWidth = textRenderer.getWidth(text);
-        
+    private void renderOverlayText(DrawContext context, TextRenderer textRenderer, OverlayLine line, int x, int y) {
         if (showBackgroundSetting.getValue()) {
-            context.fill(x - 2, y - 2, x + textWidth + 4, y + 10, 0xAA000000);
+            context.fill(x - 2, y - 2, x + line.width() + 4, y + 10, 0xAA000000);
         }
         
-        context.drawTextWithShadow(textRenderer, text, x, y, color);
+        context.drawTextWithShadow(textRenderer, line.text(), x, y, line.color());
     }
     
     /**
-     * Updates tracked furnaces when viewing a furnace screen.
-     * Only updates when there's a significant change in INPUT items to avoid timer issues.
-     * Does NOT reset timer when output changes (which happens as items finish).
+     * Updates a tracked furnace while its screen is open.
+     * The furnace is observed again when its input or fuel changed, since the prediction
+     * made from the last observation still holds otherwise.
      */
     public void updateTrackedFurnace(BlockPos pos, AbstractFurnaceScreenHandler handler) {
-        if (trackedFurnaces.containsKey(pos)) {
-            TrackedFurnace tracked = trackedFurnaces.get(pos);
-            
-            // Get current item count to detect changes
-            int currentInputCount = handler.getSlot(0).getStack().getCount();
-            int currentFuelCount = handler.getSlot(1).getStack().getCount();
-            // Note: We intentionally don't track output changes to avoid resetting on finish
-            
-            // Only recalculate if INPUT or FUEL changed (user added items)
-            // Don't recalculate when output changes (that's items finishing normally)
-            if (currentInputCount != tracked.lastInputCount ||
-                currentFuelCount != tracked.lastFuelCount) {
-                
-                // Only update if input increased (user added more items to smelt)
-                // or if fuel changed (user added fuel)
-                long currentTime = System.currentTimeMillis();
-                int remainingTicks = calculateRemainingTicks(handler);
-                
-                if (remainingTicks > 0 && currentInputCount > 0) {
-                    tracked.estimatedCompletionTime = currentTime + (remainingTicks * 50L);
-                    tracked.isProcessing = true;
-                }
-                // Don't set isProcessing = false here - let the timer naturally reach 0
-                // and show FINISHED based on the original estimatedCompletionTime
-                
-                // Update cached counts
-                tracked.lastInputCount = currentInputCount;
-                tracked.lastFuelCount = currentFuelCount;
-            }
+        FurnaceTracker tracker = FurnaceTracker.getInstance();
+        if (!tracker.isTracked(pos)) {
+            return;
+        }
+        
+        int currentInputCount = handler.getSlot(0).getStack().getCount();
+        int currentFuelCount = handler.getSlot(1).getStack().getCount();
+        if (!pos.equals(observedPos) || currentInputCount != observedInputCount
+                || currentFuelCount != observedFuelCount) {
+            tracker.observe(pos, getFurnaceName(handler), handler);
+            observedPos = pos;
+            observedInputCount = currentInputCount;
+            observedFuelCount = currentFuelCount;
         }
     }
     
@@ -401,21 +379,21 @@ public class PinEstimatedTimeModule extends GUIModule {
      * Removes a tracked furnace.
      */
     public static void untrackFurnace(BlockPos pos) {
-        trackedFurnaces.remove(pos);
+        FurnaceTracker.getInstance().untrack(pos);
     }
     
     /**
      * Clears all tracked furnaces.
      */
     public static void clearTracked() {
-        trackedFurnaces.clear();
+        FurnaceTracker.getInstance().clear();
     }
     
     /**
      * Returns whether there are any active overlays.
      */
     public boolean hasActiveOverlays() {
-        return !trackedFurnaces.isEmpty();
+        return FurnaceTracker.getInstance().hasTracked();
     }
     
     @Override
@@ -426,25 +404,8 @@ public class PinEstimatedTimeModule extends GUIModule {
     }
     
     /**
-     * Tracked furnace data.
+     * A cached overlay line.
      */
-    private static class TrackedFurnace {
-        BlockPos position;
-        String furnaceName;
-        long estimatedCompletionTime;
-        boolean isProcessing;
-        // Cached slot counts to detect changes (input and fuel only)
-        int lastInputCount;
-        int lastFuelCount;
-        
-        TrackedFurnace(BlockPos position, String furnaceName, long estimatedCompletionTime, boolean isProcessing,
-                       int inputCount, int fuelCount) {
-            this.position = position;
-            this.furnaceName = furnaceName;
-            this.estimatedCompletionTime = estimatedCompletionTime;
-            this.isProcessing = isProcessing;
-            this.lastInputCount = inputCount;
-            this.lastFuelCount = fuelCount;
-        }
+    private record OverlayLine(String text, int width, int color) {
     }
 }
@@ -0,0 +1,167 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.recipebook.RecipeResultCollection;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.NetworkRecipeId;
+import net.minecraft.recipe.RecipeDisplayEntry;
+import net.minecraft.recipe.display.RecipeDisplay;
+import net.minecraft.recipe.display.ShapedCraftingRecipeDisplay;
+import net.minecraft.recipe.display.ShapelessCraftingRecipeDisplay;
+import net.minecraft.recipe.display.SlotDisplay;
+import net.minecraft.recipe.display.SlotDisplayContexts;
+import net.minecraft.util.context.ContextParameterMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Crafting table recipes from the client's recipe book, looked up by output item.
+ * <p>
+ * The recipe book only holds display data: a shaped or shapeless layout of slot displays, each
+ * resolving to the items it accepts. Lookups are cached per output item, and the cache is dropped
+ * whenever the recipe book rebuilds its result list (recipes unlocked, data packs reloaded).
+ * Only recipes the player has unlocked are known.
+ */
+final class RecipeIndex {
+
+    private static List<RecipeResultCollection> indexedResults;
+    private static final Map<Item, List<CraftRecipe>> byOutput = new HashMap<>();
+    private static Set<Item> craftableItems;
+
+    /**
+     * A crafting recipe laid out on the 3x3 grid.
+     *
+     * @param id          The recipe book ID
+     * @param output      The crafted item
+     * @param outputCount Items crafted per craft
+     * @param cells       The items each grid cell accepts, row-major; empty for unused cells
+     */
+    record CraftRecipe(NetworkRecipeId id, Item output, int outputCount, List<List<Item>> cells) {
+    }
+
+    private RecipeIndex() {
+    }
+
+    /**
+     * Gets the recipes crafting an item, in recipe book order.
+     */
+    static List<CraftRecipe> getRecipes(Item output) {
+        refresh();
+        return byOutput.computeIfAbsent(output, RecipeIndex::findRecipes);
+    }
+
+    /**
+     * @return Every item with at least one known crafting recipe
+     */
+    static Set<Item> getCraftableItems() {
+        refresh();
+        if (craftableItems == null) {
+            craftableItems = new LinkedHashSet<>();
+            ContextParameterMap context = createContext();
+            if (context != null) {
+                forEachEntry(entry -> {
+                    ItemStack result = entry.display().result().getFirst(context);
+                    if (!result.isEmpty() && isCraftingTableRecipe(entry.display())) {
+                        craftableItems.add(result.getItem());
+                    }
+                });
+            }
+        }
+        return craftableItems;
+    }
+
+    /**
+     * Drops the cache if the recipe book rebuilt its results.
+     */
+    private static void refresh() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        List<RecipeResultCollection> results = client.player != null
+            ? client.player.getRecipeBook().getOrderedResults() : List.of();
+        if (results != indexedResults) {
+            indexedResults = results;
+            byOutput.clear();
+            craftableItems = null;
+        }
+    }
+
+    private static List<CraftRecipe> findRecipes(Item output) {
+        ContextParameterMap context = createContext();
+        if (context == null) return List.of();
+
+        List<CraftRecipe> recipes = new ArrayList<>();
+        forEachEntry(entry -> {
+            ItemStack result = entry.display().result().getFirst(context);
+            if (result.isEmpty() || result.getItem() != output) return;
+
+            List<List<Item>> cells = layOut(entry.display(), context);
+            if (cells != null) {
+                recipes.add(new CraftRecipe(entry.id(), output, result.getCount(), cells));
+            }
+        });
+        return recipes;
+    }
+
+    /**
+     * Lays a recipe out on the 3x3 grid: shaped recipes from the top-left corner, shapeless
+     * ingredients in order.
+     *
+     * @return Accepted items per cell, or null if this isn't a crafting table recipe
+     */
+    private static List<List<Item>> layOut(RecipeDisplay display, ContextParameterMap context) {
+        List<List<Item>> cells = new ArrayList<>(9);
+        for (int i = 0; i < 9; i++) {
+            cells.add(List.of());
+        }
+
+        if (display instanceof ShapedCraftingRecipeDisplay shaped) {
+            if (shaped.width() > 3 || shaped.height() > 3) return null;
+            for (int row = 0; row < shaped.height(); row++) {
+                for (int col = 0; col < shaped.width(); col++) {
+                    SlotDisplay slot = shaped.ingredients().get(row * shaped.width() + col);
+                    cells.set(row * 3 + col, getItems(slot, context));
+                }
+            }
+            return cells;
+        }
+        if (display instanceof ShapelessCraftingRecipeDisplay shapeless) {
+            if (shapeless.ingredients().size() > 9) return null;
+            for (int i = 0; i < shapeless.ingredients().size(); i++) {
+                cells.set(i, getItems(shapeless.ingredients().get(i), context));
+            }
+            return cells;
+        }
+        return null;
+    }
+
+    private static List<Item> getItems(SlotDisplay slot, ContextParameterMap context) {
+        Set<Item> items = new LinkedHashSet<>();
+        for (ItemStack stack : slot.getStacks(context)) {
+            if (!stack.isEmpty()) items.add(stack.getItem());
+        }
+        return List.copyOf(items);
+    }
+
+    private static boolean isCraftingTableRecipe(RecipeDisplay display) {
+        return display instanceof ShapedCraftingRecipeDisplay || display instanceof ShapelessCraftingRecipeDisplay;
+    }
+
+    private static void forEachEntry(Consumer<RecipeDisplayEntry> action) {
+        for (RecipeResultCollection collection : indexedResults) {
+            for (RecipeDisplayEntry entry : collection.getAllRecipes()) {
+                action.accept(entry);
+            }
+        }
+    }
+
+    private static ContextParameterMap createContext() {
+        MinecraftClient client = MinecraftClient.getInstance();
+        return client.world != null ? SlotDisplayContexts.createParameters(client.world) : null;
+    }
+}
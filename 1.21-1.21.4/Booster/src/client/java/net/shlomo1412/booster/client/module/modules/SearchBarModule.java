@@ -1,24 +1,24 @@
 package net.shlomo1412.booster.client.module.modules;
 
 import net.minecraft.client.MinecraftClient;
-import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.client.gui.widget.TextFieldWidget;
-import net.minecraft.item.ItemStack;
+import net.minecraft.screen.ScreenHandler;
 import net.minecraft.screen.slot.Slot;
 import net.minecraft.text.Text;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
+import net.shlomo1412.booster.client.render.SlotOverlayRenderer;
 import net.shlomo1412.booster.client.widget.BoosterSearchField;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.BitSet;
 import java.util.function.Consumer;
 
 /**
  * Module that adds a search bar to container screens.
  * Highlights items in both the container and player inventory that match the search query.
+ * See {@link SearchQuery} for the query syntax.
  */
 public class SearchBarModule extends GUIModule {
     
@@ -26,11 +26,15 @@ public class SearchBarModule extends GUIModule {
     
     // Module settings
     private final ModuleSetting.ColorSetting highlightColor;
+    private final ModuleSetting.BooleanSetting fuzzySetting;
+    private final ModuleSetting.NumberSetting fuzzyResultsSetting;
     
     // Runtime state
     private BoosterSearchField searchField;
     private String currentQuery = "";
-    private final Set<Integer> matchingSlots = new HashSet<>();
+    private SearchQuery parsedQuery = SearchQuery.EMPTY;
+    private SearchIndex searchIndex;
+    private final SlotOverlayRenderer.Layer overlayLayer = SlotOverlayRenderer.getInstance().createLayer();
     private HandledScreen<?> currentScreen;
     
     public SearchBarModule() {
@@ -38,7 +42,8 @@ public class SearchBarModule extends GUIModule {
             "search_bar",
             "Search Bar",
             "Adds a search bar to filter and highlight items in containers.\n" +
-            "Matching items will be highlighted with a customizable color.",
+            "Matching items will be highlighted with a customizable color.\n" +
+            "Use @mod, #tag and $tooltip to search by mod, tag or tooltip, and ! to exclude.",
             true,
             120,  // Default width
             18    // Default height
@@ -52,8 +57,26 @@ public class SearchBarModule extends GUIModule {
             0x8000FF00  // Semi-transparent green
         );
         
+        this.fuzzySetting = new ModuleSetting.BooleanSetting(
+            "fuzzy",
+            "Fuzzy Search",
+            "Match typos and abbreviations (e.g. \"dmd pick\") and highlight the best results",
+            false
+        );
+        
+        this.fuzzyResultsSetting = new ModuleSetting.NumberSetting(
+            "fuzzy_results",
+            "Fuzzy Results",
+            "Maximum number of slots highlighted in fuzzy mode",
+            10,  // Default
+            1,   // Min
+            90   // Max
+        );
+        
         // Register settings
         registerSetting(highlightColor);
+        registerSetting(fuzzySetting);
+        registerSetting(fuzzyResultsSetting);
     }
     
     // Track if we're in compact mode (moved to side due to space constraints)
@@ -77,6 +100,12 @@ public class SearchBarModule extends GUIModule {
     public void createSearchBar(HandledScreen<?> screen, int anchorX, int anchorY, int containerWidth, int screenHeight,
                                  Consumer<BoosterSearchField> addDrawableChild) {
         this.currentScreen = screen;
+        if (searchIndex == null || searchIndex.getHandler() != screen.getScreenHandler()) {
+            disposeIndex();
+            searchIndex = new SearchIndex(screen.getScreenHandler());
+        }
+        searchIndex.setFuzzy(fuzzySetting.getValue(), fuzzyResultsSetting.getValue());
+        searchIndex.setQuery(parsedQuery);
         
         // Get screen dimensions
         int screenWidth = screen.width;
@@ -179,81 +208,89 @@ public class SearchBarModule extends GUIModule {
      * Called when the search text changes.
      */
     private void onSearchChanged(String query) {
-        this.currentQuery = query.toLowerCase().trim();
-        updateMatchingSlots();
+        this.currentQuery = SearchIndex.normalize(query);
+        this.parsedQuery = SearchQuery.parse(currentQuery);
+        if (searchIndex != null) {
+            searchIndex.setQuery(parsedQuery);
+        }
     }
     
     /**
-     * Updates the set of matching slot indices.
+     * Picks up slot changes since the last frame. Only changed slots are re-indexed.
      */
-    private void updateMatchingSlots() {
-        matchingSlots.clear();
-        
-        if (currentQuery.isEmpty() || currentScreen == null) {
-            return;
+    private void updateIndex() {
+        if (searchIndex != null) {
+            searchIndex.setFuzzy(fuzzySetting.getValue(), fuzzyResultsSetting.getValue());
+            searchIndex.update();
         }
-        
-        var handler = currentScreen.getScreenHandler();
-        for (Slot slot : handler.slots) {
-            if (slot.hasStack()) {
-                ItemStack stack = slot.getStack();
-                String itemName = stack.getName().getString().toLowerCase();
-                
-                // Check if item name contains search query
-                if (itemName.contains(currentQuery)) {
-                    matchingSlots.add(slot.id);
-                }
-            }
+    }
+    
+    private void disposeIndex() {
+        if (searchIndex != null) {
+            searchIndex.dispose();
+            searchIndex = null;
         }
     }
     
     /**
-     * Renders the highlight overlay for matching slots.
-     * Call this after slots are rendered but before tooltips.
+     * Adds the search overlays (dimmed non-matching slots, highlighted matches) to the
+     * batched slot overlay renderer. Call this every frame after slots are rendered.
      */
-    public void renderHighlights(DrawContext context, int containerX, int containerY) {
-        if (currentQuery.isEmpty() || currentScreen == null || matchingSlots.isEmpty()) {
+    public void renderOverlays(int containerX, int containerY) {
+        if (parsedQuery.isEmpty() || currentScreen == null || searchIndex == null) {
             return;
         }
+        updateIndex();
         
+        overlayLayer.begin();
+        addSlotDimming(containerX, containerY);
+        addHighlights(containerX, containerY);
+        overlayLayer.end();
+    }
+    
+    /**
+     * Adds the highlight overlay for matching slots.
+     */
+    private void addHighlights(int containerX, int containerY) {
         int color = highlightColor.getValue();
         
         var handler = currentScreen.getScreenHandler();
-        for (Slot slot : handler.slots) {
-            if (matchingSlots.contains(slot.id)) {
-                int slotX = containerX + slot.x;
-                int slotY = containerY + slot.y;
-                
-                // Draw highlight overlay
-                context.fill(slotX, slotY, slotX + 16, slotY + 16, color);
-                
-                // Draw border
-                int borderColor = (color & 0x00FFFFFF) | 0xFF000000;  // Full opacity border
-                context.fill(slotX, slotY, slotX + 16, slotY + 1, borderColor);           // Top
-                context.fill(slotX, slotY + 15, slotX + 16, slotY + 16, borderColor);     // Bottom
-                context.fill(slotX, slotY, slotX + 1, slotY + 16, borderColor);           // Left
-                context.fill(slotX + 15, slotY, slotX + 16, slotY + 16, borderColor);     // Right
-            }
+        BitSet matches = searchIndex.getMatches();
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            Slot slot = handler.getSlot(id);
+            int slotX = containerX + slot.x;
+            int slotY = containerY + slot.y;
+            
+            // Fuzzy matches fade out with their rank
+            float intensity = searchIndex.getIntensity(id);
+            int alpha = (int) ((color >>> 24) * intensity);
+            int borderAlpha = (int) (0xFF * intensity);
+            
+            // Highlight overlay
+            overlayLayer.fill(slotX, slotY, slotX + 16, slotY + 16, (color & 0x00FFFFFF) | (alpha << 24));
+            
+            // Border, full opacity for the best match
+            int borderColor = (color & 0x00FFFFFF) | (borderAlpha << 24);
+            overlayLayer.outline(slotX, slotY, slotX + 16, slotY + 16, borderColor);
         }
     }
     
     /**
      * Dims non-matching slots when search is active.
      */
-    public void renderSlotDimming(DrawContext context, int containerX, int containerY) {
-        if (currentQuery.isEmpty() || currentScreen == null) {
-            return;
-        }
-        
+    private void addSlotDimming(int containerX, int containerY) {
         var handler = currentScreen.getScreenHandler();
-        for (Slot slot : handler.slots) {
+        BitSet occupied = searchIndex.getOccupied();
+        BitSet matches = searchIndex.getMatches();
+        for (int id = occupied.nextSetBit(0); id >= 0; id = occupied.nextSetBit(id + 1)) {
             // Only dim slots that have items but don't match
-            if (slot.hasStack() && !matchingSlots.contains(slot.id)) {
+            if (!matches.get(id)) {
+                Slot slot = handler.getSlot(id);
                 int slotX = containerX + slot.x;
                 int slotY = containerY + slot.y;
                 
-                // Draw semi-transparent dark overlay
-                context.fill(slotX, slotY, slotX + 16, slotY + 16, 0x80000000);
+                // Semi-transparent dark overlay
+                overlayLayer.fill(slotX, slotY, slotX + 16, slotY + 16, 0x80000000);
             }
         }
     }
@@ -262,7 +299,7 @@ public class SearchBarModule extends GUIModule {
      * @return true if search is active and has a query
      */
     public boolean isSearchActive() {
-        return !currentQuery.isEmpty();
+        return !parsedQuery.isEmpty();
     }
     
     /**
@@ -276,7 +313,20 @@ public class SearchBarModule extends GUIModule {
      * @return The number of matching items
      */
     public int getMatchCount() {
-        return matchingSlots.size();
+        return searchIndex != null ? searchIndex.getMatchCount() : 0;
+    }
+    
+    /**
+     * Gets the slots of a handler that match the current search.
+     *
+     * @return Slot IDs of matching slots (must not be modified), or null if no search is active on the handler
+     */
+    public BitSet getMatchingSlots(ScreenHandler handler) {
+        if (parsedQuery.isEmpty() || searchIndex == null || searchIndex.getHandler() != handler) {
+            return null;
+        }
+        updateIndex();
+        return searchIndex.getMatches();
     }
     
     /**
@@ -294,7 +344,10 @@ public class SearchBarModule extends GUIModule {
             searchField.setText("");
         }
         currentQuery = "";
-        matchingSlots.clear();
+        parsedQuery = SearchQuery.EMPTY;
+        if (searchIndex != null) {
+            searchIndex.setQuery(parsedQuery);
+        }
     }
     
     /**
@@ -314,6 +367,7 @@ public class SearchBarModule extends GUIModule {
         searchField = null;
         currentScreen = null;
         currentQuery = "";
-        matchingSlots.clear();
+        parsedQuery = SearchQuery.EMPTY;
+        disposeIndex();
     }
 }
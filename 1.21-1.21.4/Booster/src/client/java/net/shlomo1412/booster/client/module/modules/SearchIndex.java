@@ -0,0 +1,319 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.ScreenHandlerListener;
+
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Search index over the slots of one open screen.
+ * <p>
+ * Each slot's normalized searchable text is cached and only rebuilt when the slot's contents
+ * change. Changes are picked up from the handler's slot-update listener and, since slot updates
+ * from the server bypass listeners on the client, from a reference check against the stack each
+ * slot held when it was indexed. Matches are kept in a {@link BitSet} keyed by slot ID, so
+ * re-running a query and rendering the results don't allocate.
+ * <p>
+ * Tooltip text is only needed for {@code $} terms. It is fetched lazily from the
+ * {@link TooltipCache}, a limited number of slots per frame, so typing never waits for
+ * tooltips to be built; slots are added to the matches as their tooltips become available.
+ * <p>
+ * In fuzzy mode, plain name terms are scored against a {@link TrigramIndex} of the slot names
+ * (plus an abbreviation check) and only the best scoring slots are kept as matches, each with a
+ * highlight intensity that falls off with its rank.
+ */
+final class SearchIndex {
+
+    // Tooltips resolved per update, spreading cache misses over several frames
+    private static final int TOOLTIPS_PER_UPDATE = 16;
+    // Lowest fuzzy score that still counts as a match
+    private static final float MIN_FUZZY_SCORE = 0.35f;
+    // Intensity of the lowest ranked fuzzy match
+    private static final float MIN_INTENSITY = 0.35f;
+
+    private final ScreenHandler handler;
+    private final ScreenHandlerListener listener;
+
+    // Per slot ID: the indexed stack and its searchable fields (null when empty or not resolved yet)
+    private final ItemStack[] indexedStacks;
+    private final String[] names;
+    private final String[] namespaces;
+    private final String[] tooltips;
+    private final BitSet occupied;
+    private final BitSet matches;
+    private final BitSet dirty;
+    private final BitSet pendingTooltips;
+
+    // Fuzzy mode
+    private final TrigramIndex trigrams;
+    private final BitSet candidates;
+    private final float[] scores;
+    private final float[] intensities;
+    private final int[] sharedGrams;
+    private boolean fuzzy = false;
+    private int fuzzyLimit = 10;
+    private boolean rankDirty = false;
+
+    private SearchQuery query = SearchQuery.EMPTY;
+
+    SearchIndex(ScreenHandler handler) {
+        this.handler = handler;
+        int size = handler.slots.size();
+        this.indexedStacks = new ItemStack[size];
+        this.names = new String[size];
+        this.namespaces = new String[size];
+        this.tooltips = new String[size];
+        this.occupied = new BitSet(size);
+        this.matches = new BitSet(size);
+        this.dirty = new BitSet(size);
+        this.pendingTooltips = new BitSet(size);
+        this.trigrams = new TrigramIndex(size);
+        this.candidates = new BitSet(size);
+        this.scores = new float[size];
+        this.intensities = new float[size];
+        this.sharedGrams = new int[size];
+        this.dirty.set(0, size);
+
+        this.listener = new ScreenHandlerListener() {
+            @Override
+            public void onSlotUpdate(ScreenHandler screenHandler, int slotId, ItemStack stack) {
+                if (slotId >= 0 && slotId < names.length) {
+                    dirty.set(slotId);
+                }
+            }
+
+            @Override
+            public void onPropertyUpdate(ScreenHandler screenHandler, int property, int value) {
+            }
+        };
+        handler.addListener(listener);
+    }
+
+    /**
+     * Sets the query and re-evaluates every indexed slot against it.
+     */
+    void setQuery(SearchQuery query) {
+        this.query = query;
+        update();
+        matches.clear();
+        candidates.clear();
+        pendingTooltips.clear();
+        for (int i = occupied.nextSetBit(0); i >= 0; i = occupied.nextSetBit(i + 1)) {
+            evaluate(i);
+        }
+        if (rankDirty) {
+            rank();
+        }
+    }
+
+    /**
+     * Switches fuzzy ranking on or off.
+     *
+     * @param enabled Whether plain name terms are matched fuzzily
+     * @param limit   Maximum number of fuzzy matches to keep
+     */
+    void setFuzzy(boolean enabled, int limit) {
+        if (enabled != fuzzy || limit != fuzzyLimit) {
+            this.fuzzy = enabled;
+            this.fuzzyLimit = limit;
+            setQuery(query);
+        }
+    }
+
+    /**
+     * Re-indexes the slots whose contents changed since the last update
+     * and resolves some of the tooltips the query is waiting for.
+     */
+    void update() {
+        int size = names.length;
+        for (int i = 0; i < size; i++) {
+            ItemStack stack = handler.getSlot(i).getStack();
+            // Stacks emptied in place keep their reference, so emptiness is checked too
+            if (stack != indexedStacks[i] || stack.isEmpty() == occupied.get(i)) {
+                dirty.set(i);
+            }
+        }
+
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            reindex(i);
+        }
+        dirty.clear();
+
+        int budget = TOOLTIPS_PER_UPDATE;
+        for (int i = pendingTooltips.nextSetBit(0); i >= 0 && budget > 0; i = pendingTooltips.nextSetBit(i + 1)) {
+            tooltips[i] = TooltipCache.get(indexedStacks[i]);
+            pendingTooltips.clear(i);
+            evaluate(i);
+            budget--;
+        }
+
+        if (rankDirty) {
+            rank();
+        }
+    }
+
+    private void reindex(int slotId) {
+        ItemStack stack = handler.getSlot(slotId).getStack();
+        indexedStacks[slotId] = stack;
+        tooltips[slotId] = null;
+        pendingTooltips.clear(slotId);
+        if (stack.isEmpty()) {
+            names[slotId] = null;
+            namespaces[slotId] = null;
+            trigrams.set(slotId, null);
+            occupied.clear(slotId);
+            if (matches.get(slotId) || candidates.get(slotId)) {
+                rankDirty |= isRanking();
+            }
+            matches.clear(slotId);
+            candidates.clear(slotId);
+            return;
+        }
+
+        names[slotId] = normalize(stack.getName().getString());
+        trigrams.set(slotId, names[slotId]);
+        namespaces[slotId] = Registries.ITEM.getId(stack.getItem()).getNamespace();
+        occupied.set(slotId);
+        evaluate(slotId);
+    }
+
+    /**
+     * Updates the match bit of an occupied slot. Slots whose tooltip is still needed
+     * are queued and evaluated again once it is resolved.
+     */
+    private void evaluate(int slotId) {
+        if (query.isEmpty()) {
+            matches.clear(slotId);
+            return;
+        }
+        if (query.needsTooltips() && tooltips[slotId] == null) {
+            pendingTooltips.set(slotId);
+        }
+
+        boolean ranking = isRanking();
+        boolean passes = query.test(indexedStacks[slotId], names[slotId], namespaces[slotId], tooltips[slotId], ranking);
+        if (ranking) {
+            // Filters passed; the name terms decide in rank()
+            candidates.set(slotId, passes);
+            rankDirty = true;
+        } else {
+            matches.set(slotId, passes);
+        }
+    }
+
+    private boolean isRanking() {
+        return fuzzy && query.getNameTokens().length > 0;
+    }
+
+    /**
+     * Scores every candidate against the name terms and keeps the best ones as matches.
+     */
+    private void rank() {
+        rankDirty = false;
+        if (!isRanking()) {
+            return;
+        }
+        matches.clear();
+
+        String[] tokens = query.getNameTokens();
+        long[][] tokenGrams = query.getNameTokenGrams();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            scores[i] = 0;
+        }
+        for (int t = 0; t < tokens.length; t++) {
+            trigrams.countShared(tokenGrams[t], sharedGrams);
+            int gramCount = Math.max(1, tokenGrams[t].length);
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                scores[i] += scoreToken(names[i], tokens[t], (float) sharedGrams[i] / gramCount);
+            }
+        }
+
+        // Pick the best candidates one at a time; there are at most a few hundred slots
+        int limit = Math.max(1, fuzzyLimit);
+        for (int rank = 0; rank < limit; rank++) {
+            int best = -1;
+            float bestScore = MIN_FUZZY_SCORE * tokens.length;
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (!matches.get(i) && scores[i] >= bestScore && (best < 0 || scores[i] > scores[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) break;
+            matches.set(best);
+            intensities[best] = limit == 1 ? 1.0f : 1.0f - (1.0f - MIN_INTENSITY) * rank / (limit - 1);
+        }
+    }
+
+    /**
+     * Scores one query token against a name, from 0 to 1.
+     * Substrings score highest, then abbreviations (the token's letters in order within one word,
+     * starting with the same letter), then the fraction of the token's trigrams found in the name.
+     */
+    private static float scoreToken(String name, String token, float sharedFraction) {
+        if (name.contains(token)) {
+            return 1.0f;
+        }
+
+        float best = 0.7f * sharedFraction;
+        int length = name.length();
+        for (int start = 0; start < length; start++) {
+            if ((start > 0 && name.charAt(start - 1) != ' ') || name.charAt(start) != token.charAt(0)) continue;
+
+            int end = name.indexOf(' ', start);
+            if (end < 0) end = length;
+            int matched = 0;
+            for (int i = start; i < end && matched < token.length(); i++) {
+                if (name.charAt(i) == token.charAt(matched)) {
+                    matched++;
+                }
+            }
+            if (matched == token.length()) {
+                best = Math.max(best, 0.6f + 0.3f * token.length() / (end - start));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return How strongly a matching slot should be highlighted, from 0 to 1
+     */
+    float getIntensity(int slotId) {
+        return isRanking() ? intensities[slotId] : 1.0f;
+    }
+
+    /**
+     * @return Slot IDs of matching slots. Must not be modified.
+     */
+    BitSet getMatches() {
+        return matches;
+    }
+
+    /**
+     * @return Slot IDs of slots holding a stack. Must not be modified.
+     */
+    BitSet getOccupied() {
+        return occupied;
+    }
+
+    int getMatchCount() {
+        return matches.cardinality();
+    }
+
+    ScreenHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Stops listening to the handler.
+     */
+    void dispose() {
+        handler.removeListener(listener);
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).trim();
+    }
+}
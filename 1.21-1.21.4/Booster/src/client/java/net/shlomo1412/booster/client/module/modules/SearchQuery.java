@@ -0,0 +1,179 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.tag.TagKey;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parsed search bar query.
+ * <p>
+ * The query is split on spaces into terms that must all match:
+ * <ul>
+ *   <li>{@code text} - the item name contains the text</li>
+ *   <li>{@code @mod} - the item's namespace or mod name contains the text</li>
+ *   <li>{@code #tag} - one of the item's tags contains the text</li>
+ *   <li>{@code $text} - the tooltip (lore, enchantments, effects...) contains the text</li>
+ * </ul>
+ * Any term can be negated with a leading {@code !}, e.g. {@code !@minecraft}.
+ * <p>
+ * In fuzzy mode, plain name terms are scored by the {@link SearchIndex} instead of tested here,
+ * and the other terms only filter.
+ */
+final class SearchQuery {
+
+    enum Kind {
+        NAME,
+        MOD,
+        TAG,
+        TOOLTIP
+    }
+
+    /**
+     * A single query term.
+     *
+     * @param kind    What part of the item the term tests
+     * @param text    The normalized text to look for
+     * @param negated Whether the term must not match
+     */
+    record Term(Kind kind, String text, boolean negated) {
+    }
+
+    static final SearchQuery EMPTY = new SearchQuery(List.of());
+
+    // Namespace -> lowercase mod display name
+    private static final Map<String, String> modNames = new HashMap<>();
+
+    private final List<Term> terms;
+    private final boolean needsTooltips;
+    private final String[] nameTokens;
+    private final long[][] nameTokenGrams;
+
+    private SearchQuery(List<Term> terms) {
+        this.terms = terms;
+        boolean tooltips = false;
+        List<String> tokens = new ArrayList<>();
+        for (Term term : terms) {
+            tooltips |= term.kind() == Kind.TOOLTIP;
+            if (term.kind() == Kind.NAME && !term.negated()) {
+                tokens.add(term.text());
+            }
+        }
+        this.needsTooltips = tooltips;
+        this.nameTokens = tokens.toArray(new String[0]);
+        this.nameTokenGrams = new long[nameTokens.length][];
+        for (int i = 0; i < nameTokens.length; i++) {
+            nameTokenGrams[i] = TrigramIndex.trigrams(nameTokens[i]);
+        }
+    }
+
+    /**
+     * Parses a normalized (lowercase, trimmed) query.
+     */
+    static SearchQuery parse(String query) {
+        if (query.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Term> terms = new ArrayList<>();
+        for (String token : query.split("\\s+")) {
+            boolean negated = token.startsWith("!");
+            if (negated) {
+                token = token.substring(1);
+            }
+
+            Kind kind = Kind.NAME;
+            if (!token.isEmpty()) {
+                switch (token.charAt(0)) {
+                    case '@' -> kind = Kind.MOD;
+                    case '#' -> kind = Kind.TAG;
+                    case '$' -> kind = Kind.TOOLTIP;
+                    default -> { }
+                }
+                if (kind != Kind.NAME) {
+                    token = token.substring(1);
+                }
+            }
+
+            // A bare prefix while typing doesn't filter anything yet
+            if (!token.isEmpty()) {
+                terms.add(new Term(kind, token, negated));
+            }
+        }
+        return new SearchQuery(List.copyOf(terms));
+    }
+
+    boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    /**
+     * @return Whether evaluating the query needs tooltip text
+     */
+    boolean needsTooltips() {
+        return needsTooltips;
+    }
+
+    /**
+     * @return The plain (not negated) name terms, scored in fuzzy mode
+     */
+    String[] getNameTokens() {
+        return nameTokens;
+    }
+
+    /**
+     * @return Trigrams of each name token, in the same order
+     */
+    long[][] getNameTokenGrams() {
+        return nameTokenGrams;
+    }
+
+    /**
+     * Tests a slot's stack against every term.
+     *
+     * @param stack      The stack (non-empty)
+     * @param name       The normalized name
+     * @param namespace  The item's registry namespace
+     * @param tooltip    The normalized tooltip, or null if it isn't available yet
+     * @param skipNames  Whether to skip plain name terms, which fuzzy mode scores separately
+     * @return Whether the stack matches. False while a tooltip term can't be evaluated yet.
+     */
+    boolean test(ItemStack stack, String name, String namespace, String tooltip, boolean skipNames) {
+        for (Term term : terms) {
+            if (skipNames && term.kind() == Kind.NAME && !term.negated()) continue;
+
+            boolean hit;
+            switch (term.kind()) {
+                case NAME -> hit = name.contains(term.text());
+                case MOD -> hit = namespace.contains(term.text()) || getModName(namespace).contains(term.text());
+                case TAG -> hit = hasTag(stack, term.text());
+                case TOOLTIP -> {
+                    if (tooltip == null) return false;
+                    hit = tooltip.contains(term.text());
+                }
+                default -> hit = false;
+            }
+            if (hit == term.negated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasTag(ItemStack stack, String text) {
+        return stack.getRegistryEntry().streamTags()
+                .map(TagKey::id)
+                .anyMatch(id -> id.toString().contains(text));
+    }
+
+    private static String getModName(String namespace) {
+        return modNames.computeIfAbsent(namespace, ns -> FabricLoader.getInstance().getModContainer(ns)
+                .map(container -> container.getMetadata().getName().toLowerCase(Locale.ROOT))
+                .orElse(ns));
+    }
+}
@@ -3,24 +3,27 @@ package net.shlomo1412.booster.client.module.modules;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.ingame.AbstractFurnaceScreen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
-import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.tag.ItemTags;
 import net.minecraft.screen.AbstractFurnaceScreenHandler;
-import net.minecraft.screen.slot.SlotActionType;
 import net.shlomo1412.booster.client.BoosterClient;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.furnace.FurnaceTimes;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterButton;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,52 +38,6 @@ public class SmartFuelModule extends GUIModule {
     
     public static final String SMART_FUEL_WIDGET_ID = "smart_fuel";
     
-    // Fuel burn times in ticks (how many ticks one item burns for)
-    private static final Map<Item, Integer> FUEL_BURN_TIMES = new HashMap<>();
-    
-    static {
-        // Initialize fuel burn times
-        // Values from Minecraft wiki
-        FUEL_BURN_TIMES.put(Items.LAVA_BUCKET, 20000);
-        FUEL_BURN_TIMES.put(Items.COAL_BLOCK, 16000);
-        FUEL_BURN_TIMES.put(Items.DRIED_KELP_BLOCK, 4001);
-        FUEL_BURN_TIMES.put(Items.BLAZE_ROD, 2400);
-        FUEL_BURN_TIMES.put(Items.COAL, 1600);
-        FUEL_BURN_TIMES.put(Items.CHARCOAL, 1600);
-        // Wood items
-        FUEL_BURN_TIMES.put(Items.OAK_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.BIRCH_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.SPRUCE_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.JUNGLE_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.ACACIA_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.DARK_OAK_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.MANGROVE_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.CHERRY_LOG, 300);
-        FUEL_BURN_TIMES.put(Items.OAK_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.BIRCH_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.SPRUCE_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.JUNGLE_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.ACACIA_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.DARK_OAK_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.MANGROVE_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.CHERRY_PLANKS, 300);
-        FUEL_BURN_TIMES.put(Items.BAMBOO_PLANKS, 300);
-        // Other fuels
-        FUEL_BURN_TIMES.put(Items.STICK, 100);
-        FUEL_BURN_TIMES.put(Items.BAMBOO, 50);
-        FUEL_BURN_TIMES.put(Items.DRIED_KELP, 200);
-        FUEL_BURN_TIMES.put(Items.WHITE_CARPET, 67);
-        FUEL_BURN_TIMES.put(Items.WHITE_WOOL, 100);
-        // Wooden tools and items
-        FUEL_BURN_TIMES.put(Items.WOODEN_SWORD, 200);
-        FUEL_BURN_TIMES.put(Items.WOODEN_AXE, 200);
-        FUEL_BURN_TIMES.put(Items.WOODEN_PICKAXE, 200);
-        FUEL_BURN_TIMES.put(Items.WOODEN_SHOVEL, 200);
-        FUEL_BURN_TIMES.put(Items.WOODEN_HOE, 200);
-        FUEL_BURN_TIMES.put(Items.BOW, 300);
-        FUEL_BURN_TIMES.put(Items.FISHING_ROD, 300);
-    }
-    
     private final ModuleSetting.BooleanSetting preferCoalSetting;
     private final ModuleSetting.BooleanSetting avoidLavaBucketSetting;
     
@@ -102,7 +59,7 @@ public class SmartFuelModule extends GUIModule {
         this.preferCoalSetting = new ModuleSetting.BooleanSetting(
             "prefer_coal",
             "Prefer Coal",
-            "Prefer using coal/charcoal over other fuels when available",
+            "Use only coal/charcoal when they are enough, and other fuels only when they are not",
             true
         );
         registerSetting(preferCoalSetting);
@@ -161,6 +118,7 @@ public class SmartFuelModule extends GUIModule {
         if (!(screen.getScreenHandler() instanceof AbstractFurnaceScreenHandler handler)) {
             return;
         }
+        if (ClickScheduler.getInstance().isBusy(handler)) return;
         
         // Get input slot (slot 0)
         ItemStack inputStack = handler.getSlot(0).getStack();
@@ -169,69 +127,30 @@ public class SmartFuelModule extends GUIModule {
             return;
         }
         
-        int itemsToSmelt = inputStack.getCount();
-        int ticksNeeded = itemsToSmelt * getCookTimePerItem(handler);
-        
-        // Get current fuel in fuel slot (slot 1)
-        ItemStack currentFuel = handler.getSlot(1).getStack();
-        int currentFuelTicks = 0;
-        if (!currentFuel.isEmpty()) {
-            int burnTime = getFuelBurnTime(currentFuel.getItem());
-            currentFuelTicks = burnTime * currentFuel.getCount();
-        }
-        
-        // Calculate additional fuel needed
-        int additionalTicksNeeded = ticksNeeded - currentFuelTicks;
+        // Fuel needed beyond the burning item and the fuel slot
+        int additionalTicksNeeded = FurnaceTimes.getFuelNeeded(handler);
         if (additionalTicksNeeded <= 0) {
             BoosterClient.LOGGER.info("Sufficient fuel already present");
             return;
         }
         
-        // Find best fuel in player inventory
-        FuelSource bestFuel = findBestFuel(client.player, additionalTicksNeeded, handler);
-        if (bestFuel == null) {
+        // Plan the fuel from the player inventory
+        FuelPlan plan = planFuel(handler, additionalTicksNeeded, null);
+        if (plan == null) {
             BoosterClient.LOGGER.info("No suitable fuel found in inventory");
             return;
         }
         
         // Move fuel to furnace
-        moveFuelToFurnace(client, handler, bestFuel);
+        moveFuelToFurnace(client, handler, plan);
     }
     
     /**
-     * Gets the cook time per item based on furnace type.
-     */
-    private int getCookTimePerItem(AbstractFurnaceScreenHandler handler) {
-        String className = handler.getClass().getSimpleName();
-        if (className.contains("Blast") || className.contains("Smoker")) {
-            return 100; // 5 seconds
-        }
-        return 200; // 10 seconds
-    }
-    
-    /**
-     * Gets the burn time for a fuel item.
+     * Gets the burn time for a fuel item, as defined by the world's fuel registry
+     * (including fuels added by data packs and mods).
      */
     public static int getFuelBurnTime(Item item) {
-        // Check our predefined map first
-        if (FUEL_BURN_TIMES.containsKey(item)) {
-            return FUEL_BURN_TIMES.get(item);
-        }
-        
-        // Default fallback for unknown fuels
-        // Check if it's a wood-type item
-        String itemName = Registries.ITEM.getId(item).getPath();
-        if (itemName.contains("log") || itemName.contains("wood")) {
-            return 300;
-        }
-        if (itemName.contains("plank")) {
-            return 300;
-        }
-        if (itemName.contains("fence") || itemName.contains("slab")) {
-            return 150;
-        }
-        
-        return 0; // Not a fuel
+        return FuelTable.getBurnTime(item);
     }
     
     /**
@@ -242,104 +161,148 @@ public class SmartFuelModule extends GUIModule {
     }
     
     /**
-     * Finds the best fuel in the player's inventory for the needed ticks.
+     * Gets the burn ticks of the fuel that the next Smart Fuel click would load, planned for the
+     * same need as the click.
+     *
+     * @return The burn ticks, or 0 if no fuel is needed or no usable fuel is in the player's inventory
+     */
+    int getLoadableFuelTicks(AbstractFurnaceScreenHandler handler) {
+        int ticksNeeded = FurnaceTimes.getFuelNeeded(handler);
+        if (ticksNeeded <= 0) return 0;
+        FuelPlan plan = planFuel(handler, ticksNeeded, null);
+        return plan == null ? 0 : plan.count() * FurnaceTimes.getBurnTime(handler, plan.item());
+    }
+    
+    /**
+     * Adds the clicks loading the fuel for the needed ticks to a batch.
+     *
+     * @param exclude An item not to use as fuel (e.g. logs that are being smelted), or null
+     * @return The burn ticks of the fuel loaded, or 0 if no usable fuel is in the player's inventory
+     */
+    int addFuelClicks(ClickBatch batch, AbstractFurnaceScreenHandler handler, int ticksNeeded, Item exclude) {
+        if (ticksNeeded <= 0) return 0;
+        FuelPlan plan = planFuel(handler, ticksNeeded, exclude);
+        if (plan == null) return 0;
+        appendFuelClicks(batch, handler, plan);
+        return plan.count() * FurnaceTimes.getBurnTime(handler, plan.item());
+    }
+    
+    /**
+     * Plans the fuel to add for the needed ticks, using the combination of fuels from the player's
+     * inventory that wastes the least burn time. With "Prefer Coal", coal and charcoal are used on
+     * their own whenever they are enough, and the other fuels only when they are not.
+     * The fuel slot holds one item type, so only the part of the solution matching the fuel already in
+     * the slot (or the largest part, if the slot is empty) is added now; clicking again once the
+     * slot burned down adds the next part.
+     *
+     * @param exclude An item not to use as fuel, or null
+     * @return The plan, or null if there is no usable fuel
      */
-    private FuelSource findBestFuel(ClientPlayerEntity player, int ticksNeeded, AbstractFurnaceScreenHandler handler) {
-        List<FuelSource> availableFuels = new ArrayList<>();
+    private FuelPlan planFuel(AbstractFurnaceScreenHandler handler, int ticksNeeded, Item exclude) {
+        ItemStack currentFuel = handler.getSlot(1).getStack();
         
-        // Check player inventory (slots 3-38 in the handler for player inventory)
+        // Count the fuel per item type; stacks only merge with the same components, so each type
+        // is represented by the fuel already in the slot, or else by its first stack
         // Furnace slots: 0 = input, 1 = fuel, 2 = output
         // Player inventory starts at slot 3
+        Map<Item, ItemStack> samples = new HashMap<>();
+        Map<Item, Integer> available = new LinkedHashMap<>();
         for (int i = 3; i < handler.slots.size(); i++) {
             ItemStack stack = handler.getSlot(i).getStack();
-            if (stack.isEmpty()) continue;
+            if (stack.isEmpty() || stack.getItem() == exclude || FurnaceTimes.getBurnTime(handler, stack.getItem()) <= 0) continue;
             
-            int burnTime = getFuelBurnTime(stack.getItem());
-            if (burnTime > 0) {
-                // Skip lava bucket if setting is enabled
-                if (avoidLavaBucketSetting.getValue() && stack.getItem() == Items.LAVA_BUCKET) {
-                    continue;
-                }
-                
-                availableFuels.add(new FuelSource(i, stack, burnTime));
+            // Skip lava bucket if setting is enabled
+            if (avoidLavaBucketSetting.getValue() && stack.getItem() == Items.LAVA_BUCKET) {
+                continue;
+            }
+            // An occupied fuel slot only accepts more of the same fuel
+            ItemStack sample = currentFuel.isEmpty() ? samples.computeIfAbsent(stack.getItem(), item -> stack) : currentFuel;
+            if (!ItemStack.areItemsAndComponentsEqual(stack, sample)) {
+                continue;
             }
+            available.merge(stack.getItem(), stack.getCount(), Integer::sum);
         }
         
-        if (availableFuels.isEmpty()) {
+        if (available.isEmpty()) {
             return null;
         }
         
-        // Sort fuels by preference
-        availableFuels.sort((a, b) -> {
-            // Prefer coal if setting is enabled
-            if (preferCoalSetting.getValue()) {
-                boolean aIsCoal = a.stack.getItem() == Items.COAL || a.stack.getItem() == Items.CHARCOAL;
-                boolean bIsCoal = b.stack.getItem() == Items.COAL || b.stack.getItem() == Items.CHARCOAL;
-                if (aIsCoal && !bIsCoal) return -1;
-                if (!aIsCoal && bIsCoal) return 1;
+        // Stable order so the same inventory hits the solver's cache
+        List<FuelSolver.Fuel> fuels = new ArrayList<>();
+        List<FuelSolver.Fuel> coal = new ArrayList<>();
+        available.forEach((item, count) -> fuels.add(new FuelSolver.Fuel(
+            item, FurnaceTimes.getBurnTime(handler, item), count)));
+        fuels.sort(Comparator.comparingInt(fuel -> Registries.ITEM.getRawId(fuel.item())));
+        for (FuelSolver.Fuel fuel : fuels) {
+            if (fuel.item() == Items.COAL || fuel.item() == Items.CHARCOAL) coal.add(fuel);
+        }
+        
+        FuelSolver.Solution solution = null;
+        if (preferCoalSetting.getValue() && !coal.isEmpty()) {
+            solution = FuelSolver.solve(ticksNeeded, coal);
+            if (solution.waste() < 0 && coal.size() < fuels.size()) {
+                solution = null;
             }
-            
-            // Prefer fuels that waste less
-            int aWaste = calculateWaste(a, ticksNeeded);
-            int bWaste = calculateWaste(b, ticksNeeded);
-            return Integer.compare(aWaste, bWaste);
-        });
+        }
+        if (solution == null) {
+            solution = FuelSolver.solve(ticksNeeded, fuels);
+        }
+        if (solution.isEmpty()) {
+            return null;
+        }
+        
+        var first = solution.counts().entrySet().iterator().next();
+        Item item = first.getKey();
+        int count = first.getValue();
         
-        // Calculate how many of the best fuel we need
-        FuelSource best = availableFuels.get(0);
-        int fuelNeeded = (int) Math.ceil((double) ticksNeeded / best.burnTime);
-        fuelNeeded = Math.min(fuelNeeded, best.stack.getCount());
+        // Don't overfill the fuel slot
+        ItemStack sample = currentFuel.isEmpty() ? samples.get(item) : currentFuel;
+        int room = handler.getSlot(1).getMaxItemCount(sample) - currentFuel.getCount();
+        count = Math.min(count, room);
+        if (count <= 0) {
+            return null;
+        }
         
-        return new FuelSource(best.slotIndex, 
-            new ItemStack(best.stack.getItem(), fuelNeeded), 
-            best.burnTime);
+        BoosterClient.LOGGER.debug("Fuel plan: {} ({} ticks needed, {} wasted)",
+            solution.counts(), ticksNeeded, Math.max(0, solution.waste()));
+        return new FuelPlan(sample, count);
     }
     
     /**
-     * Calculates fuel waste for comparison.
+     * Moves the planned amount of fuel from inventory to the furnace fuel slot.
+     * Whole stacks are placed with two clicks, and part of a stack by right-click halving.
      */
-    private int calculateWaste(FuelSource fuel, int ticksNeeded) {
-        int countNeeded = (int) Math.ceil((double) ticksNeeded / fuel.burnTime);
-        countNeeded = Math.min(countNeeded, fuel.stack.getCount());
-        int totalTicks = countNeeded * fuel.burnTime;
-        return totalTicks - ticksNeeded;
+    private void moveFuelToFurnace(MinecraftClient client, AbstractFurnaceScreenHandler handler, FuelPlan plan) {
+        if (client.interactionManager == null || client.player == null) return;
+        
+        ClickBatch batch = new ClickBatch("smart_fuel", handler);
+        int remaining = appendFuelClicks(batch, handler, plan);
+        
+        if (smartFuelButton != null) {
+            batch.onProgress(smartFuelButton::updateProgress);
+        }
+        ClickScheduler.getInstance().submit(batch);
+        
+        BoosterClient.LOGGER.info("Added {} {} as fuel", plan.count() - remaining,
+            Registries.ITEM.getId(plan.item()));
     }
     
     /**
-     * Moves fuel from inventory to furnace fuel slot.
+     * Adds the clicks placing the planned fuel to a batch.
+     *
+     * @return The number of planned items that weren't found in the inventory
      */
-    private void moveFuelToFurnace(MinecraftClient client, AbstractFurnaceScreenHandler handler, FuelSource fuel) {
-        if (client.interactionManager == null || client.player == null) return;
-        
-        int syncId = handler.syncId;
+    private int appendFuelClicks(ClickBatch batch, AbstractFurnaceScreenHandler handler, FuelPlan plan) {
         int fuelSlot = 1; // Furnace fuel slot
         
-        // Pick up the fuel from inventory
-        client.interactionManager.clickSlot(syncId, fuel.slotIndex, 0, SlotActionType.PICKUP, client.player);
-        
-        // Calculate how many items we actually need
-        int countNeeded = fuel.stack.getCount();
-        ItemStack currentCursor = handler.getCursorStack();
-        
-        if (currentCursor.getCount() > countNeeded) {
-            // We have more than we need, place the exact amount
-            // First put all in fuel slot
-            client.interactionManager.clickSlot(syncId, fuelSlot, 0, SlotActionType.PICKUP, client.player);
-            
-            // If we put too much, take some back
-            // This is simplified - for exact amounts you'd need right-click placement
-        } else {
-            // Put all fuel in the fuel slot
-            client.interactionManager.clickSlot(syncId, fuelSlot, 0, SlotActionType.PICKUP, client.player);
+        int remaining = plan.count();
+        for (int i = 3; i < handler.slots.size() && remaining > 0; i++) {
+            ItemStack stack = handler.getSlot(i).getStack();
+            if (stack.isEmpty() || !ItemStack.areItemsAndComponentsEqual(stack, plan.sample())) continue;
             
-            // If we still have cursor items, put them back
-            if (!handler.getCursorStack().isEmpty()) {
-                client.interactionManager.clickSlot(syncId, fuel.slotIndex, 0, SlotActionType.PICKUP, client.player);
-            }
+            remaining -= batch.move(i, stack.getCount(), fuelSlot, remaining);
         }
-        
-        BoosterClient.LOGGER.info("Added {} {} as fuel", fuel.stack.getCount(), 
-            Registries.ITEM.getId(fuel.stack.getItem()));
+        return remaining;
     }
     
     @Override
@@ -350,17 +313,14 @@ public class SmartFuelModule extends GUIModule {
     }
     
     /**
-     * Fuel source data.
+     * Fuel to add to the fuel slot now.
+     *
+     * @param sample A stack of the fuel; only stacks with the same item and components are used
+     * @param count  Number of items to add
      */
-    private static class FuelSource {
-        int slotIndex;
-        ItemStack stack;
-        int burnTime;
-        
-        FuelSource(int slotIndex, ItemStack stack, int burnTime) {
-            this.slotIndex = slotIndex;
-            this.stack = stack;
-            this.burnTime = burnTime;
+    private record FuelPlan(ItemStack sample, int count) {
+        Item item() {
+            return sample.getItem();
         }
     }
 }
@@ -107,7 +107,8 @@ public class SortContainerModule extends GUIModule {
      * Performs the sort operation.
      */
     private void performSort(HandledScreen<?> screen, SortMode mode) {
-        SortingUtils.sortContainer(screen.getScreenHandler(), mode);
+        SortingUtils.sortContainer(screen.getScreenHandler(), mode,
+            sortButton != null ? sortButton::updateProgress : null);
     }
     
     /**
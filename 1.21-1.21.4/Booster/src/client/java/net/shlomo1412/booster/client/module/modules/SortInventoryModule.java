@@ -139,7 +139,8 @@ public class SortInventoryModule extends GUIModule {
         SortingUtils.sortPlayerInventory(
             screen.getScreenHandler(), 
             mode, 
-            includeHotbarSetting.getValue()
+            includeHotbarSetting.getValue(),
+            sortButton != null ? sortButton::updateProgress : null
         );
     }
     
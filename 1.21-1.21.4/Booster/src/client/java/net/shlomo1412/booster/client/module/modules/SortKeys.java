@@ -0,0 +1,141 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Extracts sort keys from stacks once per sort and orders the stacks by packed primitive keys.
+ * <p>
+ * Names are flattened once and compared through locale-aware collation keys. Every key is then
+ * reduced to its rank among the stacks being sorted, so up to three keys and the stack index fit
+ * into one {@code long} and the whole sort is a single {@link Arrays#sort(long[])}.
+ */
+final class SortKeys {
+
+    private static final int FIELD_MASK = 0xFFFF;
+    // Highest value of the top field that keeps packed keys positive
+    private static final int MAX_FIELD = 0x7FFF;
+
+    private static Collator collator;
+    private static String collatorLanguage;
+
+    private SortKeys() {
+    }
+
+    /**
+     * Orders stacks according to a sort mode.
+     *
+     * @param stacks The stacks to sort (non-empty)
+     * @param mode The sorting mode
+     * @return Indices into {@code stacks} in sorted order
+     */
+    static int[] order(List<ItemStack> stacks, SortMode mode) {
+        int n = stacks.size();
+        int[] rawIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            rawIds[i] = Registries.ITEM.getRawId(stacks.get(i).getItem());
+        }
+
+        int[] nameRanks = rankNames(stacks);
+        int[] rawIdRanks = rank(rawIds);
+        int[] creativeRanks = null;
+        if (mode == SortMode.CREATIVE_GROUPS) {
+            int[] creativeIndex = CreativeTabIndex.getIndex();
+            int[] creativeOrders = new int[n];
+            for (int i = 0; i < n; i++) {
+                creativeOrders[i] = CreativeTabIndex.getOrder(creativeIndex, rawIds[i]);
+            }
+            creativeRanks = rank(creativeOrders);
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Larger stacks first among otherwise equal items
+            int countDesc = MAX_FIELD - Math.min(stacks.get(i).getCount(), MAX_FIELD);
+            keys[i] = switch (mode) {
+                case NAME, ROWS, COLUMNS -> pack(nameRanks[i], rawIdRanks[i], countDesc, i);
+                case COUNT -> pack(countDesc, nameRanks[i], rawIdRanks[i], i);
+                case RAW_ID -> pack(rawIdRanks[i], countDesc, 0, i);
+                case CREATIVE_GROUPS -> pack(creativeRanks[i], nameRanks[i], countDesc, i);
+            };
+        }
+
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) (keys[i] & FIELD_MASK);
+        }
+        return order;
+    }
+
+    private static long pack(int primary, int secondary, int tertiary, int index) {
+        return ((long) primary << 48) | ((long) secondary << 32) | ((long) tertiary << 16) | index;
+    }
+
+    /**
+     * Replaces each value with its rank among the distinct values.
+     */
+    private static int[] rank(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+
+        int[] ranks = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ranks[i] = Arrays.binarySearch(sorted, 0, distinct, values[i]);
+        }
+        return ranks;
+    }
+
+    /**
+     * Ranks the display names of the stacks using collation keys, computing each name once.
+     */
+    private static int[] rankNames(List<ItemStack> stacks) {
+        Collator nameCollator = getCollator();
+        int n = stacks.size();
+        CollationKey[] keys = new CollationKey[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = nameCollator.getCollationKey(stacks.get(i).getName().getString());
+        }
+
+        CollationKey[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sorted[i].compareTo(sorted[distinct - 1]) != 0) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+
+        int[] ranks = new int[n];
+        for (int i = 0; i < n; i++) {
+            ranks[i] = Arrays.binarySearch(sorted, 0, distinct, keys[i]);
+        }
+        return ranks;
+    }
+
+    /**
+     * Gets a case-insensitive collator for the current game language.
+     */
+    private static Collator getCollator() {
+        String language = MinecraftClient.getInstance().getLanguageManager().getLanguage();
+        if (collator == null || !language.equals(collatorLanguage)) {
+            collator = Collator.getInstance(Locale.forLanguageTag(language.replace('_', '-')));
+            collator.setStrength(Collator.SECONDARY);
+            collatorLanguage = language;
+        }
+        return collator;
+    }
+}
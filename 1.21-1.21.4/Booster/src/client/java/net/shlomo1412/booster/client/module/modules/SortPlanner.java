@@ -0,0 +1,318 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.item.ItemStack;
+import net.shlomo1412.booster.client.inventory.ItemKey;
+
+import java.util.*;
+
+/**
+ * Plans the clicks needed to rearrange a group of slots into a sorted layout.
+ * <p>
+ * The target layout is treated as a permutation of the current one and split into cycles.
+ * Each cycle is walked with the cursor: pick up the first stack, then every click places the
+ * held stack into its target slot and picks up the stack that was there. A cycle of length k
+ * costs k+1 clicks, or k clicks when it passes through an empty slot, compared to 3 clicks per
+ * out-of-place stack for swap-based sorting.
+ * <p>
+ * Positions are indices into the ordered list of target slots, not slot IDs.
+ */
+public final class SortPlanner {
+
+    private SortPlanner() {
+    }
+
+    /**
+     * The result of planning a sort.
+     *
+     * @param clicks       Positions to left-click (PICKUP) in order
+     * @param legacyClicks Clicks the swap-based strategy would have needed for the same layout
+     * @param complete     Whether the plan reaches the full target layout
+     */
+    public record Plan(int[] clicks, int legacyClicks, boolean complete) {
+        public int clickCount() {
+            return clicks.length;
+        }
+    }
+
+    /**
+     * Plans the clicks that turn the current layout into the desired one.
+     *
+     * @param current The current stack at each position (empty stacks allowed)
+     * @param desired The sorted stacks; position i receives desired[i], remaining positions end up empty.
+     *                Must contain the same stacks as {@code current}.
+     * @return The click plan
+     */
+    public static Plan plan(ItemStack[] current, List<ItemStack> desired) {
+        int n = current.length;
+        int[] src = new int[n];
+        Arrays.fill(src, -1);
+        boolean[] used = new boolean[n];
+        int legacyClicks = 0;
+
+        // Pass 1: keep stacks that are already where they belong
+        for (int i = 0; i < n; i++) {
+            ItemStack want = i < desired.size() ? desired.get(i) : ItemStack.EMPTY;
+            if (ItemStack.areEqual(current[i], want)) {
+                src[i] = i;
+                used[i] = true;
+            } else if (!want.isEmpty()) {
+                legacyClicks += 3;
+            }
+        }
+
+        // Group the remaining sources by item type
+        Map<ItemKey, List<Integer>> sourcesByKind = new HashMap<>();
+        Deque<Integer> emptySources = new ArrayDeque<>();
+        for (int j = 0; j < n; j++) {
+            if (used[j]) continue;
+            if (current[j].isEmpty()) {
+                emptySources.add(j);
+            } else {
+                sourcesByKind.computeIfAbsent(ItemKey.of(current[j]), k -> new ArrayList<>()).add(j);
+            }
+        }
+
+        // Pass 2: assign a source of the same item type and count to every other position
+        for (int i = 0; i < n; i++) {
+            if (src[i] != -1) continue;
+            ItemStack want = i < desired.size() ? desired.get(i) : ItemStack.EMPTY;
+            Integer source = want.isEmpty() ? emptySources.poll() : takeSource(sourcesByKind, current, want);
+            if (source == null) {
+                // Desired layout doesn't match the current contents
+                return new Plan(new int[0], legacyClicks, false);
+            }
+            src[i] = source;
+        }
+
+        int[] dest = new int[n];
+        for (int i = 0; i < n; i++) {
+            dest[src[i]] = i;
+        }
+
+        Walker walker = new Walker(current, dest);
+        for (int i = 0; i < n; i++) {
+            walker.settled[i] = src[i] == i;
+        }
+
+        for (int start = 0; start < n; start++) {
+            if (walker.settled[start]) continue;
+
+            List<Integer> cycle = new ArrayList<>();
+            int u = start;
+            do {
+                cycle.add(u);
+                u = dest[u];
+            } while (u != start);
+
+            boolean hasEmpty = false;
+            for (int node : cycle) {
+                if (current[node].isEmpty()) {
+                    hasEmpty = true;
+                    // The slot this empty moves into must end up empty: walk from there until the next empty slot
+                    int origin = dest[node];
+                    if (!current[origin].isEmpty()) {
+                        walker.walk(origin);
+                    }
+                }
+            }
+
+            if (!hasEmpty) {
+                // Start where a partial stack would otherwise be merged into a stack of the same item,
+                // since the start slot is empty when the cursor comes back to it
+                int origin = start;
+                for (int node : cycle) {
+                    if (isMergeHop(current[node], current[dest[node]])) {
+                        origin = dest[node];
+                        break;
+                    }
+                }
+                walker.walk(origin);
+            }
+
+            for (int node : cycle) {
+                walker.settled[node] = true;
+            }
+        }
+
+        return new Plan(walker.toArray(), legacyClicks, walker.complete);
+    }
+
+    /**
+     * Plans the clicks that merge partial stacks of the same item.
+     * Partial stacks are grouped by item type in one pass; for each type the stacks at the end are
+     * picked up and spread over the earlier ones until every stack but the last one is full.
+     * Full stacks are never touched.
+     *
+     * @param layout Copies of the stacks at each position. Updated in place to the predicted result.
+     * @return Positions to left-click (PICKUP) in order
+     */
+    public static int[] consolidate(ItemStack[] layout) {
+        Map<ItemKey, List<Integer>> partialsByKind = new LinkedHashMap<>();
+        for (int i = 0; i < layout.length; i++) {
+            ItemStack stack = layout[i];
+            if (!stack.isEmpty() && stack.getCount() < stack.getMaxCount()) {
+                partialsByKind.computeIfAbsent(ItemKey.of(stack), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        ClickBuffer clicks = new ClickBuffer(layout.length);
+        for (List<Integer> partials : partialsByKind.values()) {
+            if (partials.size() < 2) continue;
+
+            int receiverIndex = 0;
+            int donorIndex = partials.size() - 1;
+            while (receiverIndex < donorIndex) {
+                int donor = partials.get(donorIndex);
+                ItemStack held = layout[donor];
+                layout[donor] = ItemStack.EMPTY;
+                clicks.add(donor);
+
+                while (!held.isEmpty() && receiverIndex < donorIndex) {
+                    ItemStack receiver = layout[partials.get(receiverIndex)];
+                    int moved = Math.min(held.getCount(), receiver.getMaxCount() - receiver.getCount());
+                    receiver.increment(moved);
+                    held.decrement(moved);
+                    clicks.add(partials.get(receiverIndex));
+                    if (receiver.getCount() >= receiver.getMaxCount()) {
+                        receiverIndex++;
+                    }
+                }
+
+                if (!held.isEmpty()) {
+                    // Every earlier stack is full, put the rest back
+                    layout[donor] = held;
+                    clicks.add(donor);
+                }
+                donorIndex--;
+            }
+        }
+
+        return clicks.toArray();
+    }
+
+    private static Integer takeSource(Map<ItemKey, List<Integer>> sourcesByKind, ItemStack[] current, ItemStack want) {
+        List<Integer> candidates = sourcesByKind.get(ItemKey.of(want));
+        if (candidates == null) return null;
+        for (int k = 0; k < candidates.size(); k++) {
+            if (current[candidates.get(k)].getCount() == want.getCount()) {
+                return candidates.remove(k);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether left-clicking a slot holding {@code slot} while holding {@code cursor}
+     * merges the stacks instead of swapping them.
+     * A full cursor stack onto the same item behaves like a swap, a partial one doesn't.
+     */
+    private static boolean isMergeHop(ItemStack cursor, ItemStack slot) {
+        return !slot.isEmpty()
+                && ItemStack.areItemsAndComponentsEqual(cursor, slot)
+                && cursor.getCount() < cursor.getMaxCount();
+    }
+
+    /**
+     * Walks cycles with the cursor while simulating the slot contents.
+     */
+    private static final class Walker {
+        final ItemStack[] sim;
+        final int[] dest;
+        final boolean[] settled;
+        final ClickBuffer clicks;
+        boolean complete = true;
+
+        Walker(ItemStack[] current, int[] dest) {
+            this.sim = current.clone();
+            this.dest = dest;
+            this.settled = new boolean[current.length];
+            this.clicks = new ClickBuffer(current.length * 2);
+        }
+
+        /**
+         * Picks up the stack at {@code origin} and carries stacks along the permutation
+         * until the cursor is dropped into an empty slot.
+         */
+        void walk(int origin) {
+            click(origin);
+            ItemStack cursor = sim[origin];
+            sim[origin] = ItemStack.EMPTY;
+
+            List<int[]> deferred = new ArrayList<>();
+            int pos = dest[origin];
+            while (!cursor.isEmpty()) {
+                ItemStack there = sim[pos];
+                if (isMergeHop(cursor, there)) {
+                    // Park the held stack, take the slot's stack along, and move the parked one in afterwards
+                    int parking = findParking(pos);
+                    if (parking < 0) {
+                        click(origin);
+                        sim[origin] = cursor;
+                        complete = false;
+                        break;
+                    }
+                    click(parking);
+                    sim[parking] = cursor;
+                    deferred.add(new int[] { parking, pos });
+                    click(pos);
+                    sim[pos] = ItemStack.EMPTY;
+                } else {
+                    click(pos);
+                    sim[pos] = cursor;
+                }
+                cursor = there;
+                pos = dest[pos];
+            }
+
+            for (int[] move : deferred) {
+                click(move[0]);
+                click(move[1]);
+                sim[move[1]] = sim[move[0]];
+                sim[move[0]] = ItemStack.EMPTY;
+            }
+        }
+
+        /**
+         * Finds an empty slot that no pending cycle still needs.
+         */
+        int findParking(int exclude) {
+            for (int i = 0; i < sim.length; i++) {
+                if (i != exclude && settled[i] && sim[i].isEmpty()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void click(int position) {
+            clicks.add(position);
+        }
+
+        int[] toArray() {
+            return clicks.toArray();
+        }
+    }
+
+    /**
+     * Growable list of clicked positions.
+     */
+    private static final class ClickBuffer {
+        private int[] positions;
+        private int size = 0;
+
+        ClickBuffer(int initialCapacity) {
+            this.positions = new int[Math.max(4, initialCapacity)];
+        }
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
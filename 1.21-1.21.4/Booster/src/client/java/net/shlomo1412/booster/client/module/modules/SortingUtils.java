@@ -2,15 +2,15 @@ package net.shlomo1412.booster.client.module.modules;
 
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.entity.player.PlayerInventory;
-import net.minecraft.item.ItemGroup;
-import net.minecraft.item.ItemGroups;
 import net.minecraft.item.ItemStack;
-import net.minecraft.registry.Registries;
 import net.minecraft.screen.ScreenHandler;
 import net.minecraft.screen.slot.Slot;
-import net.minecraft.screen.slot.SlotActionType;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Utility class for sorting items in inventories and containers.
@@ -24,10 +24,13 @@ public class SortingUtils {
      * @param handler The screen handler
      * @param mode The sorting mode
      * @param includeHotbar Whether to include hotbar in sorting
+     * @param onProgress Progress listener for the submitted clicks (may be null)
+     * @return The planned sort, or null if nothing was sorted
      */
-    public static void sortPlayerInventory(ScreenHandler handler, SortMode mode, boolean includeHotbar) {
+    public static SortPlanner.Plan sortPlayerInventory(ScreenHandler handler, SortMode mode, boolean includeHotbar,
+                                                       Consumer<ClickBatch> onProgress) {
         MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null || client.interactionManager == null) return;
+        if (client.player == null || client.interactionManager == null) return null;
         
         // Find player inventory slots
         List<Slot> playerSlots = new ArrayList<>();
@@ -41,7 +44,7 @@ public class SortingUtils {
             }
         }
         
-        sortSlots(handler, playerSlots, mode);
+        return sortSlots(handler, playerSlots, mode, onProgress);
     }
     
     /**
@@ -50,10 +53,13 @@ public class SortingUtils {
      *
      * @param handler The screen handler
      * @param mode The sorting mode
+     * @param onProgress Progress listener for the submitted clicks (may be null)
+     * @return The planned sort, or null if nothing was sorted
      */
-    public static void sortContainer(ScreenHandler handler, SortMode mode) {
+    public static SortPlanner.Plan sortContainer(ScreenHandler handler, SortMode mode,
+                                                 Consumer<ClickBatch> onProgress) {
         MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null || client.interactionManager == null) return;
+        if (client.player == null || client.interactionManager == null) return null;
         
         // Find container slots (non-player inventory slots)
         List<Slot> containerSlots = new ArrayList<>();
@@ -63,35 +69,56 @@ public class SortingUtils {
             }
         }
         
-        sortSlots(handler, containerSlots, mode);
+        return sortSlots(handler, containerSlots, mode, onProgress);
     }
     
     /**
      * Sorts a list of slots according to the given mode.
      */
-    private static void sortSlots(ScreenHandler handler, List<Slot> slots, SortMode mode) {
+    private static SortPlanner.Plan sortSlots(ScreenHandler handler, List<Slot> slots, SortMode mode,
+                                              Consumer<ClickBatch> onProgress) {
         MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null || client.interactionManager == null) return;
+        if (client.player == null || client.interactionManager == null) return null;
         
-        // Collect all items with their original slot IDs
-        List<ItemSlotPair> items = new ArrayList<>();
-        for (Slot slot : slots) {
-            if (slot.hasStack()) {
-                items.add(new ItemSlotPair(slot.getStack().copy(), slot.id));
-            }
-        }
+        // Cursor walks assume an empty cursor to start with
+        if (!handler.getCursorStack().isEmpty()) return null;
         
-        if (items.isEmpty()) return;
+        // The slots don't reflect clicks that are still queued
+        if (ClickScheduler.getInstance().isBusy(handler)) return null;
         
-        // Sort items based on mode
-        Comparator<ItemSlotPair> comparator = getComparator(mode);
-        items.sort(comparator);
+        PlannedSort sort = planSort(handler, slots, mode);
+        if (sort == null) return null;
         
-        // First, collect all items to a temporary storage by picking them up
-        // This simulates the player picking up all items, sorting, then placing back
+        if (onProgress != null) {
+            sort.batch().onProgress(onProgress);
+        }
+        ClickScheduler.getInstance().submit(sort.batch());
+        return sort.plan();
+    }
+    
+    /**
+     * A sort batch together with the plan it was built from.
+     */
+    private record PlannedSort(ClickBatch batch, SortPlanner.Plan plan) {
+    }
+    
+    /**
+     * Plans the sort on the current slot contents.
+     * If the server state diverges while the clicks are sent, the sort is planned again from the
+     * corrected contents.
+     *
+     * @return The planned sort, or null if the slots are empty
+     */
+    private static PlannedSort planSort(ScreenHandler handler, List<Slot> slots, SortMode mode) {
+        // Collect every stack once; consolidation and sorting are planned on these copies
+        ItemStack[] layout = new ItemStack[slots.size()];
+        boolean hasItems = false;
+        for (int i = 0; i < layout.length; i++) {
+            layout[i] = slots.get(i).getStack().copy();
+            hasItems |= !layout[i].isEmpty();
+        }
         
-        // Move items into the sorted order using slot swapping
-        // We'll use a more efficient approach: pickup items, place in order
+        if (!hasItems) return null;
         
         // Create a mapping from slot ID to sorted item
         List<Integer> slotIds = new ArrayList<>();
@@ -117,172 +144,66 @@ public class SortingUtils {
         }
         
         // Perform sorting using pickup/place operations
-        performSort(handler, slots, items, slotIds);
+        PlannedSort sort = performSort(handler, slots, layout, slotIds, mode);
+        sort.batch().onDesync(() -> {
+            PlannedSort replanned = planSort(handler, slots, mode);
+            return replanned != null ? replanned.batch() : null;
+        });
+        return sort;
     }
     
     /**
-     * Performs the actual sorting by moving items.
+     * Plans the actual sorting moves.
+     *
+     * @param layout Copies of the stacks in {@code slots}, in the same order
+     * @param mode The sorting mode
      */
-    private static void performSort(ScreenHandler handler, List<Slot> slots, 
-                                    List<ItemSlotPair> sortedItems, List<Integer> targetSlotIds) {
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null || client.interactionManager == null) return;
+    private static PlannedSort performSort(ScreenHandler handler, List<Slot> slots,
+                                           ItemStack[] layout, List<Integer> targetSlotIds, SortMode mode) {
+        // Both stages are planned on the predicted layout, so they run as one batch
+        ClickBatch batch = new ClickBatch("sort", handler);
         
         // Strategy: 
         // 1. First consolidate stacks (combine partial stacks)
         // 2. Then arrange items in sorted order
         
-        // Step 1: Consolidate stacks
-        consolidateStacks(handler, slots);
-        
-        // Step 2: Re-gather items after consolidation
-        List<ItemSlotPair> currentItems = new ArrayList<>();
-        for (Slot slot : slots) {
-            if (slot.hasStack()) {
-                currentItems.add(new ItemSlotPair(slot.getStack().copy(), slot.id));
-            }
+        // Step 1: Consolidate stacks, updating the layout to the predicted result
+        int[] consolidation = SortPlanner.consolidate(layout);
+        for (int position : consolidation) {
+            batch.pickup(slots.get(position).id);
         }
         
-        // Step 3: Sort the items
-        Comparator<ItemSlotPair> comparator = getComparator(SortMode.NAME); // Use current mode
-        currentItems.sort(comparator);
-        
-        // Step 4: Use bubble-sort style swapping to arrange items
-        // This is network-efficient as it uses swap operations
-        int targetIndex = 0;
-        for (int i = 0; i < targetSlotIds.size() && targetIndex < currentItems.size(); i++) {
-            int targetSlotId = targetSlotIds.get(i);
-            ItemSlotPair desiredItem = currentItems.get(targetIndex);
-            
-            Slot targetSlot = handler.getSlot(targetSlotId);
-            
-            // Check if target slot already has the correct item
-            if (targetSlot.hasStack()) {
-                ItemStack currentStack = targetSlot.getStack();
-                if (ItemStack.areItemsAndComponentsEqual(currentStack, desiredItem.stack) &&
-                    currentStack.getCount() == desiredItem.stack.getCount()) {
-                    targetIndex++;
-                    continue;
-                }
+        // Step 2: Collect the consolidated items
+        List<ItemStack> items = new ArrayList<>();
+        ItemStack[] stacksBySlotId = new ItemStack[handler.slots.size()];
+        for (int i = 0; i < layout.length; i++) {
+            stacksBySlotId[slots.get(i).id] = layout[i];
+            if (!layout[i].isEmpty()) {
+                items.add(layout[i]);
             }
-            
-            // Find where the desired item currently is
-            int sourceSlotId = desiredItem.slotId;
-            if (sourceSlotId != targetSlotId) {
-                // Swap items
-                swapSlots(handler, sourceSlotId, targetSlotId);
-                
-                // Update the slot ID in our tracking
-                for (ItemSlotPair pair : currentItems) {
-                    if (pair.slotId == sourceSlotId) {
-                        pair.slotId = targetSlotId;
-                    } else if (pair.slotId == targetSlotId) {
-                        pair.slotId = sourceSlotId;
-                    }
-                }
-            }
-            
-            targetIndex++;
         }
-    }
-    
-    /**
-     * Consolidates partial stacks by combining them.
-     */
-    private static void consolidateStacks(ScreenHandler handler, List<Slot> slots) {
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null || client.interactionManager == null) return;
         
-        // For each item type, combine partial stacks
-        for (int i = 0; i < slots.size(); i++) {
-            Slot sourceSlot = slots.get(i);
-            if (!sourceSlot.hasStack()) continue;
-            
-            ItemStack sourceStack = sourceSlot.getStack();
-            if (sourceStack.getCount() >= sourceStack.getMaxCount()) continue;
-            
-            // Find other slots with the same item
-            for (int j = i + 1; j < slots.size(); j++) {
-                Slot targetSlot = slots.get(j);
-                if (!targetSlot.hasStack()) continue;
-                
-                ItemStack targetStack = targetSlot.getStack();
-                if (ItemStack.areItemsAndComponentsEqual(sourceStack, targetStack)) {
-                    // Double-click to collect all of this item type to cursor, then place back
-                    // This is the most efficient way to consolidate
-                    client.interactionManager.clickSlot(
-                        handler.syncId, sourceSlot.id, 0, SlotActionType.PICKUP, client.player
-                    );
-                    client.interactionManager.clickSlot(
-                        handler.syncId, sourceSlot.id, 0, SlotActionType.PICKUP_ALL, client.player
-                    );
-                    client.interactionManager.clickSlot(
-                        handler.syncId, sourceSlot.id, 0, SlotActionType.PICKUP, client.player
-                    );
-                    break;
-                }
-            }
+        // Step 3: Sort the items by keys extracted once per item
+        int[] order = SortKeys.order(items, mode);
+        List<ItemStack> desired = new ArrayList<>(order.length);
+        for (int index : order) {
+            desired.add(items.get(index));
         }
-    }
-    
-    /**
-     * Swaps the contents of two slots.
-     */
-    private static void swapSlots(ScreenHandler handler, int slotA, int slotB) {
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null || client.interactionManager == null) return;
         
-        // Pickup from slot A
-        client.interactionManager.clickSlot(
-            handler.syncId, slotA, 0, SlotActionType.PICKUP, client.player
-        );
-        // Place into slot B (picks up what was in B)
-        client.interactionManager.clickSlot(
-            handler.syncId, slotB, 0, SlotActionType.PICKUP, client.player
-        );
-        // Place what was in B into slot A
-        client.interactionManager.clickSlot(
-            handler.syncId, slotA, 0, SlotActionType.PICKUP, client.player
-        );
-    }
-    
-    /**
-     * Gets a comparator for the given sort mode.
-     */
-    private static Comparator<ItemSlotPair> getComparator(SortMode mode) {
-        return switch (mode) {
-            case NAME -> Comparator.comparing((ItemSlotPair p) -> p.stack.getName().getString().toLowerCase());
-            case COUNT -> Comparator.comparingInt((ItemSlotPair p) -> p.stack.getCount()).reversed();
-            case RAW_ID -> Comparator.comparingInt((ItemSlotPair p) -> Registries.ITEM.getRawId(p.stack.getItem()));
-            case CREATIVE_GROUPS -> Comparator.comparingInt((ItemSlotPair p) -> getCreativeTabOrder(p.stack))
-                    .thenComparing((ItemSlotPair p) -> p.stack.getName().getString().toLowerCase());
-            case ROWS, COLUMNS -> Comparator.comparing((ItemSlotPair p) -> p.stack.getName().getString().toLowerCase());
-        };
-    }
-    
-    /**
-     * Gets the creative tab order for an item.
-     * Items in the same tab will be grouped together.
-     */
-    private static int getCreativeTabOrder(ItemStack stack) {
-        // Use a simple hash based on item group
-        // This provides grouping without complex creative tab traversal
-        int rawId = Registries.ITEM.getRawId(stack.getItem());
-        // Group by item category (blocks, tools, combat, food, etc.)
-        // Using raw ID ranges as a simple approximation
-        return rawId / 100; // Groups items roughly by registration order
-    }
-    
-    /**
-     * Helper class to track items and their slot IDs.
-     */
-    private static class ItemSlotPair {
-        final ItemStack stack;
-        int slotId;
+        // Step 4: Plan the moves as permutation cycles and walk each cycle with the cursor
+        ItemStack[] current = new ItemStack[targetSlotIds.size()];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = stacksBySlotId[targetSlotIds.get(i)];
+        }
         
-        ItemSlotPair(ItemStack stack, int slotId) {
-            this.stack = stack;
-            this.slotId = slotId;
+        SortPlanner.Plan plan = SortPlanner.plan(current, desired);
+        for (int position : plan.clicks()) {
+            batch.pickup(targetSlotIds.get(position));
         }
+        
+        BoosterClient.LOGGER.info("Sort planned {} clicks (swap-based sorting: {}) after {} consolidation clicks{}",
+                plan.clickCount(), plan.legacyClicks(), consolidation.length,
+                plan.complete() ? "" : ", layout incomplete");
+        return new PlannedSort(batch, plan);
     }
 }
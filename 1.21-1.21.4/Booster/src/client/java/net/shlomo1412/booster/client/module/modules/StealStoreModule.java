@@ -4,15 +4,22 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.screen.ScreenHandler;
 import net.minecraft.screen.slot.Slot;
-import net.minecraft.screen.slot.SlotActionType;
+import net.shlomo1412.booster.client.BoosterClient;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+import net.shlomo1412.booster.client.inventory.ClickScheduler;
 import net.shlomo1412.booster.client.module.GUIModule;
+import net.shlomo1412.booster.client.module.ModuleManager;
+import net.shlomo1412.booster.client.module.ModuleSetting;
 import net.shlomo1412.booster.client.module.WidgetSettings;
 import net.shlomo1412.booster.client.widget.BoosterButton;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 /**
  * Module that adds Steal and Store buttons to container screens.
@@ -25,6 +32,33 @@ public class StealStoreModule extends GUIModule {
     public static final String STORE_WIDGET_ID = "store";
     public static final String STEAL_WIDGET_ID = "steal";
     
+    /**
+     * Which stacks the buttons move.
+     */
+    public enum TransferFilter {
+        ALL("All Items"),
+        EXISTING("Only Existing"),      // Only item types already in the destination
+        SEARCH("Only Search Matches");  // Only slots matching the search bar
+        
+        private final String displayName;
+        
+        TransferFilter(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
+    // Module settings
+    private final ModuleSetting.EnumSetting<TransferFilter> transferFilter;
+    
     private BoosterButton stealButton;
     private BoosterButton storeButton;
     
@@ -34,11 +68,21 @@ public class StealStoreModule extends GUIModule {
             "Steal/Store",
             "Adds buttons to quickly move items between container and inventory.\n" +
             "⬇ Steal: Move all items from container to your inventory.\n" +
-            "⬆ Store: Move all items from your inventory to container.",
+            "⬆ Store: Move all items from your inventory to container.\n" +
+            "Optionally only move items already in the destination, or only search matches.",
             true,
             20,  // Default button width
             20   // Default button height
         );
+        
+        this.transferFilter = new ModuleSetting.EnumSetting<>(
+            "transfer_filter",
+            "Transfer Filter",
+            "Move all items, only item types already in the destination, or only search matches",
+            TransferFilter.ALL,
+            TransferFilter.class
+        );
+        registerSetting(transferFilter);
     }
     
     /**
@@ -100,55 +144,101 @@ public class StealStoreModule extends GUIModule {
     }
     
     /**
-     * Steals all items from the container to player inventory.
+     * Steals the items from the container to player inventory.
      */
     private void stealItems(HandledScreen<?> screen) {
+        transfer(screen, false, stealButton);
+    }
+    
+    /**
+     * Stores the items from player inventory to the container.
+     */
+    private void storeItems(HandledScreen<?> screen) {
+        transfer(screen, true, storeButton);
+    }
+    
+    private void transfer(HandledScreen<?> screen, boolean store, BoosterButton button) {
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.player == null || client.interactionManager == null) return;
         
         var handler = screen.getScreenHandler();
+        if (ClickScheduler.getInstance().isBusy(handler)) return;
         
-        for (Slot slot : handler.slots) {
-            // Skip player inventory slots
-            if (slot.inventory instanceof PlayerInventory) continue;
-            
-            if (slot.hasStack()) {
-                // Shift-click to move to player inventory
-                client.interactionManager.clickSlot(
-                    handler.syncId,
-                    slot.id,
-                    0,
-                    SlotActionType.QUICK_MOVE,
-                    client.player
-                );
-            }
+        ClickBatch batch = planTransfer(handler, store);
+        if (batch == null) return;
+        
+        if (button != null) {
+            batch.onProgress(button::updateProgress);
         }
+        ClickScheduler.getInstance().submit(batch);
     }
     
     /**
-     * Stores all items from player inventory to the container.
+     * Plans the transfer on the current slot contents.
+     * If the server state diverges while the clicks are sent, the transfer is planned again.
+     *
+     * @param store true to move from the player inventory to the container, false for the other way
+     * @return The batch, or null if nothing can be moved
      */
-    private void storeItems(HandledScreen<?> screen) {
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null || client.interactionManager == null) return;
+    private ClickBatch planTransfer(ScreenHandler handler, boolean store) {
+        List<Slot> containerSlots = new ArrayList<>();
+        List<Slot> playerSlots = new ArrayList<>();
+        for (Slot slot : handler.slots) {
+            if (slot.inventory instanceof PlayerInventory) {
+                playerSlots.add(slot);
+            } else {
+                containerSlots.add(slot);
+            }
+        }
         
-        var handler = screen.getScreenHandler();
+        // Shift-clicked stacks fill the container from the start and the player inventory from the end
+        List<Slot> sources = store ? playerSlots : containerSlots;
+        List<Slot> destinations = store ? containerSlots : playerSlots.reversed();
         
-        for (Slot slot : handler.slots) {
-            // Only process player inventory slots (not hotbar for now)
-            if (!(slot.inventory instanceof PlayerInventory)) continue;
-            
-            if (slot.hasStack()) {
-                // Shift-click to move to container
-                client.interactionManager.clickSlot(
-                    handler.syncId,
-                    slot.id,
-                    0,
-                    SlotActionType.QUICK_MOVE,
-                    client.player
-                );
+        TransferFilter mode = transferFilter.getValue();
+        TransferPlanner.Plan plan = TransferPlanner.plan(handler, sources, destinations,
+                mode == TransferFilter.EXISTING, createFilter(handler, mode));
+        BoosterClient.LOGGER.info("{} planned {} clicks (one shift-click per stack: {}), {} stacks don't fit",
+                store ? "Store" : "Steal", plan.clicks(), plan.legacyClicks(), plan.skipped());
+        if (plan.isEmpty()) return null;
+        
+        ClickBatch batch = new ClickBatch(store ? "store" : "steal", handler);
+        for (TransferPlanner.Step step : plan.steps()) {
+            switch (step.type()) {
+                case QUICK_MOVE -> batch.quickMove(step.slotId());
+                case GATHER -> batch.pickup(step.slotId())
+                        .pickupAll(step.slotId())
+                        .pickup(step.targetSlotId())
+                        .pickupIfHolding(step.slotId());  // Put back anything the target didn't take
             }
         }
+        batch.onDesync(() -> planTransfer(handler, store));
+        return batch;
+    }
+    
+    /**
+     * Creates the filter accepting the source slots that may be moved.
+     * Without an active search, the search filter accepts every slot.
+     */
+    private IntPredicate createFilter(ScreenHandler handler, TransferFilter mode) {
+        if (mode != TransferFilter.SEARCH) {
+            return slotId -> true;
+        }
+        
+        SearchBarModule searchBar = ModuleManager.getInstance().getModule(SearchBarModule.class);
+        BitSet matches = searchBar != null && searchBar.isEnabled() ? searchBar.getMatchingSlots(handler) : null;
+        if (matches == null) {
+            return slotId -> true;
+        }
+        BitSet snapshot = (BitSet) matches.clone();
+        return snapshot::get;
+    }
+    
+    /**
+     * Gets the transfer filter setting.
+     */
+    public ModuleSetting.EnumSetting<TransferFilter> getTransferFilterSetting() {
+        return transferFilter;
     }
     
     @Override
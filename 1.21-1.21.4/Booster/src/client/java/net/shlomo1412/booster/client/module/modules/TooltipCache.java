@@ -0,0 +1,75 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.tooltip.TooltipType;
+import net.minecraft.text.Text;
+import net.shlomo1412.booster.client.inventory.ItemKey;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of normalized tooltip text (lore, enchantments, effects...) per item type.
+ * <p>
+ * Building a tooltip is far more expensive than reading a name, so each item and component
+ * combination is only built once per session and language. The least recently used entries are
+ * dropped once the cache is full.
+ */
+final class TooltipCache {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final Map<ItemKey, String> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ItemKey, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static String cachedLanguage;
+
+    private TooltipCache() {
+    }
+
+    /**
+     * Gets the searchable tooltip text of a stack, building it on a cache miss.
+     *
+     * @return Lowercase tooltip lines joined by newlines, or an empty string for empty stacks
+     */
+    static String get(ItemStack stack) {
+        ItemKey key = ItemKey.of(stack);
+        if (key == null) {
+            return "";
+        }
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        String language = client.getLanguageManager().getLanguage();
+        if (!language.equals(cachedLanguage)) {
+            cache.clear();
+            cachedLanguage = language;
+        }
+
+        String text = cache.get(key);
+        if (text == null) {
+            text = build(client, key.getStack());
+            cache.put(key, text);
+        }
+        return text;
+    }
+
+    private static String build(MinecraftClient client, ItemStack stack) {
+        Item.TooltipContext context = Item.TooltipContext.create(client.world);
+        List<Text> lines = stack.getTooltip(context, client.player, TooltipType.BASIC);
+
+        StringBuilder builder = new StringBuilder();
+        for (Text line : lines) {
+            if (!builder.isEmpty()) {
+                builder.append('\n');
+            }
+            builder.append(line.getString());
+        }
+        return SearchIndex.normalize(builder.toString());
+    }
+}
@@ -0,0 +1,216 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
+import net.shlomo1412.booster.client.inventory.ItemKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Plans the clicks that move stacks from one side of a screen to the other.
+ * <p>
+ * The transfer is simulated on copies of every slot in the handler, following the order in which
+ * the server inserts shift-clicked stacks (matching stacks first, then empty slots), so stacks that
+ * would not fit anywhere are skipped instead of clicked. Where many partial stacks of one item lie
+ * on the source side, they are gathered on the cursor with a double-click (PICKUP_ALL) and placed
+ * into one empty destination slot, which takes 3 clicks instead of one shift-click per stack.
+ */
+public final class TransferPlanner {
+
+    // Minimum number of source stacks a gather has to empty to be cheaper than shift-clicking them
+    private static final int GATHER_MIN_STACKS = 4;
+
+    private TransferPlanner() {
+    }
+
+    public enum StepType {
+        QUICK_MOVE, // Shift-click the source slot
+        GATHER      // Pick up the source slot, double-click it, place the cursor into the target slot
+    }
+
+    /**
+     * One gesture of a transfer.
+     *
+     * @param type         The gesture
+     * @param slotId       The source slot ID
+     * @param targetSlotId The destination slot ID for gathers, -1 for shift-clicks
+     */
+    public record Step(StepType type, int slotId, int targetSlotId) {
+    }
+
+    /**
+     * The result of planning a transfer.
+     *
+     * @param steps        Gestures in order
+     * @param clicks       Clicks needed for the gestures
+     * @param legacyClicks Clicks one shift-click per occupied source slot would have needed
+     * @param skipped      Source stacks left in place because nothing of them fits
+     */
+    public record Plan(List<Step> steps, int clicks, int legacyClicks, int skipped) {
+        public boolean isEmpty() {
+            return steps.isEmpty();
+        }
+    }
+
+    /**
+     * Plans moving the accepted source stacks to the destination slots.
+     *
+     * @param handler       The open handler
+     * @param sources       Slots to move stacks out of
+     * @param destinations  Slots the stacks are moved into, in the handler's shift-click order
+     * @param onlyExisting  Only move items that are already somewhere in the destination
+     * @param filter        Accepts source slot IDs that may be moved
+     * @return The plan
+     */
+    public static Plan plan(ScreenHandler handler, List<Slot> sources, List<Slot> destinations,
+                            boolean onlyExisting, IntPredicate filter) {
+        int size = handler.slots.size();
+        ItemStack[] stacks = new ItemStack[size];
+        for (int i = 0; i < size; i++) {
+            stacks[i] = handler.getSlot(i).getStack().copy();
+        }
+        boolean[] isSource = new boolean[size];
+        for (Slot slot : sources) {
+            isSource[slot.id] = true;
+        }
+
+        // Item types already in the destination, taken once before anything moves
+        Set<ItemKey> destinationKeys = new HashSet<>();
+        if (onlyExisting) {
+            for (Slot slot : destinations) {
+                ItemKey key = ItemKey.of(stacks[slot.id]);
+                if (key != null) destinationKeys.add(key);
+            }
+        }
+
+        List<Step> steps = new ArrayList<>();
+        int clicks = 0;
+        int legacyClicks = 0;
+        int skipped = 0;
+        for (Slot source : sources) {
+            ItemStack stack = stacks[source.id];
+            if (stack.isEmpty()) continue;
+            legacyClicks++;
+            if (!filter.test(source.id)) continue;
+
+            ItemKey key = ItemKey.of(stack);
+            if (onlyExisting && !destinationKeys.contains(key)) continue;
+
+            int target = tryGather(stacks, isSource, filter, source.id, key, destinations);
+            if (target >= 0) {
+                steps.add(new Step(StepType.GATHER, source.id, target));
+                clicks += 3;
+            } else if (simulateQuickMove(stacks, source.id, destinations)) {
+                steps.add(new Step(StepType.QUICK_MOVE, source.id, -1));
+                clicks++;
+            } else {
+                skipped++;
+            }
+        }
+        return new Plan(steps, clicks, legacyClicks, skipped);
+    }
+
+    /**
+     * Simulates a shift-click: the stack is merged into matching destination stacks, then put
+     * into empty destination slots, until it is used up or nothing has room left.
+     *
+     * @return Whether any item would move
+     */
+    private static boolean simulateQuickMove(ItemStack[] stacks, int sourceId, List<Slot> destinations) {
+        ItemStack stack = stacks[sourceId];
+        int before = stack.getCount();
+
+        for (Slot slot : destinations) {
+            if (stack.isEmpty()) break;
+            ItemStack existing = stacks[slot.id];
+            if (existing.isEmpty() || !ItemStack.areItemsAndComponentsEqual(existing, stack)) continue;
+            int room = slot.getMaxItemCount(existing) - existing.getCount();
+            if (room > 0) {
+                int moved = Math.min(room, stack.getCount());
+                existing.increment(moved);
+                stack.decrement(moved);
+            }
+        }
+        for (Slot slot : destinations) {
+            if (stack.isEmpty()) break;
+            if (!stacks[slot.id].isEmpty() || !slot.canInsert(stack)) continue;
+            int moved = Math.min(slot.getMaxItemCount(stack), stack.getCount());
+            stacks[slot.id] = stack.split(moved);
+        }
+
+        if (stack.isEmpty()) {
+            stacks[sourceId] = ItemStack.EMPTY;
+        }
+        return stack.getCount() < before;
+    }
+
+    /**
+     * Simulates gathering a stack's item type on the cursor and placing it into an empty
+     * destination slot. The simulation is only applied if the double-click would take items from
+     * accepted source slots alone and empties enough of them to be worth it.
+     *
+     * @return The destination slot ID, or -1 if the stack should be shift-clicked instead
+     */
+    private static int tryGather(ItemStack[] stacks, boolean[] isSource, IntPredicate filter, int sourceId,
+                                 ItemKey key, List<Slot> destinations) {
+        int maxCount = key.getMaxCount();
+        ItemStack first = stacks[sourceId];
+        if (maxCount <= 1 || first.getCount() >= maxCount) {
+            return -1;
+        }
+
+        // Replay the double-click on copies: two passes in slot order, partial stacks first
+        int[] taken = new int[stacks.length];
+        int cursor = first.getCount();
+        for (int pass = 0; pass < 2 && cursor < maxCount; pass++) {
+            for (int i = 0; i < stacks.length && cursor < maxCount; i++) {
+                ItemStack stack = stacks[i];
+                int available = stack.getCount() - taken[i];
+                if (i == sourceId || available <= 0 || !key.matches(stack)) continue;
+                if (pass == 0 && stack.getCount() == stack.getMaxCount()) continue;
+                if (!isSource[i] || !filter.test(i)) {
+                    // Would pull items back out of the destination, other slots or filtered-out slots
+                    return -1;
+                }
+                int take = Math.min(maxCount - cursor, available);
+                taken[i] += take;
+                cursor += take;
+            }
+        }
+
+        int emptied = 1;
+        for (int i = 0; i < stacks.length; i++) {
+            if (taken[i] > 0 && taken[i] == stacks[i].getCount()) emptied++;
+        }
+        if (emptied < GATHER_MIN_STACKS) {
+            return -1;
+        }
+
+        int target = -1;
+        for (Slot slot : destinations) {
+            if (stacks[slot.id].isEmpty() && slot.canInsert(first)
+                    && slot.getMaxItemCount(first) >= cursor) {
+                target = slot.id;
+                break;
+            }
+        }
+        if (target < 0) {
+            return -1;
+        }
+
+        for (int i = 0; i < stacks.length; i++) {
+            if (taken[i] > 0) {
+                stacks[i].decrement(taken[i]);
+                if (stacks[i].isEmpty()) stacks[i] = ItemStack.EMPTY;
+            }
+        }
+        stacks[target] = first.copyWithCount(cursor);
+        stacks[sourceId] = ItemStack.EMPTY;
+        return target;
+    }
+}
@@ -0,0 +1,91 @@
+package net.shlomo1412.booster.client.module.modules;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trigram index over slot names, used for fuzzy search.
+ * <p>
+ * Every name is split into overlapping three-character grams (padded with spaces so word
+ * boundaries count), packed into a {@code long}. Postings map each gram to the slots containing
+ * it, so scoring a query term only touches the slots sharing at least one gram with it.
+ */
+final class TrigramIndex {
+
+    private static final long[] NO_GRAMS = new long[0];
+
+    // Per slot ID: sorted, distinct grams of the slot's name
+    private final long[][] slotGrams;
+    private final Map<Long, BitSet> postings = new HashMap<>();
+
+    TrigramIndex(int size) {
+        this.slotGrams = new long[size][];
+        Arrays.fill(slotGrams, NO_GRAMS);
+    }
+
+    /**
+     * Indexes a slot's name, replacing what was indexed for it before.
+     *
+     * @param text The normalized name, or null to remove the slot
+     */
+    void set(int slotId, String text) {
+        for (long gram : slotGrams[slotId]) {
+            BitSet slots = postings.get(gram);
+            if (slots != null) {
+                slots.clear(slotId);
+                if (slots.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+
+        long[] grams = text != null ? trigrams(text) : NO_GRAMS;
+        slotGrams[slotId] = grams;
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new BitSet(slotGrams.length)).set(slotId);
+        }
+    }
+
+    /**
+     * Counts, for every slot, how many of the given grams its name contains.
+     *
+     * @param grams  Distinct grams of a query term
+     * @param counts Per slot ID counts, cleared and filled by this method
+     */
+    void countShared(long[] grams, int[] counts) {
+        Arrays.fill(counts, 0);
+        for (long gram : grams) {
+            BitSet slots = postings.get(gram);
+            if (slots == null) continue;
+            for (int i = slots.nextSetBit(0); i >= 0; i = slots.nextSetBit(i + 1)) {
+                counts[i]++;
+            }
+        }
+    }
+
+    /**
+     * Splits text into sorted, distinct, space-padded trigrams.
+     */
+    static long[] trigrams(String text) {
+        String padded = " " + text + " ";
+        if (padded.length() < 3) {
+            return NO_GRAMS;
+        }
+
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+}
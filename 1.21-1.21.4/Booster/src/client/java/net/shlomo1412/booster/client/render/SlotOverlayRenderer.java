@@ -0,0 +1,178 @@
+package net.shlomo1412.booster.client.render;
+
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.VertexConsumer;
+import org.joml.Matrix4f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws the slot overlays of all modules (search highlights, dimming, fuel highlights...)
+ * in a single batched pass per frame.
+ * <p>
+ * Modules fill their own {@link Layer} with colored rectangles while rendering, and the screen
+ * calls {@link #render(DrawContext)} once at the end. All rectangles of all layers are written into
+ * one vertex buffer and drawn together, instead of one fill call per rectangle. The combined
+ * rectangle list is kept and reused as long as no layer's content changes.
+ */
+public final class SlotOverlayRenderer {
+    private static SlotOverlayRenderer instance;
+
+    // Ints per rectangle: x1, y1, x2, y2, color
+    private static final int STRIDE = 5;
+
+    private final List<Layer> layers = new ArrayList<>();
+    private int[] combined = new int[STRIDE * 64];
+    private int combinedSize = 0;
+    private boolean combinedDirty = true;
+
+    private SlotOverlayRenderer() {
+    }
+
+    /**
+     * @return The singleton instance of the overlay renderer
+     */
+    public static SlotOverlayRenderer getInstance() {
+        if (instance == null) {
+            instance = new SlotOverlayRenderer();
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a layer. Layers are drawn in the order they were created.
+     */
+    public Layer createLayer() {
+        Layer layer = new Layer(this);
+        layers.add(layer);
+        return layer;
+    }
+
+    /**
+     * Draws the overlays submitted this frame. Layers that weren't submitted count as empty.
+     */
+    public void render(DrawContext context) {
+        for (Layer layer : layers) {
+            if (!layer.submitted) {
+                layer.clearCommitted();
+            }
+            layer.submitted = false;
+        }
+
+        if (combinedDirty) {
+            rebuild();
+        }
+        if (combinedSize == 0) {
+            return;
+        }
+
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+        context.draw(consumers -> {
+            VertexConsumer buffer = consumers.getBuffer(RenderLayer.getGui());
+            for (int i = 0; i < combinedSize; i += STRIDE) {
+                float x1 = combined[i];
+                float y1 = combined[i + 1];
+                float x2 = combined[i + 2];
+                float y2 = combined[i + 3];
+                int color = combined[i + 4];
+                buffer.vertex(matrix, x1, y1, 0).color(color);
+                buffer.vertex(matrix, x1, y2, 0).color(color);
+                buffer.vertex(matrix, x2, y2, 0).color(color);
+                buffer.vertex(matrix, x2, y1, 0).color(color);
+            }
+        });
+    }
+
+    private void rebuild() {
+        int total = 0;
+        for (Layer layer : layers) {
+            total += layer.committedSize;
+        }
+        if (combined.length < total) {
+            combined = new int[Math.max(total, combined.length * 2)];
+        }
+
+        int offset = 0;
+        for (Layer layer : layers) {
+            System.arraycopy(layer.committed, 0, combined, offset, layer.committedSize);
+            offset += layer.committedSize;
+        }
+        combinedSize = total;
+        combinedDirty = false;
+    }
+
+    /**
+     * A module's overlay rectangles for the current frame.
+     * Call {@link #begin()}, add rectangles, then {@link #end()} every frame the overlays are shown.
+     */
+    public static final class Layer {
+        private final SlotOverlayRenderer renderer;
+        private int[] pending = new int[STRIDE * 32];
+        private int pendingSize = 0;
+        private int[] committed = new int[STRIDE * 32];
+        private int committedSize = 0;
+        private boolean submitted = false;
+
+        private Layer(SlotOverlayRenderer renderer) {
+            this.renderer = renderer;
+        }
+
+        /**
+         * Starts collecting this frame's rectangles.
+         */
+        public void begin() {
+            pendingSize = 0;
+        }
+
+        /**
+         * Adds a filled rectangle, with the same coordinates as {@link DrawContext#fill}.
+         */
+        public void fill(int x1, int y1, int x2, int y2, int color) {
+            if (pendingSize + STRIDE > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[pendingSize++] = Math.min(x1, x2);
+            pending[pendingSize++] = Math.min(y1, y2);
+            pending[pendingSize++] = Math.max(x1, x2);
+            pending[pendingSize++] = Math.max(y1, y2);
+            pending[pendingSize++] = color;
+        }
+
+        /**
+         * Adds a one pixel outline drawn inside the given rectangle.
+         */
+        public void outline(int x1, int y1, int x2, int y2, int color) {
+            fill(x1, y1, x2, y1 + 1, color);         // Top
+            fill(x1, y2 - 1, x2, y2, color);         // Bottom
+            fill(x1, y1 + 1, x1 + 1, y2 - 1, color); // Left
+            fill(x2 - 1, y1 + 1, x2, y2 - 1, color); // Right
+        }
+
+        /**
+         * Finishes this frame's rectangles. The shared buffer is only rebuilt if they changed.
+         */
+        public void end() {
+            submitted = true;
+            if (pendingSize == committedSize && Arrays.equals(pending, 0, pendingSize, committed, 0, committedSize)) {
+                return;
+            }
+
+            int[] previous = committed;
+            committed = pending;
+            committedSize = pendingSize;
+            pending = previous;
+            pendingSize = 0;
+            renderer.combinedDirty = true;
+        }
+
+        private void clearCommitted() {
+            if (committedSize > 0) {
+                committedSize = 0;
+                renderer.combinedDirty = true;
+            }
+        }
+    }
+}
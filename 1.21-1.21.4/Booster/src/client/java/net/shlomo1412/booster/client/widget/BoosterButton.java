@@ -10,6 +10,7 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.shlomo1412.booster.client.editor.DraggableWidget;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
 import net.shlomo1412.booster.client.module.GUIModule;
 
 /**
@@ -34,6 +35,9 @@ public class BoosterButton extends ButtonWidget implements DraggableWidget {
     private String displayName;
     private int anchorX; // The anchor X position used for offset calculation
     private int anchorY; // The anchor Y position used for offset calculation
+    
+    // Progress of click work started by this button
+    private final ClickProgressBar progressBar = new ClickProgressBar();
 
     /**
      * Creates a new Booster button.
@@ -207,6 +211,15 @@ public class BoosterButton extends ButtonWidget implements DraggableWidget {
         }
 
         super.renderWidget(context, mouseX, mouseY, delta);
+        progressBar.render(context, getX(), getY(), width, height);
+    }
+    
+    /**
+     * Updates the progress bar from a click batch started by this button.
+     * Use as the batch's progress listener.
+     */
+    public void updateProgress(ClickBatch batch) {
+        progressBar.update(batch);
     }
 
     /**
@@ -1,11 +1,10 @@
 package net.shlomo1412.booster.client.widget;
 
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.Drawable;
 import net.minecraft.client.gui.Element;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
-import net.minecraft.entity.player.PlayerInventory;
-import net.minecraft.screen.slot.Slot;
 import net.shlomo1412.booster.client.editor.DraggableWidget;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
 import net.shlomo1412.booster.client.module.GUIModule;
@@ -121,6 +120,9 @@ public class BoosterProgressBar implements Drawable, Element, DraggableWidget {
                 drawResizeHandle(context, x - handleSize/2, y + height - handleSize/2, handleSize);
                 drawResizeHandle(context, x + width - handleSize/2, y + height - handleSize/2, handleSize);
             }
+        } else if (isMouseOver(mouseX, mouseY)) {
+            // Fill details and the most common items
+            context.drawTooltip(MinecraftClient.getInstance().textRenderer, module.getTooltipLines(), mouseX, mouseY);
         }
     }
     
@@ -131,30 +133,13 @@ public class BoosterProgressBar implements Drawable, Element, DraggableWidget {
     
     /**
      * Calculates the fill percentage of the container.
+     * The module caches the slot counts between inventory changes.
      */
     private float calculateFillPercentage() {
         if (screen == null) {
             return 0f;
         }
-        
-        var handler = screen.getScreenHandler();
-        int totalSlots = 0;
-        int filledSlots = 0;
-        
-        for (Slot slot : handler.slots) {
-            if (!(slot.inventory instanceof PlayerInventory)) {
-                totalSlots++;
-                if (slot.hasStack()) {
-                    filledSlots++;
-                }
-            }
-        }
-        
-        if (totalSlots == 0) {
-            return 0f;
-        }
-        
-        return (float) filledSlots / totalSlots;
+        return module.calculateFillPercentage();
     }
     
     // ==================== DraggableWidget Implementation ====================
@@ -0,0 +1,34 @@
+package net.shlomo1412.booster.client.widget;
+
+import net.minecraft.client.gui.DrawContext;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
+
+/**
+ * Progress of the click work started by a button, drawn as a thin bar along its bottom edge.
+ * Shared by the buttons that submit {@link ClickBatch}es.
+ */
+public final class ClickProgressBar {
+
+    private static final int BACKGROUND_COLOR = 0x80000000;
+    private static final int FILL_COLOR = 0xFF55FF55;
+
+    // Negative = nothing in flight
+    private float progress = -1;
+
+    /**
+     * Updates the progress from a click batch. Use as the batch's progress listener.
+     */
+    public void update(ClickBatch batch) {
+        this.progress = batch.isFinished() ? -1 : batch.getProgress();
+    }
+
+    /**
+     * Draws the bar inside the bottom edge of a widget while click work is in flight.
+     */
+    public void render(DrawContext context, int x, int y, int width, int height) {
+        if (progress < 0 || progress >= 1) return;
+        int barWidth = (int) ((width - 2) * progress);
+        context.fill(x + 1, y + height - 2, x + width - 1, y + height - 1, BACKGROUND_COLOR);
+        context.fill(x + 1, y + height - 2, x + 1 + barWidth, y + height - 1, FILL_COLOR);
+    }
+}
@@ -10,6 +10,7 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.shlomo1412.booster.client.editor.DraggableWidget;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
+import net.shlomo1412.booster.client.inventory.ClickBatch;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.modules.SortMode;
 
@@ -38,6 +39,9 @@ public class SortButton extends ButtonWidget implements DraggableWidget {
     private int anchorX;
     private int anchorY;
     
+    // Progress of click work started by this button
+    private final ClickProgressBar progressBar = new ClickProgressBar();
+    
     // Tooltip texts
     private Tooltip normalTooltip;
     private Tooltip extendedTooltip;
@@ -287,6 +291,9 @@ public class SortButton extends ButtonWidget implements DraggableWidget {
         
         super.renderWidget(context, mouseX, mouseY, delta);
         
+        // Draw progress bar while a sort is in flight
+        progressBar.render(context, getX(), getY(), width, height);
+        
         // Draw mode indicator (small dot or letter)
         if (!EditorModeManager.getInstance().isEditorModeActive()) {
             String modeIndicator = currentMode.getDisplayName().substring(0, 1);
@@ -297,6 +304,14 @@ public class SortButton extends ButtonWidget implements DraggableWidget {
         }
     }
     
+    /**
+     * Updates the progress bar from a click batch started by this button.
+     * Use as the batch's progress listener.
+     */
+    public void updateProgress(ClickBatch batch) {
+        progressBar.update(batch);
+    }
+    
     private void drawResizeHandle(DrawContext context, int x, int y, int size, int fillColor, int borderColor) {
         context.fill(x, y, x + size, y + size, borderColor);
         context.fill(x + 1, y + 1, x + size - 1, y + size - 1, fillColor);
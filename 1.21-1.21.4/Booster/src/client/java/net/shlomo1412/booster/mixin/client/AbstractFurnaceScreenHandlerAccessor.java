@@ -0,0 +1,18 @@
+package net.shlomo1412.booster.mixin.client;
+
+import net.minecraft.screen.AbstractFurnaceScreenHandler;
+import net.minecraft.screen.PropertyDelegate;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Accessor for the raw furnace properties synced to the client.
+ * Indices: 0 = fuel burn time remaining, 1 = total fuel burn time,
+ * 2 = current cook progress, 3 = total cook time (all in ticks).
+ */
+@Mixin(AbstractFurnaceScreenHandler.class)
+public interface AbstractFurnaceScreenHandlerAccessor {
+
+    @Accessor("propertyDelegate")
+    PropertyDelegate booster$getPropertyDelegate();
+}
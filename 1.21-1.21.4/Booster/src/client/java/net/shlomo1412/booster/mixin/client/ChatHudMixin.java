@@ -2,40 +2,38 @@ package net.shlomo1412.booster.mixin.client;
 
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.hud.ChatHud;
-import net.minecraft.client.gui.hud.MessageIndicator;
 import net.minecraft.client.network.ClientPlayerEntity;
-import net.minecraft.network.message.MessageSignatureData;
 import net.minecraft.text.Text;
 import net.shlomo1412.booster.client.module.ModuleManager;
 import net.shlomo1412.booster.client.module.modules.MentionedInChatAlertModule;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.ModifyVariable;
 
 /**
- * Mixin to intercept chat messages for mention detection.
+ * Mixin to intercept chat messages for mention detection and highlighting.
  */
 @Mixin(ChatHud.class)
 public abstract class ChatHudMixin {
     
     /**
-     * Intercepts chat messages to check for player name mentions.
+     * Intercepts chat messages to check for player name mentions, highlighting them if enabled.
      */
-    @Inject(method = "addMessage(Lnet/minecraft/text/Text;Lnet/minecraft/network/message/MessageSignatureData;Lnet/minecraft/client/gui/hud/MessageIndicator;)V", 
-            at = @At("HEAD"))
-    private void booster$onChatMessage(Text message, MessageSignatureData signatureData, MessageIndicator indicator, CallbackInfo ci) {
+    @ModifyVariable(method = "addMessage(Lnet/minecraft/text/Text;Lnet/minecraft/network/message/MessageSignatureData;Lnet/minecraft/client/gui/hud/MessageIndicator;)V", 
+            at = @At("HEAD"), argsOnly = true)
+    private Text booster$onChatMessage(Text message) {
         MinecraftClient client = MinecraftClient.getInstance();
         ClientPlayerEntity player = client.player;
         
-        if (player == null) return;
+        if (player == null) return message;
         
         String playerName = player.getName().getString();
         
         // Check for mentions
         MentionedInChatAlertModule mentionModule = ModuleManager.getInstance().getModule(MentionedInChatAlertModule.class);
         if (mentionModule != null) {
-            mentionModule.checkForMention(message, playerName);
+            return mentionModule.onChatMessage(message, playerName);
         }
+        return message;
     }
 }
@@ -14,6 +14,7 @@ import net.minecraft.screen.CraftingScreenHandler;
 import net.minecraft.screen.GenericContainerScreenHandler;
 import net.minecraft.screen.PlayerScreenHandler;
 import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
 import net.shlomo1412.booster.client.editor.DraggableWidget;
 import net.shlomo1412.booster.client.editor.EditorModeManager;
 import net.shlomo1412.booster.client.editor.ScreenInfo;
@@ -24,11 +25,13 @@ import net.shlomo1412.booster.client.editor.widget.EditorSidebar;
 import net.shlomo1412.booster.client.module.GUIModule;
 import net.shlomo1412.booster.client.module.ModuleManager;
 import net.shlomo1412.booster.client.module.modules.AutoArmorModule;
+import net.shlomo1412.booster.client.module.modules.BatchCraftModule;
 import net.shlomo1412.booster.client.module.modules.ClearFurnaceModule;
 import net.shlomo1412.booster.client.module.modules.ClearGridModule;
 import net.shlomo1412.booster.client.module.modules.DropAllContainerModule;
 import net.shlomo1412.booster.client.module.modules.DropAllModule;
 import net.shlomo1412.booster.client.module.modules.EstimatedFuelTimeModule;
+import net.shlomo1412.booster.client.module.modules.FurnaceArrayModule;
 import net.shlomo1412.booster.client.module.modules.HighlightFuelModule;
 import net.shlomo1412.booster.client.module.modules.InfiniteCraftModule;
 import net.shlomo1412.booster.client.module.modules.InventoryProgressModule;
@@ -38,6 +41,7 @@ import net.shlomo1412.booster.client.module.modules.SmartFuelModule;
 import net.shlomo1412.booster.client.module.modules.SortContainerModule;
 import net.shlomo1412.booster.client.module.modules.SortInventoryModule;
 import net.shlomo1412.booster.client.module.modules.StealStoreModule;
+import net.shlomo1412.booster.client.render.SlotOverlayRenderer;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -72,6 +76,9 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
     @Shadow
     protected int backgroundHeight;
 
+    @Shadow
+    protected Slot focusedSlot;
+
     // Editor mode components
     @Unique
     private EditButton booster$editButton;
@@ -117,6 +124,9 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
     @Unique
     private InfiniteCraftModule booster$infiniteCraftModule;
     
+    @Unique
+    private BatchCraftModule booster$batchCraftModule;
+    
     // Player inventory modules
     @Unique
     private AutoArmorModule booster$autoArmorModule;
@@ -136,6 +146,9 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
     
     @Unique
     private ClearFurnaceModule booster$clearFurnaceModule;
+    
+    @Unique
+    private FurnaceArrayModule booster$furnaceArrayModule;
 
     // Required for extending Screen
     protected HandledScreenMixin() {
@@ -165,12 +178,14 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
         booster$progressBarWidget = null;
         booster$clearGridModule = null;
         booster$infiniteCraftModule = null;
+        booster$batchCraftModule = null;
         booster$autoArmorModule = null;
         booster$estimatedFuelTimeModule = null;
         booster$pinEstimatedTimeModule = null;
         booster$smartFuelModule = null;
         booster$highlightFuelModule = null;
         booster$clearFurnaceModule = null;
+        booster$furnaceArrayModule = null;
 
         // Determine screen type
         boolean isContainerScreen = handler instanceof GenericContainerScreenHandler;
@@ -278,6 +293,21 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
                     );
                 }
             }
+            
+            // Add Batch Craft field
+            booster$batchCraftModule = ModuleManager.getInstance().getModule(BatchCraftModule.class);
+            if (booster$batchCraftModule != null) {
+                booster$hasBoosterContent = true;
+                
+                if (booster$batchCraftModule.isEnabled()) {
+                    booster$batchCraftModule.createTargetField(
+                        self,
+                        x + backgroundWidth,  // Right edge of crafting GUI
+                        y,
+                        field -> this.addDrawableChild(field)
+                    );
+                }
+            }
         }
         
         // Add Sort Inventory button (works on container, player inventory, and crafting screens)
@@ -425,6 +455,21 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
                     );
                 }
             }
+            
+            // Furnace Array module
+            booster$furnaceArrayModule = ModuleManager.getInstance().getModule(FurnaceArrayModule.class);
+            if (booster$furnaceArrayModule != null) {
+                booster$hasBoosterContent = true;
+                
+                if (booster$furnaceArrayModule.isEnabled()) {
+                    booster$furnaceArrayModule.createButton(
+                        self,
+                        furnaceButtonX,
+                        furnaceButtonY,
+                        button -> this.addDrawableChild(button)
+                    );
+                }
+            }
         }
 
         // Add Edit and Config buttons at TOP-RIGHT of SCREEN (not container)
@@ -494,6 +539,11 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
                 if (infiniteCraft != null) {
                     activeModules.add(infiniteCraft);
                 }
+                
+                BatchCraftModule batchCraft = ModuleManager.getInstance().getModule(BatchCraftModule.class);
+                if (batchCraft != null) {
+                    activeModules.add(batchCraft);
+                }
             }
             
             // Sort Inventory works on container and player inventory screens
@@ -551,6 +601,11 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
                 if (clearFurnace != null) {
                     activeModules.add(clearFurnace);
                 }
+                
+                FurnaceArrayModule furnaceArray = ModuleManager.getInstance().getModule(FurnaceArrayModule.class);
+                if (furnaceArray != null) {
+                    activeModules.add(furnaceArray);
+                }
             }
             
             ScreenInfo screenInfo = new ScreenInfo(this, x, y, backgroundWidth, backgroundHeight);
@@ -587,9 +642,10 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
      */
     @Inject(method = "render", at = @At("TAIL"))
     private void booster$onRender(DrawContext context, int mouseX, int mouseY, float delta, CallbackInfo ci) {
-        // Tick infinite craft module (handles continuous crafting)
+        // Tick infinite craft module (handles continuous crafting) and show its metrics
         if (booster$infiniteCraftModule != null && booster$infiniteCraftModule.isEnabled()) {
             booster$infiniteCraftModule.tick((HandledScreen<?>) (Object) this);
+            booster$infiniteCraftModule.renderMetrics(context, x + backgroundWidth, y);
         }
         
         // Tick auto armor module (handles automatic armor equipping)
@@ -604,7 +660,7 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
             // Update and render highlight fuel module (update every frame to catch inventory changes)
             if (booster$highlightFuelModule != null && booster$highlightFuelModule.isEnabled()) {
                 booster$highlightFuelModule.updateFuelSlots(furnaceHandler);
-                booster$highlightFuelModule.renderHighlights(context, furnaceHandler, x, y);
+                booster$highlightFuelModule.renderHighlights(furnaceHandler, x, y);
             }
             
             // Render estimated fuel time display
@@ -619,6 +675,14 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
                     booster$pinEstimatedTimeModule.updateTrackedFurnace(blockHit.getBlockPos(), furnaceHandler);
                 }
             }
+            
+            // Remember this furnace for the array and fill its pending share
+            if (booster$furnaceArrayModule != null && booster$furnaceArrayModule.isEnabled()) {
+                MinecraftClient client = MinecraftClient.getInstance();
+                if (client.crosshairTarget instanceof net.minecraft.util.hit.BlockHitResult blockHit) {
+                    booster$furnaceArrayModule.tick(blockHit.getBlockPos(), furnaceHandler);
+                }
+            }
         }
         
         // Render inventory progress bar widget (if enabled)
@@ -628,10 +692,8 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
         
         // Render search highlights (if search is active)
         if (booster$searchBarModule != null && booster$searchBarModule.isEnabled() && booster$searchBarModule.isSearchActive()) {
-            // First dim non-matching items
-            booster$searchBarModule.renderSlotDimming(context, x, y);
-            // Then highlight matching items
-            booster$searchBarModule.renderHighlights(context, x, y);
+            // Dim non-matching items and highlight matching ones
+            booster$searchBarModule.renderOverlays(x, y);
             
             // Show match count near search bar (only if there's enough space)
             if (booster$searchBarModule.shouldShowMatchCount()) {
@@ -647,6 +709,14 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
             }
         }
         
+        // Mark protected slots and blacklisted items of Drop All
+        if (booster$dropAllModule != null && booster$dropAllModule.isEnabled()) {
+            booster$dropAllModule.renderProtectedSlots(handler, x, y);
+        }
+        
+        // Draw all slot overlays (fuel highlights, search dimming and highlights, drop protection) in one batch
+        SlotOverlayRenderer.getInstance().render(context);
+        
         EditorModeManager editor = EditorModeManager.getInstance();
         
         // Render editor UI on top of everything using elevated z-level
@@ -740,6 +810,11 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
         EditorModeManager editor = EditorModeManager.getInstance();
         
         if (!editor.isEditorModeActive()) {
+            // ALT+click toggles drop protection of the hovered slot
+            if (booster$dropAllModule != null && booster$dropAllModule.isEnabled()
+                    && booster$dropAllModule.handleSlotClick(focusedSlot, button)) {
+                cir.setReturnValue(true);
+            }
             return;
         }
 
@@ -844,5 +919,9 @@ public abstract class HandledScreenMixin<T extends ScreenHandler> extends Screen
             booster$infiniteCraftModule.clearButton();
             booster$infiniteCraftModule = null;
         }
+        if (booster$batchCraftModule != null) {
+            booster$batchCraftModule.clearButton();
+            booster$batchCraftModule = null;
+        }
     }
 }